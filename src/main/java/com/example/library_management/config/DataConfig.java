@@ -1,5 +1,9 @@
 package com.example.library_management.config;
 
+import com.example.library_management.resilience.CircuitBreaker;
+import com.example.library_management.resilience.CircuitBreakingDataSource;
+import com.example.library_management.resilience.LanePartitionedDataSource;
+import com.example.library_management.resilience.WorkloadLane;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
@@ -13,7 +17,10 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 import javax.sql.DataSource;
 import jakarta.persistence.EntityManagerFactory;
 import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 
+import java.sql.Connection;
+import java.util.Map;
 import java.util.Properties;
 
 
@@ -29,6 +36,13 @@ public class DataConfig {
         this.env = env;
     }
 
+    @Bean
+    public CircuitBreaker databaseCircuitBreaker() {
+        return new CircuitBreaker("database",
+                env.getProperty("app.db.breaker.failure-threshold", Integer.class, 5),
+                env.getProperty("app.db.breaker.open-ms", Long.class, 10_000L));
+    }
+
     @Bean
     public DataSource dataSource() {
         DriverManagerDataSource dataSource = new DriverManagerDataSource();
@@ -36,7 +50,20 @@ public class DataConfig {
         dataSource.setUrl(env.getProperty("spring.datasource.url"));
         dataSource.setUsername(env.getProperty("spring.datasource.username"));
         dataSource.setPassword(env.getProperty("spring.datasource.password"));
-        return dataSource;
+        // При недоступной БД запросы отклоняются сразу, а не ждут таймаута соединения
+        DataSource guarded = new CircuitBreakingDataSource(dataSource, databaseCircuitBreaker(),
+                env.getProperty("app.db.breaker.slow-call-ms", Long.class, 2_000L));
+        // Отчёты берут соединения из своей доли и не вытесняют выдачу и возврат книг
+        DataSource partitioned = new LanePartitionedDataSource(guarded, Map.of(
+                WorkloadLane.PATRON, env.getProperty("app.lanes.patron.connections", Integer.class, 20),
+                WorkloadLane.REPORTING, env.getProperty("app.lanes.reporting.connections", Integer.class, 4)),
+                env.getProperty("app.lanes.connection-timeout-ms", Long.class, 2_000L));
+        // Транзакция получает соединение только при первом запросе: чтения, обслуженные снимком каталога,
+        // не занимают соединение, а режим только для чтения применяется к реальному соединению при его получении
+        LazyConnectionDataSourceProxy lazy = new LazyConnectionDataSourceProxy(partitioned);
+        lazy.setDefaultAutoCommit(true);
+        lazy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return lazy;
     }
 
     @Bean
@@ -52,6 +79,8 @@ public class DataConfig {
         properties.setProperty("hibernate.show_sql", env.getProperty("spring.jpa.show-sql"));
         properties.setProperty("hibernate.format_sql", env.getProperty("spring.jpa.properties.hibernate.format_sql"));
         properties.setProperty("hibernate.default_schema", "public");
+        // Списки в IN дополняются до степени двойки, чтобы запросы разной длины переиспользовали планы
+        properties.setProperty("hibernate.query.in_clause_parameter_padding", "true");
 
         em.setJpaProperties(properties);
         return em;
@@ -0,0 +1,18 @@
+package com.example.library_management.config;
+
+import com.example.library_management.resilience.LaneExecutor;
+import com.example.library_management.resilience.WorkloadLane;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class WorkloadLaneConfig {
+
+    // Отчёты администратора выполняются вне потоков сервера и не задерживают выдачу и возврат книг
+    @Bean(destroyMethod = "shutdown")
+    public LaneExecutor reportingExecutor(@Value("${app.lanes.reporting.threads:4}") int threads,
+                                          @Value("${app.lanes.reporting.queue-capacity:50}") int queueCapacity) {
+        return new LaneExecutor(WorkloadLane.REPORTING, threads, queueCapacity);
+    }
+}
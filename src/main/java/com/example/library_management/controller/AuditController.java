@@ -4,6 +4,7 @@ import com.example.library_management.dto.AuditLogDTO;
 import com.example.library_management.mapper.AuditMapper;
 import com.example.library_management.model.AuditLog;
 import com.example.library_management.model.User;
+import com.example.library_management.resilience.LaneExecutor;
 import com.example.library_management.service.AuditService;
 import com.example.library_management.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -20,6 +21,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -32,6 +34,8 @@ public class AuditController {
     private final AuditService auditService;
     private final UserService userService;
     private final AuditMapper auditMapper;
+    // Логи читаются в потоках и соединениях отчётов, не занимая потоки сервера
+    private final LaneExecutor reportingExecutor;
 
     @Operation(
             summary = "Получить все логи",
@@ -47,11 +51,13 @@ public class AuditController {
     // Получить все логи
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<AuditLogDTO>> getAllLogs() {
-        List<AuditLogDTO> dtos = auditService.getAllLogs().stream()
-                .map(auditMapper::toDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(dtos);
+    public CompletableFuture<ResponseEntity<List<AuditLogDTO>>> getAllLogs() {
+        return CompletableFuture.supplyAsync(() -> {
+            List<AuditLogDTO> dtos = auditService.getAllLogs().stream()
+                    .map(auditMapper::toDTO)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(dtos);
+        }, reportingExecutor);
     }
 
     @Operation(
@@ -69,19 +75,21 @@ public class AuditController {
     // Получить логи по ID книги
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/book/{bookId}")
-    public ResponseEntity<?> getLogsByBookId(
+    public CompletableFuture<ResponseEntity<?>> getLogsByBookId(
             @Parameter(description = "ID книги", example = "1") @PathVariable Long bookId) {
-        List<AuditLog> logs = auditService.getLogsByBookId(bookId);
+        return CompletableFuture.supplyAsync(() -> {
+            List<AuditLog> logs = auditService.getLogsByBookId(bookId);
 
-        if (logs.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body("Логов для книги с ID " + bookId + " пока нет");
-        }
+            if (logs.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body("Логов для книги с ID " + bookId + " пока нет");
+            }
 
-        List<AuditLogDTO> dtos = logs.stream()
-                .map(auditMapper::toDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(dtos);
+            List<AuditLogDTO> dtos = logs.stream()
+                    .map(auditMapper::toDTO)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(dtos);
+        }, reportingExecutor);
     }
 
     @Operation(
@@ -99,20 +107,22 @@ public class AuditController {
     // Получить логи по ID пользователя
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/user/{userId}")
-    public ResponseEntity<?> getLogsByUserId(
+    public CompletableFuture<ResponseEntity<?>> getLogsByUserId(
             @Parameter(description = "ID пользователя", example = "1") @PathVariable Long userId
     ) {
-        User user = userService.getUserById(userId);
-        List<AuditLog> logs = auditService.getLogsByUser(user);
+        return CompletableFuture.supplyAsync(() -> {
+            User user = userService.getUserById(userId);
+            List<AuditLog> logs = auditService.getLogsByUser(user);
 
-        if (logs.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body("Логов для пользователя с ID " + userId + " пока нет");
-        }
+            if (logs.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body("Логов для пользователя с ID " + userId + " пока нет");
+            }
 
-        List<AuditLogDTO> dtos = logs.stream()
-                .map(auditMapper::toDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(dtos);
+            List<AuditLogDTO> dtos = logs.stream()
+                    .map(auditMapper::toDTO)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(dtos);
+        }, reportingExecutor);
     }
 }
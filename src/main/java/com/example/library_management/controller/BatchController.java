@@ -0,0 +1,62 @@
+package com.example.library_management.controller;
+
+import com.example.library_management.dto.BatchRequestDTO;
+import com.example.library_management.dto.BatchResultDTO;
+import com.example.library_management.model.RoleType;
+import com.example.library_management.model.User;
+import com.example.library_management.service.BatchService;
+import com.example.library_management.service.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/batch")
+@RequiredArgsConstructor
+@Tag(name = "Пакетные операции", description = "Выполнение нескольких операций одним запросом")
+public class BatchController {
+
+    private final BatchService batchService;
+    private final UserService userService;
+
+    @Operation(
+            summary = "Выполнить пакет операций",
+            description = "Выполняет по порядку добавление книг, аренду, возврат и изменение категорий в одной транзакции. " +
+                    "Первая ошибка откатывает весь пакет, остальные операции получают статус SKIPPED. " +
+                    "Добавление книг и изменение категорий доступны только администратору.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Операции в порядке выполнения",
+                    required = true,
+                    content = @Content(schema = @Schema(implementation = BatchRequestDTO.class))
+            ),
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Пакет обработан, результат по каждой операции",
+                            content = @Content(schema = @Schema(implementation = BatchResultDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Невалидные данные", content = @Content),
+                    @ApiResponse(responseCode = "403", description = "Доступ запрещён", content = @Content),
+                    @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+            }
+    )
+
+    // Выполнить пакет операций
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @PostMapping
+    public ResponseEntity<BatchResultDTO> executeBatch(
+            @Valid @RequestBody BatchRequestDTO request,
+            Authentication authentication
+    ) {
+        User user = userService.findByUsername(authentication.getName());
+        boolean admin = authentication.getAuthorities().stream()
+                .anyMatch(authority -> RoleType.ROLE_ADMIN.name().equals(authority.getAuthority()));
+
+        return ResponseEntity.ok(batchService.execute(request.getOperations(), user, admin));
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.library_management.controller;
 
+import com.example.library_management.dto.BookInfoDTO;
 import com.example.library_management.dto.CategoryDTO;
+import com.example.library_management.dto.CategoryDetailsDTO;
+import com.example.library_management.dto.CategoryTreeNodeDTO;
+import com.example.library_management.dto.KeysetPageDTO;
 import com.example.library_management.model.Category;
 import com.example.library_management.service.CategoryService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -34,7 +38,7 @@ public class CategoryController {
             description = "Возвращает список всех категорий. Только для администратора.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Список категорий успешно получен",
-                            content = @Content(schema = @Schema(implementation = CategoryDTO.class))),
+                            content = @Content(schema = @Schema(implementation = CategoryDetailsDTO.class))),
                     @ApiResponse(responseCode = "403", description = "Доступ запрещён", content = @Content),
                     @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
             }
@@ -43,18 +47,36 @@ public class CategoryController {
     // Получить все категории
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/all")
-    public ResponseEntity<List<Category>> getAllCategories() {
-        List<Category> categories = categoryService.getAllCategories();
+    public ResponseEntity<List<CategoryDetailsDTO>> getAllCategories() {
+        List<CategoryDetailsDTO> categories = categoryService.getAllCategories();
         log.info("Получено {} категорий из базы данных", categories.size());
         return ResponseEntity.ok(categories);
     }
 
+    @Operation(
+            summary = "Получить дерево категорий",
+            description = "Возвращает все категории вложенным деревом. Дерево строится одним запросом и кэшируется до следующего изменения категорий. Только для администратора.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Дерево категорий получено",
+                            content = @Content(schema = @Schema(implementation = CategoryTreeNodeDTO.class))),
+                    @ApiResponse(responseCode = "403", description = "Доступ запрещён", content = @Content),
+                    @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+            }
+    )
+
+    // Получить дерево категорий
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/tree")
+    public ResponseEntity<List<CategoryTreeNodeDTO>> getCategoryTree() {
+        return ResponseEntity.ok(categoryService.getCategoryTree());
+    }
+
     @Operation(
             summary = "Получить категорию по ID",
             description = "Возвращает информацию о категории по её ID. Только для администратора.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Категория найдена",
-                            content = @Content(schema = @Schema(implementation = CategoryDTO.class))),
+                            content = @Content(schema = @Schema(implementation = CategoryDetailsDTO.class))),
                     @ApiResponse(responseCode = "404", description = "Категория не найдена", content = @Content),
                     @ApiResponse(responseCode = "403", description = "Доступ запрещён", content = @Content),
                     @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
@@ -64,11 +86,11 @@ public class CategoryController {
     // Получить категорию по ID
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/{id}")
-    public ResponseEntity<Category> getCategoryById(
+    public ResponseEntity<CategoryDetailsDTO> getCategoryById(
             @Parameter(description = "ID категории", example = "3")
             @PathVariable Long id
     ) {
-        Category category = categoryService.getCategoryById(id);
+        CategoryDetailsDTO category = categoryService.getCategoryById(id);
         log.info("Получена категория с ID {}", id);
         return ResponseEntity.ok(category);
     }
@@ -78,7 +100,7 @@ public class CategoryController {
             description = "Возвращает список подкатегорий для категории по её ID родителя.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Список подкатегорий успешно получен",
-                            content = @Content(schema = @Schema(implementation = CategoryDTO.class))),
+                            content = @Content(schema = @Schema(implementation = CategoryDetailsDTO.class))),
                     @ApiResponse(responseCode = "404", description = "Подкатегории не найдены", content = @Content),
                     @ApiResponse(responseCode = "403", description = "Доступ запрещён", content = @Content),
                     @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
@@ -88,17 +110,88 @@ public class CategoryController {
     // Получить подкатегории по ID родителя
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/{parentId}/subcategories")
-    public ResponseEntity<List<Category>> getSubcategories(
+    public ResponseEntity<List<CategoryDetailsDTO>> getSubcategories(
             @Parameter(description = "ID родительской категории", example = "1")
             @PathVariable Long parentId
     ) {
         categoryService.getCategoryById(parentId);
 
-        List<Category> subcategories = categoryService.getSubcategories(parentId);
+        List<CategoryDetailsDTO> subcategories = categoryService.getSubcategories(parentId);
         log.info("Получено {} подкатегорий для родителя с ID {}", subcategories.size(), parentId);
         return ResponseEntity.ok(subcategories);
     }
 
+    @Operation(
+            summary = "Получить поддерево категории",
+            description = "Возвращает категорию и всех её потомков любой глубины, упорядоченных по уровню. Только для администратора.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Поддерево получено",
+                            content = @Content(schema = @Schema(implementation = CategoryDTO.class))),
+                    @ApiResponse(responseCode = "404", description = "Категория не найдена", content = @Content),
+                    @ApiResponse(responseCode = "403", description = "Доступ запрещён", content = @Content),
+                    @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+            }
+    )
+
+    // Получить поддерево категории
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/{id}/subtree")
+    public ResponseEntity<List<CategoryDTO>> getSubtree(
+            @Parameter(description = "ID категории", example = "1")
+            @PathVariable Long id
+    ) {
+        return ResponseEntity.ok(categoryService.getSubtree(id));
+    }
+
+    @Operation(
+            summary = "Получить предков категории",
+            description = "Возвращает цепочку родительских категорий от корня до непосредственного родителя. Только для администратора.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Предки получены",
+                            content = @Content(schema = @Schema(implementation = CategoryDTO.class))),
+                    @ApiResponse(responseCode = "404", description = "Категория не найдена", content = @Content),
+                    @ApiResponse(responseCode = "403", description = "Доступ запрещён", content = @Content),
+                    @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+            }
+    )
+
+    // Получить предков категории
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/{id}/ancestors")
+    public ResponseEntity<List<CategoryDTO>> getAncestors(
+            @Parameter(description = "ID категории", example = "4")
+            @PathVariable Long id
+    ) {
+        return ResponseEntity.ok(categoryService.getAncestors(id));
+    }
+
+    @Operation(
+            summary = "Получить книги категории с подкатегориями",
+            description = "Возвращает страницу книг категории и всех её подкатегорий, упорядоченных по ID. Для следующей страницы передайте nextAfterId как afterId.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Страница книг получена",
+                            content = @Content(schema = @Schema(implementation = KeysetPageDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Некорректный размер страницы", content = @Content),
+                    @ApiResponse(responseCode = "404", description = "Категория не найдена", content = @Content),
+                    @ApiResponse(responseCode = "403", description = "Доступ запрещён", content = @Content),
+                    @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+            }
+    )
+
+    // Получить книги категории с подкатегориями
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @GetMapping("/{id}/books")
+    public ResponseEntity<KeysetPageDTO<BookInfoDTO>> getBooksInSubtree(
+            @Parameter(description = "ID категории", example = "1")
+            @PathVariable Long id,
+            @Parameter(description = "ID последней книги предыдущей страницы", example = "0")
+            @RequestParam(required = false) Long afterId,
+            @Parameter(description = "Размер страницы (1–500)", example = "50")
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        return ResponseEntity.ok(categoryService.getBooksInSubtree(id, afterId, size));
+    }
+
     @Operation(
             summary = "Создать новую категорию",
             description = "Создаёт новую категорию. Только для администратора.",
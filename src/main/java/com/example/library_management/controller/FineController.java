@@ -0,0 +1,91 @@
+package com.example.library_management.controller;
+
+import com.example.library_management.dto.FineSummaryDTO;
+import com.example.library_management.model.User;
+import com.example.library_management.service.FineService;
+import com.example.library_management.service.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/fines")
+@RequiredArgsConstructor
+@Tag(name = "Штрафы", description = "Методы для получения и начисления штрафов за просрочку")
+public class FineController {
+
+    private final FineService fineService;
+    private final UserService userService;
+
+    @Operation(
+            summary = "Мои штрафы",
+            description = "Возвращает сумму и начисления штрафов текущего пользователя",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Штрафы получены",
+                            content = @Content(schema = @Schema(implementation = FineSummaryDTO.class))),
+                    @ApiResponse(responseCode = "403", description = "Доступ запрещён", content = @Content),
+                    @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+            }
+    )
+
+    // Штрафы текущего пользователя
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @GetMapping("/me")
+    public ResponseEntity<FineSummaryDTO> getMyFines(Authentication authentication) {
+        User user = userService.findByUsername(authentication.getName());
+        return ResponseEntity.ok(fineService.getUserFines(user.getId()));
+    }
+
+    @Operation(
+            summary = "Штрафы пользователя",
+            description = "Возвращает сумму и начисления штрафов пользователя по ID. Только для администратора.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Штрафы получены",
+                            content = @Content(schema = @Schema(implementation = FineSummaryDTO.class))),
+                    @ApiResponse(responseCode = "403", description = "Доступ запрещён", content = @Content),
+                    @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+            }
+    )
+
+    // Штрафы пользователя по ID
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/user/{userId}")
+    public ResponseEntity<FineSummaryDTO> getUserFines(
+            @Parameter(description = "ID пользователя", example = "5")
+            @PathVariable Long userId
+    ) {
+        return ResponseEntity.ok(fineService.getUserFines(userId));
+    }
+
+    @Operation(
+            summary = "Начислить штрафы за сегодня",
+            description = "Запускает начисление штрафов вне расписания. Повторный запуск за тот же день не создаёт дублей. Только для администратора.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Штрафы начислены"),
+                    @ApiResponse(responseCode = "403", description = "Доступ запрещён", content = @Content),
+                    @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+            }
+    )
+
+    // Начислить штрафы вручную
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/accrue")
+    public ResponseEntity<String> accrueFines() {
+        int accrued = fineService.accrueForDay(LocalDate.now());
+
+        log.info("Ручное начисление штрафов: {} записей", accrued);
+        return ResponseEntity.ok("Начислено штрафов: " + accrued);
+    }
+}
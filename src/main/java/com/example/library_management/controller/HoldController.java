@@ -0,0 +1,120 @@
+package com.example.library_management.controller;
+
+import com.example.library_management.dto.HoldDTO;
+import com.example.library_management.model.User;
+import com.example.library_management.service.HoldService;
+import com.example.library_management.service.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/holds")
+@RequiredArgsConstructor
+@Tag(name = "Очередь", description = "Методы для управления очередью ожидания книг")
+public class HoldController {
+
+    private final HoldService holdService;
+    private final UserService userService;
+
+    @Operation(
+            summary = "Встать в очередь на книгу",
+            description = "Ставит пользователя в очередь на книгу, у которой нет свободных экземпляров. Освободившийся экземпляр будет выдан автоматически.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Заявка создана",
+                            content = @Content(schema = @Schema(implementation = HoldDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Есть свободные экземпляры или заявка уже существует", content = @Content),
+                    @ApiResponse(responseCode = "404", description = "Книга не найдена", content = @Content),
+                    @ApiResponse(responseCode = "403", description = "Доступ запрещён", content = @Content),
+                    @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+            }
+    )
+
+    // Встать в очередь на книгу
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @PostMapping("/{bookInfoId}")
+    public ResponseEntity<HoldDTO> placeHold(
+            @Parameter(description = "ID информации о книге", example = "1")
+            @PathVariable Long bookInfoId,
+            Authentication authentication
+    ) {
+        User user = userService.findByUsername(authentication.getName());
+        return ResponseEntity.ok(holdService.placeHold(user, bookInfoId));
+    }
+
+    @Operation(
+            summary = "Отменить заявку",
+            description = "Отменяет ожидающую заявку текущего пользователя",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Заявка отменена"),
+                    @ApiResponse(responseCode = "404", description = "Активная заявка не найдена", content = @Content),
+                    @ApiResponse(responseCode = "403", description = "Доступ запрещён", content = @Content),
+                    @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+            }
+    )
+
+    // Отменить заявку
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @DeleteMapping("/{holdId}")
+    public ResponseEntity<String> cancelHold(
+            @Parameter(description = "ID заявки", example = "1")
+            @PathVariable Long holdId,
+            Authentication authentication
+    ) {
+        User user = userService.findByUsername(authentication.getName());
+        holdService.cancelHold(holdId, user);
+        return ResponseEntity.ok("Заявка отменена");
+    }
+
+    @Operation(
+            summary = "Мои заявки",
+            description = "Возвращает все заявки текущего пользователя",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Заявки получены",
+                            content = @Content(schema = @Schema(implementation = HoldDTO.class))),
+                    @ApiResponse(responseCode = "403", description = "Доступ запрещён", content = @Content),
+                    @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+            }
+    )
+
+    // Заявки текущего пользователя
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @GetMapping("/me")
+    public ResponseEntity<List<HoldDTO>> getMyHolds(Authentication authentication) {
+        User user = userService.findByUsername(authentication.getName());
+        return ResponseEntity.ok(holdService.getUserHolds(user.getId()));
+    }
+
+    @Operation(
+            summary = "Очередь на книгу",
+            description = "Возвращает ожидающие заявки на книгу в порядке очереди. Только для администратора.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Очередь получена",
+                            content = @Content(schema = @Schema(implementation = HoldDTO.class))),
+                    @ApiResponse(responseCode = "403", description = "Доступ запрещён", content = @Content),
+                    @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+            }
+    )
+
+    // Очередь на книгу
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/book/{bookInfoId}")
+    public ResponseEntity<List<HoldDTO>> getQueue(
+            @Parameter(description = "ID информации о книге", example = "1")
+            @PathVariable Long bookInfoId
+    ) {
+        return ResponseEntity.ok(holdService.getQueue(bookInfoId));
+    }
+}
@@ -1,8 +1,11 @@
 package com.example.library_management.controller;
 
+import com.example.library_management.dto.BookAvailabilityDTO;
 import com.example.library_management.dto.LibraryBookDTO;
 import com.example.library_management.dto.NewLibraryBookRequestDTO;
 import com.example.library_management.dto.UpdateBookInfoDTO;
+import com.example.library_management.service.BookAvailabilityService;
+import com.example.library_management.service.BookStatusBroadcaster;
 import com.example.library_management.service.LibraryBookService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -10,13 +13,16 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -29,6 +35,8 @@ import java.util.List;
 public class LibraryBookController {
 
     private final LibraryBookService libraryBookService;
+    private final BookAvailabilityService bookAvailabilityService;
+    private final BookStatusBroadcaster bookStatusBroadcaster;
 
     @Operation(
             summary = "Получить все книги",
@@ -49,6 +57,29 @@ public class LibraryBookController {
         return ResponseEntity.ok(books);
     }
 
+    @Operation(
+            summary = "Поток изменений статусов книг",
+            description = "Server-Sent Events: событие book-status при каждом закоммиченном изменении статуса экземпляра. " +
+                    "При переподключении передайте заголовок Last-Event-ID, чтобы получить пропущенные события. " +
+                    "Событие reset означает, что пропущенные события недоступны и каталог нужно загрузить заново.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Поток открыт"),
+                    @ApiResponse(responseCode = "403", description = "Доступ запрещён", content = @Content),
+                    @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+            }
+    )
+
+    // Подписаться на изменения статусов книг
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStatusChanges(
+            @Parameter(description = "ID последнего полученного события")
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            HttpServletRequest request
+    ) {
+        return bookStatusBroadcaster.subscribe(lastEventId, request);
+    }
+
     @Operation(
             summary = "Добавить новую книгу",
             description = "Добавляет новую книгу в библиотеку. Только для администратора.",
@@ -102,6 +133,51 @@ public class LibraryBookController {
         return ResponseEntity.ok(dto);
     }
 
+    @Operation(
+            summary = "Получить книги по списку ID",
+            description = "Возвращает книги по списку ID одним запросом в порядке запроса; ненайденные ID пропускаются. Доступно для пользователя и администратора.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Записи получены",
+                            content = @Content(schema = @Schema(implementation = LibraryBookDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Пустой или слишком длинный список ID", content = @Content),
+                    @ApiResponse(responseCode = "403", description = "Доступ запрещён", content = @Content),
+                    @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+            }
+    )
+
+    // Получить книги по списку ID
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @GetMapping("/by-ids")
+    public ResponseEntity<List<LibraryBookDTO>> getBooksByIds(
+            @Parameter(description = "Список ID через запятую (не более 1000)", example = "1,2,3")
+            @RequestParam List<Long> ids
+    ) {
+        return ResponseEntity.ok(libraryBookService.getBooksByIds(ids));
+    }
+
+    @Operation(
+            summary = "Получить число доступных экземпляров",
+            description = "Возвращает количество экземпляров книги, доступных для аренды. Доступно для пользователя и администратора.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Количество экземпляров получено",
+                            content = @Content(schema = @Schema(implementation = BookAvailabilityDTO.class))),
+                    @ApiResponse(responseCode = "404", description = "Книга не найдена", content = @Content),
+                    @ApiResponse(responseCode = "403", description = "Доступ запрещён", content = @Content),
+                    @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+            }
+    )
+
+    // Получить число доступных экземпляров
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @GetMapping("/info/{bookInfoId}/available")
+    public ResponseEntity<BookAvailabilityDTO> getAvailableCount(
+            @Parameter(description = "ID информации о книге", example = "1")
+            @PathVariable Long bookInfoId
+    ) {
+        int availableCount = bookAvailabilityService.getAvailableCount(bookInfoId);
+        return ResponseEntity.ok(new BookAvailabilityDTO(bookInfoId, availableCount));
+    }
+
     @Operation(
             summary = "Удалить книгу по ID",
             description = "Удаляет книгу и связанную информацию по её ID. Только для администратора.",
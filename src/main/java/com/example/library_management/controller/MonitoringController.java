@@ -0,0 +1,43 @@
+package com.example.library_management.controller;
+
+import com.example.library_management.dto.WorkloadLaneStatsDTO;
+import com.example.library_management.resilience.WorkloadLaneMetrics;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/monitoring")
+@RequiredArgsConstructor
+@Tag(name = "Мониторинг", description = "Состояние классов нагрузки")
+public class MonitoringController {
+
+    private final WorkloadLaneMetrics workloadLaneMetrics;
+
+    @Operation(
+            summary = "Состояние классов нагрузки",
+            description = "Возвращает для выдачи книг и отчётов занятость их доли соединений с БД, " +
+                    "ожидание соединений и очередь исполнителя. Только для администратора.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Показатели получены",
+                            content = @Content(schema = @Schema(implementation = WorkloadLaneStatsDTO.class))),
+                    @ApiResponse(responseCode = "403", description = "Доступ запрещён", content = @Content),
+                    @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+            }
+    )
+
+    // Состояние классов нагрузки
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/lanes")
+    public ResponseEntity<List<WorkloadLaneStatsDTO>> getLaneStats() {
+        return ResponseEntity.ok(workloadLaneMetrics.getStats());
+    }
+}
@@ -1,9 +1,14 @@
 package com.example.library_management.controller;
 
+import com.example.library_management.dto.BatchReturnRequestDTO;
+import com.example.library_management.dto.BatchReturnResultDTO;
+import com.example.library_management.dto.KeysetPageDTO;
 import com.example.library_management.dto.RentalDTO;
 import com.example.library_management.mapper.RentalMapper;
 import com.example.library_management.model.Rental;
 import com.example.library_management.model.User;
+import com.example.library_management.resilience.LaneExecutor;
+import com.example.library_management.service.IdempotencyService;
 import com.example.library_management.service.RentalService;
 import com.example.library_management.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -13,6 +18,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -23,6 +29,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -36,6 +43,9 @@ public class RentalController {
     private final RentalService rentalService;
     private final UserService userService;
     private final RentalMapper rentalMapper;
+    private final IdempotencyService idempotencyService;
+    // Отчёты по всем арендам выполняются в потоках и соединениях отчётов, не задерживая выдачу и возврат
+    private final LaneExecutor reportingExecutor;
 
     @Operation(
             summary = "Арендовать книгу",
@@ -54,15 +64,52 @@ public class RentalController {
     public ResponseEntity<String> rentBook(
             @Parameter(description = "ID книги для аренды", example = "1")
             @PathVariable Long bookId,
+            @Parameter(description = "Ключ идемпотентности: повтор с тем же ключом вернёт сохранённый ответ")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             Authentication authentication
     ) {
         String username = authentication.getName();
-        User user = userService.findByUsername(username);
 
-        rentalService.rentBook(user, bookId);
+        return idempotencyService.execute(username, idempotencyKey, "POST /rent/" + bookId, () -> {
+            User user = userService.findByUsername(username);
+            rentalService.rentBook(user, bookId);
 
-        log.info("Пользователь '{}' арендовал книгу ID '{}'", username, bookId);
-        return ResponseEntity.ok("Книга успешно арендована");
+            log.info("Пользователь '{}' арендовал книгу ID '{}'", username, bookId);
+            return ResponseEntity.ok("Книга успешно арендована");
+        });
+    }
+
+    @Operation(
+            summary = "Арендовать любой свободный экземпляр",
+            description = "Выдаёт пользователю любой доступный экземпляр книги по ID информации о книге",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Книга успешно арендована",
+                            content = @Content(schema = @Schema(implementation = RentalDTO.class))),
+                    @ApiResponse(responseCode = "404", description = "Нет доступных экземпляров", content = @Content),
+                    @ApiResponse(responseCode = "403", description = "Доступ запрещён", content = @Content),
+                    @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+            }
+    )
+
+    // Арендовать любой свободный экземпляр
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @PostMapping("/rent/title/{bookInfoId}")
+    public ResponseEntity<RentalDTO> rentAnyCopy(
+            @Parameter(description = "ID информации о книге", example = "1")
+            @PathVariable Long bookInfoId,
+            @Parameter(description = "Ключ идемпотентности: повтор с тем же ключом вернёт сохранённый ответ")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Authentication authentication
+    ) {
+        String username = authentication.getName();
+
+        return idempotencyService.execute(username, idempotencyKey, "POST /rent/title/" + bookInfoId, () -> {
+            User user = userService.findByUsername(username);
+            RentalDTO rental = rentalService.rentAnyCopy(user, bookInfoId);
+
+            log.info("Пользователь '{}' арендовал экземпляр ID '{}' книги '{}'", username, rental.getLibraryBookId(), bookInfoId);
+            return ResponseEntity.ok(rental);
+        });
     }
 
     @Operation(
@@ -81,14 +128,53 @@ public class RentalController {
     @PostMapping("/return/{bookId}")
     public ResponseEntity<String> returnBook(
             @Parameter(description = "ID книги для возврата", example = "1")
-            @PathVariable Long bookId
+            @PathVariable Long bookId,
+            @Parameter(description = "Ключ идемпотентности: повтор с тем же ключом вернёт сохранённый ответ")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey
     ) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String username = auth.getName();
-        User currentUser = userService.findByUsername(username);
 
-        rentalService.returnBook(bookId, currentUser);
-        return ResponseEntity.ok("Книга успешно возвращена");
+        return idempotencyService.execute(username, idempotencyKey, "POST /return/" + bookId, () -> {
+            User currentUser = userService.findByUsername(username);
+            rentalService.returnBook(bookId, currentUser);
+            return ResponseEntity.ok("Книга успешно возвращена");
+        });
+    }
+
+    @Operation(
+            summary = "Массовый возврат книг",
+            description = "Возвращает экземпляры по списку серийных номеров за одну транзакцию и сообщает результат по каждому. Только для администратора.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Серийные номера возвращаемых экземпляров",
+                    required = true,
+                    content = @Content(schema = @Schema(implementation = BatchReturnRequestDTO.class))
+            ),
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Возврат обработан",
+                            content = @Content(schema = @Schema(implementation = BatchReturnResultDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Невалидные данные", content = @Content),
+                    @ApiResponse(responseCode = "403", description = "Доступ запрещён", content = @Content),
+                    @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+            }
+    )
+
+    // Массовый возврат книг
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/return/batch")
+    public ResponseEntity<List<BatchReturnResultDTO>> returnBooksBatch(
+            @Valid @RequestBody BatchReturnRequestDTO request,
+            @Parameter(description = "Ключ идемпотентности: повтор с тем же ключом вернёт сохранённый ответ")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Authentication authentication
+    ) {
+        String username = authentication.getName();
+
+        return idempotencyService.execute(username, idempotencyKey, "POST /return/batch " + request.getSerialNumbers(), () -> {
+            User staff = userService.findByUsername(username);
+            List<BatchReturnResultDTO> results = rentalService.returnBooksBySerialNumbers(request.getSerialNumbers(), staff);
+            return ResponseEntity.ok(results);
+        });
     }
 
     @Operation(
@@ -105,13 +191,37 @@ public class RentalController {
     // Получить все аренды
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/all")
-    public ResponseEntity<List<RentalDTO>> getAllRentals() {
-        List<RentalDTO> rentalDTOs = rentalService.getAllRentals().stream()
-                .map(rentalMapper::toDTO)
-                .collect(Collectors.toList());
+    public CompletableFuture<ResponseEntity<List<RentalDTO>>> getAllRentals() {
+        return CompletableFuture.supplyAsync(() -> {
+            List<RentalDTO> rentalDTOs = rentalService.getAllRentals().stream()
+                    .map(rentalMapper::toDTO)
+                    .collect(Collectors.toList());
 
-        log.info("Получено {} аренд из базы данных", rentalDTOs.size());
-        return ResponseEntity.ok(rentalDTOs);
+            log.info("Получено {} аренд из базы данных", rentalDTOs.size());
+            return ResponseEntity.ok(rentalDTOs);
+        }, reportingExecutor);
+    }
+
+    @Operation(
+            summary = "Получить аренды по списку ID",
+            description = "Возвращает аренды по списку ID одним запросом в порядке запроса; ненайденные ID пропускаются. Только для администратора.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Записи получены",
+                            content = @Content(schema = @Schema(implementation = RentalDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Пустой или слишком длинный список ID", content = @Content),
+                    @ApiResponse(responseCode = "403", description = "Доступ запрещён", content = @Content),
+                    @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+            }
+    )
+
+    // Получить аренды по списку ID
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/by-ids")
+    public ResponseEntity<List<RentalDTO>> getRentalsByIds(
+            @Parameter(description = "Список ID через запятую (не более 1000)", example = "1,2,3")
+            @RequestParam List<Long> ids
+    ) {
+        return ResponseEntity.ok(rentalService.getRentalsByIds(ids));
     }
 
     @Operation(
@@ -182,6 +292,31 @@ public class RentalController {
         return ResponseEntity.ok(rentalDTOs);
     }
 
+    @Operation(
+            summary = "Получить просроченные аренды всех пользователей",
+            description = "Возвращает страницу просроченных аренд, упорядоченных по ID. Для следующей страницы передайте nextAfterId как afterId. Только для администратора.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Страница просроченных аренд получена",
+                            content = @Content(schema = @Schema(implementation = KeysetPageDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Некорректный размер страницы", content = @Content),
+                    @ApiResponse(responseCode = "403", description = "Доступ запрещён", content = @Content),
+                    @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+            }
+    )
+
+    // Получить просроченные аренды всех пользователей
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/overdue")
+    public CompletableFuture<ResponseEntity<KeysetPageDTO<RentalDTO>>> getOverdueRentals(
+            @Parameter(description = "ID последней аренды предыдущей страницы", example = "0")
+            @RequestParam(required = false) Long afterId,
+            @Parameter(description = "Размер страницы (1–500)", example = "50")
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        return CompletableFuture.supplyAsync(() -> ResponseEntity.ok(rentalService.getOverdueRentals(afterId, size)),
+                reportingExecutor);
+    }
+
     @Operation(
             summary = "Получить просроченные аренды по пользователю",
             description = "Возвращает список просроченных аренд для указанного пользователя. Только для администратора.",
@@ -197,13 +332,15 @@ public class RentalController {
     // Получить просроченные аренды по пользователю
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/overdue/{userId}")
-    public ResponseEntity<List<RentalDTO>> getOverdueRentalsByUser(
+    public CompletableFuture<ResponseEntity<List<RentalDTO>>> getOverdueRentalsByUser(
             @Parameter(description = "ID пользователя", example = "3")
             @PathVariable Long userId
     ) {
-        List<RentalDTO> overdueRentals = rentalService.getOverdueRentalsByUser(userId);
+        return CompletableFuture.supplyAsync(() -> {
+            List<RentalDTO> overdueRentals = rentalService.getOverdueRentalsByUser(userId);
 
-        log.info("Получены просроченные аренды пользователя с ID '{}'. Найдено {} записей", userId, overdueRentals.size());
-        return ResponseEntity.ok(overdueRentals);
+            log.info("Получены просроченные аренды пользователя с ID '{}'. Найдено {} записей", userId, overdueRentals.size());
+            return ResponseEntity.ok(overdueRentals);
+        }, reportingExecutor);
     }
 }
@@ -0,0 +1,48 @@
+package com.example.library_management.controller;
+
+import com.example.library_management.dto.CatalogSyncDTO;
+import com.example.library_management.service.CatalogSyncService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+@Tag(name = "Синхронизация", description = "Инкрементальная выгрузка изменений каталога")
+public class SyncController {
+
+    private final CatalogSyncService catalogSyncService;
+
+    @Operation(
+            summary = "Изменения каталога",
+            description = "Возвращает категории, информацию о книгах и экземпляры, изменённые после версии since, " +
+                    "включая надгробия удалённых записей. Следующий запрос делается с since = nextSince.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Изменения получены",
+                            content = @Content(schema = @Schema(implementation = CatalogSyncDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Некорректные параметры", content = @Content),
+                    @ApiResponse(responseCode = "403", description = "Доступ запрещён", content = @Content),
+                    @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+            }
+    )
+
+    // Изменения каталога после версии since
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    @GetMapping
+    public ResponseEntity<CatalogSyncDTO> getChanges(
+            @Parameter(description = "Последняя применённая версия, 0 для полной выгрузки", example = "0")
+            @RequestParam(defaultValue = "0") long since,
+            @Parameter(description = "Максимальное число изменений", example = "500")
+            @RequestParam(defaultValue = "500") int limit
+    ) {
+        return ResponseEntity.ok(catalogSyncService.getChanges(since, limit));
+    }
+}
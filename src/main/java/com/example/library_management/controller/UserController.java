@@ -3,10 +3,12 @@ package com.example.library_management.controller;
 import com.example.library_management.dto.LoginDTO;
 import com.example.library_management.dto.UpdateUserDTO;
 import com.example.library_management.dto.UserDTO;
+import com.example.library_management.dto.UserSummaryDTO;
 import com.example.library_management.mapper.UserMapper;
 import com.example.library_management.model.User;
 import com.example.library_management.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -21,6 +23,7 @@ import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
 
+import java.util.List;
 import java.util.Map;
 
 @Slf4j
@@ -126,5 +129,26 @@ public class UserController {
         log.info("Пользователь с id={} удален", id);
         return ResponseEntity.ok("Пользователь удален");
     }
-}
 
+    @Operation(
+            summary = "Получить пользователей по списку ID",
+            description = "Возвращает краткие данные пользователей (ID, логин, роль) по списку ID одним запросом в порядке запроса; ненайденные ID пропускаются. Только для администратора.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Записи получены",
+                            content = @Content(schema = @Schema(implementation = UserSummaryDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Пустой или слишком длинный список ID", content = @Content),
+                    @ApiResponse(responseCode = "403", description = "Доступ запрещён", content = @Content),
+                    @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера", content = @Content)
+            }
+    )
+
+    // Получить пользователей по списку ID
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/by-ids")
+    public ResponseEntity<List<UserSummaryDTO>> getUsersByIds(
+            @Parameter(description = "Список ID через запятую (не более 1000)", example = "1,2,3")
+            @RequestParam List<Long> ids
+    ) {
+        return ResponseEntity.ok(userService.getUsersByIds(ids));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.library_management.dao;
+
+import com.example.library_management.model.BookAvailability;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public class BookAvailabilityDAO implements GenericDAO<BookAvailability, Long> {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<BookAvailability> findById(Long bookInfoId) {
+        return Optional.ofNullable(entityManager.find(BookAvailability.class, bookInfoId));
+    }
+
+    @Override
+    public List<BookAvailability> findAll() {
+        TypedQuery<BookAvailability> query = entityManager.createQuery(
+                "SELECT ba FROM BookAvailability ba", BookAvailability.class);
+        return query.getResultList();
+    }
+
+    @Override
+    public void save(BookAvailability bookAvailability) {
+        entityManager.persist(bookAvailability);
+    }
+
+    @Override
+    public void update(BookAvailability bookAvailability) {
+        entityManager.merge(bookAvailability);
+    }
+
+    @Override
+    public void delete(BookAvailability bookAvailability) {
+        entityManager.remove(
+                entityManager.contains(bookAvailability) ? bookAvailability : entityManager.merge(bookAvailability)
+        );
+    }
+
+    // Читается напрямую из таблицы, минуя контекст персистентности, чтобы видеть изменения счётчика в текущей транзакции
+    public Optional<Integer> findAvailableCount(Long bookInfoId) {
+        List<?> counts = entityManager.createNativeQuery(
+                        "SELECT available_count FROM book_availability WHERE book_info_id = :bookInfoId")
+                .setParameter("bookInfoId", bookInfoId)
+                .getResultList();
+        return counts.stream().map(count -> ((Number) count).intValue()).findFirst();
+    }
+
+    // Счётчик под блокировкой строки: возвраты обновляют ту же строку, поэтому постановка в очередь и выдача по очереди не пересекаются
+    public Optional<Integer> lockAvailableCount(Long bookInfoId) {
+        List<?> counts = entityManager.createNativeQuery(
+                        "SELECT available_count FROM book_availability WHERE book_info_id = :bookInfoId FOR UPDATE")
+                .setParameter("bookInfoId", bookInfoId)
+                .getResultList();
+        return counts.stream().map(count -> ((Number) count).intValue()).findFirst();
+    }
+
+    public void changeAvailableCount(Long bookInfoId, int delta) {
+        entityManager.createNativeQuery(
+                        "INSERT INTO book_availability (book_info_id, available_count) VALUES (:bookInfoId, GREATEST(:delta, 0)) " +
+                                "ON CONFLICT (book_info_id) DO UPDATE " +
+                                "SET available_count = GREATEST(book_availability.available_count + :delta, 0)")
+                .setParameter("bookInfoId", bookInfoId)
+                .setParameter("delta", delta)
+                .executeUpdate();
+    }
+
+    // ID книг, у которых счётчик разошёлся с фактическим числом доступных экземпляров
+    public List<Long> findDriftedBookInfoIds() {
+        List<?> ids = entityManager.createNativeQuery(
+                        "SELECT bi.id FROM book_info bi " +
+                                "LEFT JOIN book_availability ba ON ba.book_info_id = bi.id " +
+                                "LEFT JOIN library_book lb ON lb.book_info_id = bi.id AND lb.status = 'AVAILABLE' " +
+                                "GROUP BY bi.id, ba.available_count " +
+                                "HAVING ba.available_count IS NULL OR ba.available_count <> COUNT(lb.id)")
+                .getResultList();
+        return ids.stream().map(id -> ((Number) id).longValue()).toList();
+    }
+
+    // Пересчёт под блокировкой строки счётчика: конкурирующая аренда применит свою дельту уже поверх пересчитанного значения
+    public void recalculate(Long bookInfoId) {
+        entityManager.createNativeQuery(
+                        "INSERT INTO book_availability (book_info_id, available_count) VALUES (:bookInfoId, 0) " +
+                                "ON CONFLICT (book_info_id) DO NOTHING")
+                .setParameter("bookInfoId", bookInfoId)
+                .executeUpdate();
+        entityManager.createNativeQuery(
+                        "SELECT available_count FROM book_availability WHERE book_info_id = :bookInfoId FOR UPDATE")
+                .setParameter("bookInfoId", bookInfoId)
+                .getResultList();
+        entityManager.createNativeQuery(
+                        "UPDATE book_availability SET available_count = (" +
+                                "SELECT COUNT(*) FROM library_book WHERE book_info_id = :bookInfoId AND status = 'AVAILABLE') " +
+                                "WHERE book_info_id = :bookInfoId")
+                .setParameter("bookInfoId", bookInfoId)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.library_management.dao;
+
+import com.example.library_management.dto.BookInfoChangeDTO;
+import com.example.library_management.dto.CategoryChangeDTO;
+import com.example.library_management.dto.LibraryBookChangeDTO;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Чтение ленты изменений каталога по change_version.
+ * Флаг settled означает, что все транзакции, которые могли получить меньшие версии, уже завершились:
+ * номер каждой из них меньше горизонта изменения, а горизонт не больше xmin текущего снимка БД.
+ * Только после этого клиент может продвинуть since за версию, не потеряв изменений долгих транзакций.
+ */
+@Repository
+public class CatalogChangeDAO {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public record Change<T>(long version, boolean settled, T item) {
+    }
+
+    // Все источники читаются одним оператором: в READ COMMITTED у него один снимок, общий и для строк,
+    // и для проверки горизонта. Раздельные запросы видели бы разные снимки, и изменение с меньшей версией,
+    // зафиксированное между ними, оказалось бы позади уже устоявшейся большей версии
+    private static final String CHANGES_SQL =
+            "WITH snapshot AS (SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint AS xmin) " +
+            "SELECT kind, id, text1, text2, ref, serial_number, change_version, " +
+                    "change_horizon <= snapshot.xmin AS settled " +
+            "FROM ((" +
+                    "SELECT 'C' AS kind, id, name::text AS text1, NULL::text AS text2, parent_id AS ref, " +
+                    "NULL::bigint AS serial_number, change_version, change_horizon " +
+                    "FROM categories WHERE change_version > :since ORDER BY change_version LIMIT :limit" +
+            ") UNION ALL (" +
+                    "SELECT 'T', category_id, NULL::text, NULL::text, NULL::bigint, NULL::bigint, change_version, change_horizon " +
+                    "FROM category_tombstones WHERE change_version > :since ORDER BY change_version LIMIT :limit" +
+            ") UNION ALL (" +
+                    "SELECT 'I', id, title::text, author::text, category_id, NULL::bigint, change_version, change_horizon " +
+                    "FROM book_info WHERE change_version > :since ORDER BY change_version LIMIT :limit" +
+            ") UNION ALL (" +
+                    "SELECT 'B', id, status::text, NULL::text, book_info_id, serial_number, change_version, change_horizon " +
+                    "FROM library_book WHERE change_version > :since ORDER BY change_version LIMIT :limit" +
+            ")) changes CROSS JOIN snapshot " +
+            "ORDER BY change_version";
+
+    // Из каждого источника берётся не больше limit изменений; результат упорядочен по версии
+    public List<Change<?>> findChanges(long since, int limit) {
+        List<?> rows = entityManager.createNativeQuery(CHANGES_SQL)
+                .setParameter("since", since)
+                .setParameter("limit", limit)
+                .getResultList();
+        List<Change<?>> changes = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            long version = toLong(columns[6]);
+            boolean settled = (Boolean) columns[7];
+            changes.add(new Change<>(version, settled, toItem(columns, version)));
+        }
+        return changes;
+    }
+
+    // Последняя выданная версия изменения; меньше сохранённой только если БД восстановлена из старой копии
+    public long findCurrentVersion() {
+        Object value = entityManager.createNativeQuery("SELECT last_value FROM catalog_change_seq").getSingleResult();
+        return toLong(value);
+    }
+
+    private static Object toItem(Object[] columns, long version) {
+        Long id = toLong(columns[1]);
+        String kind = String.valueOf(columns[0]);
+        return switch (kind) {
+            case "C" -> new CategoryChangeDTO(id, (String) columns[2], toLong(columns[4]), false, version);
+            case "T" -> new CategoryChangeDTO(id, null, null, true, version);
+            case "I" -> new BookInfoChangeDTO(id, (String) columns[2], (String) columns[3], toLong(columns[4]), version);
+            case "B" -> new LibraryBookChangeDTO(id, toLong(columns[5]), (String) columns[2], toLong(columns[4]),
+                    "DELETED".equals(columns[2]), version);
+            default -> throw new IllegalStateException("Неизвестный источник изменения: " + kind);
+        };
+    }
+
+    private static Long toLong(Object value) {
+        return value == null ? null : ((Number) value).longValue();
+    }
+}
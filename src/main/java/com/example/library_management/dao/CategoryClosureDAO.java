@@ -0,0 +1,117 @@
+package com.example.library_management.dao;
+
+import com.example.library_management.dto.BookInfoDTO;
+import com.example.library_management.dto.CategoryDTO;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.List;
+
+/**
+ * Таблица замыкания дерева категорий (category_closure).
+ * Для каждой категории хранится строка на каждого предка, включая её саму с глубиной 0,
+ * поэтому поддерево, цепочка предков и проверка цикла читаются одним индексированным запросом
+ * независимо от глубины дерева.
+ */
+@Repository
+public class CategoryClosureDAO {
+
+    // Пути от внешних предков перемещаемой ветки к её узлам
+    private static final String DETACH_SQL =
+            "DELETE FROM category_closure WHERE descendant_id IN (" +
+                    "SELECT descendant_id FROM category_closure WHERE ancestor_id = :id) " +
+            "AND ancestor_id NOT IN (" +
+                    "SELECT descendant_id FROM category_closure WHERE ancestor_id = :id)";
+
+    // Каждый предок нового родителя соединяется с каждым узлом ветки
+    private static final String ATTACH_SQL =
+            "INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+            "SELECT parent_path.ancestor_id, subtree.descendant_id, parent_path.depth + subtree.depth + 1 " +
+            "FROM category_closure parent_path CROSS JOIN category_closure subtree " +
+            "WHERE parent_path.descendant_id = :parentId AND subtree.ancestor_id = :id";
+
+    // Ключ транзакционной рекомендательной блокировки изменений структуры дерева
+    private static final long TREE_LOCK_KEY = 0x6361745f74726565L;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Сериализовать изменения структуры дерева до конца транзакции: параллельные переносы могли бы создать цикл
+    public void lockTree() {
+        entityManager.createNativeQuery("SELECT 1 FROM (SELECT pg_advisory_xact_lock(:key)) AS tree_lock")
+                .setParameter("key", TREE_LOCK_KEY)
+                .getSingleResult();
+    }
+
+    // Добавить новую категорию как лист под parentId (или корень, если parentId = null)
+    public void insertNode(Long id, Long parentId) {
+        entityManager.createNativeQuery(
+                        "INSERT INTO category_closure (ancestor_id, descendant_id, depth) VALUES (:id, :id, 0)")
+                .setParameter("id", id)
+                .executeUpdate();
+        if (parentId != null) {
+            entityManager.createNativeQuery(
+                            "INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+                                    "SELECT ancestor_id, :id, depth + 1 FROM category_closure WHERE descendant_id = :parentId")
+                    .setParameter("id", id)
+                    .setParameter("parentId", parentId)
+                    .executeUpdate();
+        }
+    }
+
+    // Перенести категорию вместе с поддеревом под нового родителя (или в корень)
+    public void moveSubtree(Long id, Long newParentId) {
+        entityManager.createNativeQuery(DETACH_SQL)
+                .setParameter("id", id)
+                .executeUpdate();
+        if (newParentId != null) {
+            entityManager.createNativeQuery(ATTACH_SQL)
+                    .setParameter("id", id)
+                    .setParameter("parentId", newParentId)
+                    .executeUpdate();
+        }
+    }
+
+    // Является ли candidateId потомком ancestorId или им самим; одно чтение по первичному ключу
+    public boolean isSelfOrDescendant(Long ancestorId, Long candidateId) {
+        List<?> rows = entityManager.createNativeQuery(
+                        "SELECT 1 FROM category_closure WHERE ancestor_id = :ancestorId AND descendant_id = :candidateId")
+                .setParameter("ancestorId", ancestorId)
+                .setParameter("candidateId", candidateId)
+                .getResultList();
+        return !rows.isEmpty();
+    }
+
+    // Поддерево категории, начиная с неё самой, по уровням
+    public List<CategoryDTO> findSubtree(Long id) {
+        return entityManager.createQuery(
+                        "SELECT new com.example.library_management.dto.CategoryDTO(c.id, c.name, c.parent.id) " +
+                                "FROM CategoryClosure cc JOIN Category c ON c.id = cc.descendantId " +
+                                "WHERE cc.ancestorId = :id ORDER BY cc.depth, c.id", CategoryDTO.class)
+                .setParameter("id", id)
+                .getResultList();
+    }
+
+    // Цепочка предков от корня до родителя категории
+    public List<CategoryDTO> findAncestors(Long id) {
+        return entityManager.createQuery(
+                        "SELECT new com.example.library_management.dto.CategoryDTO(c.id, c.name, c.parent.id) " +
+                                "FROM CategoryClosure cc JOIN Category c ON c.id = cc.ancestorId " +
+                                "WHERE cc.descendantId = :id AND cc.depth > 0 ORDER BY cc.depth DESC", CategoryDTO.class)
+                .setParameter("id", id)
+                .getResultList();
+    }
+
+    // Страница книг категории вместе со всеми подкатегориями
+    public List<BookInfoDTO> findBooksInSubtree(Long id, Long afterId, int size) {
+        return entityManager.createQuery(
+                        "SELECT new com.example.library_management.dto.BookInfoDTO(b.id, b.title, b.author, b.category.id) " +
+                                "FROM CategoryClosure cc JOIN BookInfo b ON b.category.id = cc.descendantId " +
+                                "WHERE cc.ancestorId = :id AND b.id > :afterId ORDER BY b.id", BookInfoDTO.class)
+                .setParameter("id", id)
+                .setParameter("afterId", afterId)
+                .setMaxResults(size)
+                .getResultList();
+    }
+}
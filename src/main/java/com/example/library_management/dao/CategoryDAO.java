@@ -1,12 +1,15 @@
 package com.example.library_management.dao;
 
+import com.example.library_management.dto.CategoryDTO;
 import com.example.library_management.model.Category;
+import org.hibernate.jpa.SpecHints;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Repository
@@ -17,7 +20,8 @@ public class CategoryDAO implements GenericDAO<Category, Long> {
 
     @Override
     public Optional<Category> findById(Long id) {
-        return Optional.ofNullable(entityManager.find(Category.class, id));
+        return Optional.ofNullable(entityManager.find(Category.class, id, Map.of(
+                SpecHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph(Category.GRAPH_WITH_PARENT))));
     }
 
     @Override
@@ -47,6 +51,7 @@ public class CategoryDAO implements GenericDAO<Category, Long> {
         TypedQuery<Category> query = entityManager.createQuery(
                 "SELECT c FROM Category c WHERE c.parent.id = :parentId", Category.class);
         query.setParameter("parentId", parentId);
+        query.setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph(Category.GRAPH_WITH_PARENT));
         return query.getResultList();
     }
 
@@ -56,4 +61,12 @@ public class CategoryDAO implements GenericDAO<Category, Long> {
         query.setParameter("name", name);
         return query.getResultList().stream().findFirst();
     }
+
+    // Все категории плоским списком (id, название, родитель) одним запросом, без загрузки сущностей
+    public List<CategoryDTO> findAllFlat() {
+        return entityManager.createQuery(
+                        "SELECT new com.example.library_management.dto.CategoryDTO(c.id, c.name, c.parent.id) " +
+                                "FROM Category c ORDER BY c.id", CategoryDTO.class)
+                .getResultList();
+    }
 }
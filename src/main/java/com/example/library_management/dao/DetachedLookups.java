@@ -0,0 +1,26 @@
+package com.example.library_management.dao;
+
+import com.example.library_management.util.SingleFlight;
+import jakarta.persistence.EntityManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Объединение горячих чтений DAO через {@link SingleFlight}.
+ * Если к потоку не привязан EntityManager (нет ни транзакции, ни открытого на запрос контекста),
+ * каждый вызов получает отсоединённую сущность, и один результат можно отдать всем одновременным вызывающим.
+ * С привязанным контекстом вызывающему нужна управляемая сущность именно его контекста, такие чтения не объединяются.
+ */
+final class DetachedLookups {
+
+    private DetachedLookups() {
+    }
+
+    static <K, V> V load(EntityManager entityManager, SingleFlight<K, V> flight, K key, Supplier<V> loader) {
+        if (TransactionSynchronizationManager.hasResource(entityManager.getEntityManagerFactory())) {
+            return loader.get();
+        }
+        return flight.execute(key, loader);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.library_management.dao;
+
+import com.example.library_management.model.FineLedgerEntry;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public class FineLedgerDAO implements GenericDAO<FineLedgerEntry, Long> {
+
+    // Начисление одной порцией INSERT ... SELECT; повторный запуск за тот же день ничего не добавляет
+    private static final String ACCRUE_RANGE_SQL =
+            "INSERT INTO fine_ledger (rental_id, user_id, accrual_date, amount) " +
+                    "SELECT id, user_id, :accrualDate, :amount FROM rentals " +
+                    "WHERE overdue AND id > :fromId AND id <= :toId " +
+                    "ON CONFLICT (rental_id, accrual_date) DO NOTHING";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<FineLedgerEntry> findById(Long id) {
+        return Optional.ofNullable(entityManager.find(FineLedgerEntry.class, id));
+    }
+
+    @Override
+    public List<FineLedgerEntry> findAll() {
+        TypedQuery<FineLedgerEntry> query = entityManager.createQuery(
+                "SELECT f FROM FineLedgerEntry f", FineLedgerEntry.class);
+        return query.getResultList();
+    }
+
+    @Override
+    public void save(FineLedgerEntry entry) {
+        entityManager.persist(entry);
+    }
+
+    @Override
+    public void update(FineLedgerEntry entry) {
+        entityManager.merge(entry);
+    }
+
+    @Override
+    public void delete(FineLedgerEntry entry) {
+        entityManager.remove(
+                entityManager.contains(entry) ? entry : entityManager.merge(entry)
+        );
+    }
+
+    public List<FineLedgerEntry> findByUserId(Long userId) {
+        TypedQuery<FineLedgerEntry> query = entityManager.createQuery(
+                "SELECT f FROM FineLedgerEntry f WHERE f.userId = :userId ORDER BY f.accrualDate, f.id", FineLedgerEntry.class);
+        query.setParameter("userId", userId);
+        return query.getResultList();
+    }
+
+    public BigDecimal sumByUserId(Long userId) {
+        BigDecimal total = entityManager.createQuery(
+                        "SELECT SUM(f.amount) FROM FineLedgerEntry f WHERE f.userId = :userId", BigDecimal.class)
+                .setParameter("userId", userId)
+                .getSingleResult();
+        return total == null ? BigDecimal.ZERO : total;
+    }
+
+    // Верхняя граница порции просроченных аренд после fromId; пусто, если порция последняя.
+    // Читается по индексу ix_rentals_overdue без загрузки самих строк
+    public Optional<Long> findOverdueChunkUpperBound(Long fromId, int chunkSize) {
+        List<?> ids = entityManager.createNativeQuery(
+                        "SELECT id FROM rentals WHERE overdue AND id > :fromId ORDER BY id OFFSET :offset LIMIT 1")
+                .setParameter("fromId", fromId)
+                .setParameter("offset", chunkSize - 1)
+                .getResultList();
+        return ids.stream().map(id -> ((Number) id).longValue()).findFirst();
+    }
+
+    // Начислить штраф за день всем просроченным арендам в диапазоне (fromId, toId], возвращает число новых записей
+    public int accrueRange(Long fromId, Long toId, LocalDate accrualDate, BigDecimal amount) {
+        return entityManager.createNativeQuery(ACCRUE_RANGE_SQL)
+                .setParameter("fromId", fromId)
+                .setParameter("toId", toId)
+                .setParameter("accrualDate", accrualDate)
+                .setParameter("amount", amount)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.library_management.dao;
+
+import com.example.library_management.model.Hold;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public class HoldDAO implements GenericDAO<Hold, Long> {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public record WaitingHold(Long holdId, Long userId) {
+    }
+
+    @Override
+    public Optional<Hold> findById(Long id) {
+        return Optional.ofNullable(entityManager.find(Hold.class, id));
+    }
+
+    @Override
+    public List<Hold> findAll() {
+        TypedQuery<Hold> query = entityManager.createQuery("SELECT h FROM Hold h", Hold.class);
+        return query.getResultList();
+    }
+
+    @Override
+    public void save(Hold hold) {
+        entityManager.persist(hold);
+    }
+
+    @Override
+    public void update(Hold hold) {
+        entityManager.merge(hold);
+    }
+
+    @Override
+    public void delete(Hold hold) {
+        entityManager.remove(
+                entityManager.contains(hold) ? hold : entityManager.merge(hold)
+        );
+    }
+
+    public List<Hold> findByUserId(Long userId) {
+        TypedQuery<Hold> query = entityManager.createQuery(
+                "SELECT h FROM Hold h WHERE h.userId = :userId ORDER BY h.id", Hold.class);
+        query.setParameter("userId", userId);
+        return query.getResultList();
+    }
+
+    public List<Hold> findWaitingByBookInfoId(Long bookInfoId) {
+        TypedQuery<Hold> query = entityManager.createQuery(
+                "SELECT h FROM Hold h WHERE h.bookInfoId = :bookInfoId AND h.status = :status ORDER BY h.id", Hold.class);
+        query.setParameter("bookInfoId", bookInfoId);
+        query.setParameter("status", Hold.HoldStatus.WAITING);
+        return query.getResultList();
+    }
+
+    // Встать в очередь; пустой результат, если пользователь уже ждёт эту книгу
+    public Optional<Long> insertWaiting(Long userId, Long bookInfoId) {
+        List<?> ids = entityManager.createNativeQuery(
+                        "INSERT INTO holds (user_id, book_info_id, status) VALUES (:userId, :bookInfoId, 'WAITING') " +
+                                "ON CONFLICT (user_id, book_info_id) WHERE status = 'WAITING' DO NOTHING RETURNING id")
+                .setParameter("userId", userId)
+                .setParameter("bookInfoId", bookInfoId)
+                .getResultList();
+        return ids.stream().map(id -> ((Number) id).longValue()).findFirst();
+    }
+
+    // Голова очереди под блокировкой; заявки, которые обрабатывает другая транзакция, пропускаются
+    public Optional<WaitingHold> claimNextWaiting(Long bookInfoId) {
+        List<?> rows = entityManager.createNativeQuery(
+                        "SELECT id, user_id FROM holds WHERE book_info_id = :bookInfoId AND status = 'WAITING' " +
+                                "ORDER BY id LIMIT 1 FOR UPDATE SKIP LOCKED")
+                .setParameter("bookInfoId", bookInfoId)
+                .getResultList();
+        return rows.stream()
+                .map(row -> (Object[]) row)
+                .map(columns -> new WaitingHold(((Number) columns[0]).longValue(), ((Number) columns[1]).longValue()))
+                .findFirst();
+    }
+
+    public void markFulfilled(Long holdId, Long rentalId, LocalDateTime fulfilledAt) {
+        entityManager.createNativeQuery(
+                        "UPDATE holds SET status = 'FULFILLED', rental_id = :rentalId, fulfilled_at = :fulfilledAt WHERE id = :holdId")
+                .setParameter("holdId", holdId)
+                .setParameter("rentalId", rentalId)
+                .setParameter("fulfilledAt", fulfilledAt)
+                .executeUpdate();
+    }
+
+    // Отменить ожидающую заявку пользователя, возвращает false, если такой заявки нет
+    public boolean cancelWaiting(Long holdId, Long userId) {
+        return entityManager.createNativeQuery(
+                        "UPDATE holds SET status = 'CANCELLED' WHERE id = :holdId AND user_id = :userId AND status = 'WAITING'")
+                .setParameter("holdId", holdId)
+                .setParameter("userId", userId)
+                .executeUpdate() > 0;
+    }
+}
@@ -1,12 +1,17 @@
 package com.example.library_management.dao;
 
 import com.example.library_management.model.LibraryBook;
+import com.example.library_management.util.Partitions;
+import org.hibernate.jpa.SpecHints;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Repository
@@ -15,11 +20,23 @@ public class LibraryBookDAO implements GenericDAO<LibraryBook, Long> {
     @PersistenceContext
     private EntityManager entityManager;
 
+    private final SerialNumberIndex serialNumberIndex;
+
+    public LibraryBookDAO(SerialNumberIndex serialNumberIndex) {
+        this.serialNumberIndex = serialNumberIndex;
+    }
+
     @Override
     public Optional<LibraryBook> findById(Long id) {
         return Optional.ofNullable(entityManager.find(LibraryBook.class, id));
     }
 
+    // Экземпляр вместе с информацией о книге одним запросом
+    public Optional<LibraryBook> findByIdWithBookInfo(Long id) {
+        return Optional.ofNullable(entityManager.find(LibraryBook.class, id, Map.of(
+                SpecHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph(LibraryBook.GRAPH_WITH_BOOK_INFO))));
+    }
+
     @Override
     public List<LibraryBook> findAll() {
         TypedQuery<LibraryBook> query = entityManager.createQuery(
@@ -32,6 +49,7 @@ public class LibraryBookDAO implements GenericDAO<LibraryBook, Long> {
     @Override
     public void save(LibraryBook libraryBook) {
         entityManager.persist(libraryBook);
+        serialNumberIndex.register(libraryBook.getSerialNumber(), libraryBook.getId());
     }
 
     @Override
@@ -44,13 +62,78 @@ public class LibraryBookDAO implements GenericDAO<LibraryBook, Long> {
         entityManager.remove(
                 entityManager.contains(libraryBook) ? libraryBook : entityManager.merge(libraryBook)
         );
+        serialNumberIndex.unregister(libraryBook.getSerialNumber());
     }
 
     public Optional<LibraryBook> findBySerialNumber(Long serialNumber) {
+        if (serialNumberIndex.isReady()) {
+            long bookId = serialNumberIndex.findBookId(serialNumber);
+            if (bookId != SerialNumberIndex.MISSING) {
+                return findById(bookId);
+            }
+        }
         TypedQuery<LibraryBook> query = entityManager.createQuery(
                 "SELECT lb FROM LibraryBook lb WHERE lb.serialNumber = :serialNumber", LibraryBook.class);
         query.setParameter("serialNumber", serialNumber);
-        List<LibraryBook> libraryBooks = query.getResultList();
-        return libraryBooks.stream().findFirst();
+        return query.getResultStream().findFirst();
+    }
+
+    // Проверка занятости серийного номера; после загрузки индекса обходится без обращения к БД
+    public boolean existsBySerialNumber(Long serialNumber) {
+        if (serialNumberIndex.isReady()) {
+            return serialNumberIndex.contains(serialNumber);
+        }
+        Long count = entityManager.createQuery(
+                        "SELECT COUNT(lb) FROM LibraryBook lb WHERE lb.serialNumber = :serialNumber", Long.class)
+                .setParameter("serialNumber", serialNumber)
+                .getSingleResult();
+        return count > 0;
+    }
+
+    public List<LibraryBook> findBySerialNumbers(Collection<Long> serialNumbers) {
+        if (!serialNumberIndex.isReady()) {
+            return findBySerialNumbersInDatabase(serialNumbers);
+        }
+
+        // Известные номера загружаются по первичному ключу, неизвестные перепроверяются в БД
+        List<Long> bookIds = new ArrayList<>(serialNumbers.size());
+        List<Long> unknownSerialNumbers = new ArrayList<>();
+        for (Long serialNumber : serialNumbers) {
+            long bookId = serialNumberIndex.findBookId(serialNumber);
+            if (bookId != SerialNumberIndex.MISSING) {
+                bookIds.add(bookId);
+            } else {
+                unknownSerialNumbers.add(serialNumber);
+            }
+        }
+
+        List<LibraryBook> books = new ArrayList<>(findByIds(bookIds));
+        if (!unknownSerialNumbers.isEmpty()) {
+            books.addAll(findBySerialNumbersInDatabase(unknownSerialNumbers));
+        }
+        return books;
+    }
+
+    // Экземпляры по списку ID одним запросом на каждую порцию IN
+    public List<LibraryBook> findByIds(Collection<Long> ids) {
+        List<LibraryBook> books = new ArrayList<>(ids.size());
+        for (List<Long> chunk : Partitions.partition(ids, Partitions.IN_CLAUSE_CHUNK_SIZE)) {
+            TypedQuery<LibraryBook> query = entityManager.createQuery(
+                    "SELECT lb FROM LibraryBook lb WHERE lb.id IN :ids", LibraryBook.class);
+            query.setParameter("ids", chunk);
+            books.addAll(query.getResultList());
+        }
+        return books;
+    }
+
+    private List<LibraryBook> findBySerialNumbersInDatabase(Collection<Long> serialNumbers) {
+        List<LibraryBook> books = new ArrayList<>(serialNumbers.size());
+        for (List<Long> chunk : Partitions.partition(serialNumbers, Partitions.IN_CLAUSE_CHUNK_SIZE)) {
+            TypedQuery<LibraryBook> query = entityManager.createQuery(
+                    "SELECT lb FROM LibraryBook lb WHERE lb.serialNumber IN :serialNumbers", LibraryBook.class);
+            query.setParameter("serialNumbers", chunk);
+            books.addAll(query.getResultList());
+        }
+        return books;
     }
 }
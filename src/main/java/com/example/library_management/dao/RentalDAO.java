@@ -1,20 +1,104 @@
 package com.example.library_management.dao;
 
+import com.example.library_management.dto.RentalDTO;
+import com.example.library_management.event.RentalOverdueEvent;
+import com.example.library_management.model.LibraryBook;
 import com.example.library_management.model.Rental;
+import com.example.library_management.util.Partitions;
+import org.hibernate.Hibernate;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public class RentalDAO implements GenericDAO<Rental, Long> {
 
+    // Смена статуса экземпляра, запись аренды, счётчик доступности и аудит выполняются одним CTE-запросом
+    private static final String RENT_BOOK_SQL =
+            "WITH book AS (" +
+                    "UPDATE library_book SET status = 'RENTED' WHERE id = :bookId AND status = 'AVAILABLE' " +
+                    "RETURNING id, book_info_id" +
+            "), rental AS (" +
+                    "INSERT INTO rentals (user_id, library_book_id, rented_at, due_date) " +
+                    "SELECT :userId, id, :rentedAt, :dueDate FROM book RETURNING id" +
+            "), availability AS (" +
+                    "UPDATE book_availability SET available_count = GREATEST(available_count - 1, 0) " +
+                    "WHERE book_info_id IN (SELECT book_info_id FROM book)" +
+            "), audit AS (" +
+                    "INSERT INTO audit_log (user_id, action, book_id) SELECT :userId, 'BOOK_RENTED', id FROM book" +
+            ") SELECT rental.id, book.id, book.book_info_id FROM rental, book";
+
+    // То же для любого свободного экземпляра; заблокированные другими транзакциями экземпляры пропускаются
+    private static final String RENT_ANY_COPY_SQL =
+            "WITH book AS (" +
+                    "UPDATE library_book SET status = 'RENTED' WHERE id = (" +
+                    "SELECT id FROM library_book WHERE book_info_id = :bookInfoId AND status = 'AVAILABLE' " +
+                    "ORDER BY id LIMIT 1 FOR UPDATE SKIP LOCKED) AND status = 'AVAILABLE' " +
+                    "RETURNING id, book_info_id" +
+            "), rental AS (" +
+                    "INSERT INTO rentals (user_id, library_book_id, rented_at, due_date) " +
+                    "SELECT :userId, id, :rentedAt, :dueDate FROM book RETURNING id" +
+            "), availability AS (" +
+                    "UPDATE book_availability SET available_count = GREATEST(available_count - 1, 0) " +
+                    "WHERE book_info_id IN (SELECT book_info_id FROM book)" +
+            "), audit AS (" +
+                    "INSERT INTO audit_log (user_id, action, book_id) SELECT :userId, 'BOOK_RENTED', id FROM book" +
+            ") SELECT rental.id, book.id, book.book_info_id FROM rental, book";
+
+    private static final String RETURN_SQL =
+            "WITH rental AS (" +
+                    "UPDATE rentals SET returned_at = :returnedAt, overdue = FALSE " +
+                    "WHERE library_book_id = :bookId AND returned_at IS NULL AND user_id = :userId " +
+                    "RETURNING id, library_book_id" +
+            "), book AS (" +
+                    "UPDATE library_book SET status = 'AVAILABLE' " +
+                    "WHERE id IN (SELECT library_book_id FROM rental) AND status = 'RENTED' " +
+                    "RETURNING id, book_info_id" +
+            "), availability AS (" +
+                    "UPDATE book_availability SET available_count = available_count + 1 " +
+                    "WHERE book_info_id IN (SELECT book_info_id FROM book)" +
+            "), audit AS (" +
+                    "INSERT INTO audit_log (user_id, action, book_id) SELECT :userId, 'BOOK_RETURNED', id FROM book" +
+            ") SELECT rental.id, book.id, book.book_info_id FROM rental, book";
+
+    // Массовый возврат: освобождаются только экземпляры в статусе RENTED с открытой арендой
+    private static final String BATCH_RETURN_SQL =
+            "WITH book AS (" +
+                    "UPDATE library_book SET status = 'AVAILABLE' " +
+                    "WHERE id IN (:bookIds) AND status = 'RENTED' AND EXISTS (" +
+                    "SELECT 1 FROM rentals r WHERE r.library_book_id = library_book.id AND r.returned_at IS NULL) " +
+                    "RETURNING id, book_info_id" +
+            "), rental AS (" +
+                    "UPDATE rentals SET returned_at = :returnedAt, overdue = FALSE " +
+                    "WHERE library_book_id IN (SELECT id FROM book) AND returned_at IS NULL " +
+                    "RETURNING id, library_book_id" +
+            "), availability AS (" +
+                    "UPDATE book_availability ba SET available_count = ba.available_count + freed.copies " +
+                    "FROM (SELECT book_info_id, COUNT(*) AS copies FROM book GROUP BY book_info_id) freed " +
+                    "WHERE ba.book_info_id = freed.book_info_id" +
+            "), audit AS (" +
+                    "INSERT INTO audit_log (user_id, action, book_id) SELECT :userId, 'BOOK_RETURNED', id FROM book" +
+            ") SELECT rental.id, book.id, book.book_info_id FROM rental JOIN book ON book.id = rental.library_book_id";
+
+    // Порция аренд с истёкшим сроком; строки, заблокированные возвратом, достанутся следующему проходу
+    private static final String MARK_OVERDUE_CHUNK_SQL =
+            "UPDATE rentals SET overdue = TRUE WHERE id IN (" +
+                    "SELECT id FROM rentals WHERE returned_at IS NULL AND NOT overdue AND due_date < :now " +
+                    "ORDER BY due_date, id LIMIT :limit FOR UPDATE SKIP LOCKED)";
+
     @PersistenceContext
     private EntityManager entityManager;
 
+    public record RentalTransition(Long rentalId, Long bookId, Long bookInfoId) {
+    }
+
     @Override
     public Optional<Rental> findById(Long id) {
         return Optional.ofNullable(entityManager.find(Rental.class, id));
@@ -57,6 +141,14 @@ public class RentalDAO implements GenericDAO<Rental, Long> {
         return query.getResultList();
     }
 
+    // Открытая аренда экземпляра; уникальность гарантирует частичный индекс ux_rentals_active_book
+    public Optional<Rental> findActiveByBookId(Long bookId) {
+        TypedQuery<Rental> query = entityManager.createQuery(
+                "SELECT r FROM Rental r WHERE r.libraryBook.id = :bookId AND r.returnedAt IS NULL", Rental.class);
+        query.setParameter("bookId", bookId);
+        return query.getResultStream().findFirst();
+    }
+
     public List<Rental> findActiveByUserId(Long userId) {
         TypedQuery<Rental> query = entityManager.createQuery(
                 "SELECT r FROM Rental r WHERE r.user.id = :userId AND r.returnedAt IS NULL", Rental.class);
@@ -66,9 +158,134 @@ public class RentalDAO implements GenericDAO<Rental, Long> {
 
     public List<Rental> findOverdueByUserId(Long userId) {
         TypedQuery<Rental> query = entityManager.createQuery(
-                "SELECT r FROM Rental r WHERE r.user.id = :userId AND r.returnedAt IS NULL AND r.dueDate < CURRENT_TIMESTAMP",
-                Rental.class);
+                "SELECT r FROM Rental r WHERE r.user.id = :userId AND r.overdue = TRUE", Rental.class);
         query.setParameter("userId", userId);
         return query.getResultList();
     }
+
+    // Аренды по списку ID сразу в виде DTO, одним запросом на каждую порцию IN
+    public List<RentalDTO> findDTOsByIds(Collection<Long> ids) {
+        List<RentalDTO> rentals = new ArrayList<>(ids.size());
+        for (List<Long> chunk : Partitions.partition(ids, Partitions.IN_CLAUSE_CHUNK_SIZE)) {
+            rentals.addAll(entityManager.createQuery(
+                            "SELECT new com.example.library_management.dto.RentalDTO(" +
+                                    "r.id, r.user.id, r.libraryBook.id, r.rentedAt, r.dueDate, r.returnedAt) " +
+                                    "FROM Rental r WHERE r.id IN :ids", RentalDTO.class)
+                    .setParameter("ids", chunk)
+                    .getResultList());
+        }
+        return rentals;
+    }
+
+    // Страница просроченных аренд всех пользователей; читается из индекса ix_rentals_overdue
+    public List<RentalDTO> findOverduePage(Long afterId, int size) {
+        return entityManager.createQuery(
+                        "SELECT new com.example.library_management.dto.RentalDTO(" +
+                                "r.id, r.user.id, r.libraryBook.id, r.rentedAt, r.dueDate, r.returnedAt) " +
+                                "FROM Rental r WHERE r.overdue = TRUE AND r.id > :afterId ORDER BY r.id", RentalDTO.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(size)
+                .getResultList();
+    }
+
+    // Пометить открытую аренду просроченной
+    public boolean markOverdue(Long rentalId) {
+        return entityManager.createNativeQuery(
+                        "UPDATE rentals SET overdue = TRUE WHERE id = :id AND returned_at IS NULL AND NOT overdue")
+                .setParameter("id", rentalId)
+                .executeUpdate() > 0;
+    }
+
+    // Пометить очередную порцию аренд с истёкшим сроком, возвращает число помеченных
+    public int markOverdueChunk(LocalDateTime now, int limit) {
+        return entityManager.createNativeQuery(MARK_OVERDUE_CHUNK_SQL)
+                .setParameter("now", now)
+                .setParameter("limit", limit)
+                .executeUpdate();
+    }
+
+    // Порция открытых, ещё не помеченных просроченными аренд после указанного ID для загрузки в планировщик просрочек
+    public List<RentalOverdueEvent> findOpenRentalsAfter(Long afterId, int limit) {
+        List<Object[]> rows = entityManager.createQuery(
+                        "SELECT r.id, r.user.id, r.libraryBook.id, r.dueDate FROM Rental r " +
+                                "WHERE r.returnedAt IS NULL AND r.overdue = FALSE AND r.id > :afterId ORDER BY r.id", Object[].class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .getResultList();
+        return rows.stream()
+                .map(row -> new RentalOverdueEvent((Long) row[0], (Long) row[1], (Long) row[2], (LocalDateTime) row[3]))
+                .toList();
+    }
+
+    // Аренда конкретного экземпляра, если он доступен
+    public Optional<RentalTransition> rentAvailableBook(Long bookId, Long userId, LocalDateTime rentedAt, LocalDateTime dueDate) {
+        List<?> rows = entityManager.createNativeQuery(RENT_BOOK_SQL)
+                .setParameter("bookId", bookId)
+                .setParameter("userId", userId)
+                .setParameter("rentedAt", rentedAt)
+                .setParameter("dueDate", dueDate)
+                .getResultList();
+        return toTransition(rows);
+    }
+
+    // Аренда любого свободного экземпляра; заблокированные другими транзакциями экземпляры пропускаются
+    public Optional<RentalTransition> rentAnyAvailableCopy(Long bookInfoId, Long userId, LocalDateTime rentedAt, LocalDateTime dueDate) {
+        List<?> rows = entityManager.createNativeQuery(RENT_ANY_COPY_SQL)
+                .setParameter("bookInfoId", bookInfoId)
+                .setParameter("userId", userId)
+                .setParameter("rentedAt", rentedAt)
+                .setParameter("dueDate", dueDate)
+                .getResultList();
+        return toTransition(rows);
+    }
+
+    // Закрытие открытой аренды пользователя вместе с освобождением экземпляра
+    public Optional<RentalTransition> closeActiveRental(Long bookId, Long userId, LocalDateTime returnedAt) {
+        List<?> rows = entityManager.createNativeQuery(RETURN_SQL)
+                .setParameter("bookId", bookId)
+                .setParameter("userId", userId)
+                .setParameter("returnedAt", returnedAt)
+                .getResultList();
+        return toTransition(rows);
+    }
+
+    // Закрытие открытых аренд сразу для набора экземпляров, действие в аудите записывается от имени сотрудника
+    public List<RentalTransition> closeActiveRentals(Collection<Long> bookIds, Long staffUserId, LocalDateTime returnedAt) {
+        List<?> rows = entityManager.createNativeQuery(BATCH_RETURN_SQL)
+                .setParameter("bookIds", bookIds)
+                .setParameter("userId", staffUserId)
+                .setParameter("returnedAt", returnedAt)
+                .getResultList();
+        List<RentalTransition> transitions = rows.stream().map(this::toTransition).toList();
+        transitions.forEach(this::refreshManaged);
+        return transitions;
+    }
+
+    private Optional<RentalTransition> toTransition(List<?> rows) {
+        Optional<RentalTransition> transition = rows.stream().map(this::toTransition).findFirst();
+        transition.ifPresent(this::refreshManaged);
+        return transition;
+    }
+
+    // CTE меняет library_book и rentals в обход контекста персистентности: уже загруженные в сессию
+    // экземпляр и аренда перечитываются, чтобы вызывающий код не видел старый статус.
+    // Незагруженные сущности не трогаются: getReference без обращения к БД возвращает для них прокси
+    private void refreshManaged(RentalTransition transition) {
+        refreshIfLoaded(entityManager.getReference(LibraryBook.class, transition.bookId()));
+        refreshIfLoaded(entityManager.getReference(Rental.class, transition.rentalId()));
+    }
+
+    private void refreshIfLoaded(Object entity) {
+        if (Hibernate.isInitialized(entity)) {
+            entityManager.refresh(entity);
+        }
+    }
+
+    private RentalTransition toTransition(Object row) {
+        Object[] columns = (Object[]) row;
+        return new RentalTransition(
+                ((Number) columns[0]).longValue(),
+                ((Number) columns[1]).longValue(),
+                ((Number) columns[2]).longValue());
+    }
 }
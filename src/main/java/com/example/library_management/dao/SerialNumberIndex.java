@@ -0,0 +1,111 @@
+package com.example.library_management.dao;
+
+import com.example.library_management.util.LongLongHashMap;
+import com.example.library_management.util.TransactionCallbacks;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Индекс серийный номер → ID экземпляра в памяти процесса.
+ * Заполняется при старте приложения и обновляется только после коммита транзакции,
+ * поэтому в нём никогда не оказываются незафиксированные записи.
+ * Мягко удалённые экземпляры остаются в индексе: их серийные номера по-прежнему заняты в БД.
+ */
+@Slf4j
+@Component
+public class SerialNumberIndex {
+
+    public static final long MISSING = -1L;
+
+    private static final int LOAD_CHUNK_SIZE = 10_000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final LongLongHashMap bookIdsBySerial = new LongLongHashMap(1024);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    // Пока индекс не загружен, вызывающий код обращается к БД
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long findBookId(long serialNumber) {
+        lock.readLock().lock();
+        try {
+            return bookIdsBySerial.get(serialNumber, MISSING);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(long serialNumber) {
+        return findBookId(serialNumber) != MISSING;
+    }
+
+    // Зарегистрировать экземпляр после коммита текущей транзакции
+    public void register(long serialNumber, long bookId) {
+        TransactionCallbacks.afterCommit(() -> put(serialNumber, bookId));
+    }
+
+    // Удалить экземпляр из индекса после коммита текущей транзакции
+    public void unregister(long serialNumber) {
+        TransactionCallbacks.afterCommit(() -> remove(serialNumber));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long lastId = 0L;
+        int loaded = 0;
+        List<Object[]> rows;
+        do {
+            // Блокировка удерживается на время чтения порции, чтобы конкурентное удаление не вернуло устаревшую запись
+            lock.writeLock().lock();
+            try {
+                rows = entityManager.createQuery(
+                                "SELECT lb.id, lb.serialNumber FROM LibraryBook lb WHERE lb.id > :lastId ORDER BY lb.id",
+                                Object[].class)
+                        .setParameter("lastId", lastId)
+                        .setMaxResults(LOAD_CHUNK_SIZE)
+                        .getResultList();
+                for (Object[] row : rows) {
+                    lastId = (Long) row[0];
+                    bookIdsBySerial.put((Long) row[1], lastId);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            loaded += rows.size();
+        } while (rows.size() == LOAD_CHUNK_SIZE);
+
+        ready = true;
+        log.info("Индекс серийных номеров загружен: {} экземпляров", loaded);
+    }
+
+    private void put(long serialNumber, long bookId) {
+        lock.writeLock().lock();
+        try {
+            bookIdsBySerial.put(serialNumber, bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(long serialNumber) {
+        lock.writeLock().lock();
+        try {
+            bookIdsBySerial.remove(serialNumber);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
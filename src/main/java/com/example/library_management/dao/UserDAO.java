@@ -1,13 +1,20 @@
 package com.example.library_management.dao;
 
+import com.example.library_management.dto.UserSummaryDTO;
 import com.example.library_management.model.User;
+import com.example.library_management.util.Partitions;
+import com.example.library_management.util.SingleFlight;
+import org.hibernate.jpa.SpecHints;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Repository
@@ -16,6 +23,10 @@ public class UserDAO implements GenericDAO<User, Long> {
     @PersistenceContext
     private EntityManager entityManager;
 
+    // Вызываются контроллерами на каждый изменяющий запрос пользователя и при входе
+    private final SingleFlight<String, User> findByUsernameFlight = new SingleFlight<>();
+    private final SingleFlight<String, User> findByUsernameWithRolesFlight = new SingleFlight<>();
+
     @Override
     public Optional<User> findById(Long id) {
         return Optional.ofNullable(entityManager.find(User.class, id));
@@ -45,9 +56,40 @@ public class UserDAO implements GenericDAO<User, Long> {
     }
 
     public User findByUsername(String username) {
-        TypedQuery<User> query = entityManager.createQuery(
-                "SELECT u FROM User u WHERE u.username = :username", User.class);
-        query.setParameter("username", username);
-        return query.getResultStream().findFirst().orElse(null);
+        return DetachedLookups.load(entityManager, findByUsernameFlight, username, () -> {
+            TypedQuery<User> query = entityManager.createQuery(
+                    "SELECT u FROM User u WHERE u.username = :username", User.class);
+            query.setParameter("username", username);
+            return query.getResultStream().findFirst().orElse(null);
+        });
+    }
+
+    // Пользователь вместе с ролями одним запросом; роли нужны при входе и построении прав
+    public User findByUsernameWithRoles(String username) {
+        return DetachedLookups.load(entityManager, findByUsernameWithRolesFlight, username, () -> {
+            TypedQuery<User> query = entityManager.createQuery(
+                    "SELECT u FROM User u WHERE u.username = :username", User.class);
+            query.setParameter("username", username);
+            query.setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph(User.GRAPH_WITH_ROLES));
+            return query.getResultStream().findFirst().orElse(null);
+        });
+    }
+
+    // Краткие данные пользователей по списку ID; при нескольких ролях берётся первая, как в UserMapper
+    public List<UserSummaryDTO> findSummariesByIds(Collection<Long> ids) {
+        Map<Long, UserSummaryDTO> summaries = new LinkedHashMap<>();
+        for (List<Long> chunk : Partitions.partition(ids, Partitions.IN_CLAUSE_CHUNK_SIZE)) {
+            List<Object[]> rows = entityManager.createQuery(
+                            "SELECT u.id, u.username, r.name FROM User u " +
+                                    "LEFT JOIN u.userRoles ur LEFT JOIN ur.role r " +
+                                    "WHERE u.id IN :ids ORDER BY u.id, ur.id", Object[].class)
+                    .setParameter("ids", chunk)
+                    .getResultList();
+            for (Object[] row : rows) {
+                summaries.putIfAbsent((Long) row[0],
+                        new UserSummaryDTO((Long) row[0], (String) row[1], row[2] == null ? null : row[2].toString()));
+            }
+        }
+        return List.copyOf(summaries.values());
     }
 }
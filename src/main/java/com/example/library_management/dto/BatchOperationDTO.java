@@ -0,0 +1,47 @@
+package com.example.library_management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Schema(description = "Операция пакетного запроса; набор обязательных полей зависит от типа")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOperationDTO {
+    @NotNull(message = "Тип операции обязателен")
+    @Schema(description = "Тип операции", example = "RENT")
+    private OperationType type;
+
+    @Schema(description = "ID экземпляра (RENT, RETURN)", example = "12")
+    private Long bookId;
+
+    @Schema(description = "Название книги (ADD_BOOK)", example = "Черногория")
+    private String title;
+
+    @Schema(description = "Автор книги (ADD_BOOK)", example = "Борис Борисов")
+    private String author;
+
+    @Schema(description = "ID категории (ADD_BOOK, UPDATE_CATEGORY)", example = "1")
+    private Long categoryId;
+
+    @Schema(description = "Серийный номер (ADD_BOOK)", example = "666661")
+    private Long serialNumber;
+
+    @Schema(description = "Новое название категории (UPDATE_CATEGORY)", example = "Юмор")
+    private String name;
+
+    @Schema(description = "Новый родитель категории (UPDATE_CATEGORY)", example = "2")
+    private Long parentId;
+
+    public enum OperationType {
+        ADD_BOOK,
+        RENT,
+        RETURN,
+        UPDATE_CATEGORY
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.library_management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Schema(description = "DTO результата одной операции пакета")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOperationResultDTO {
+    @Schema(description = "Порядковый номер операции в пакете", example = "0")
+    private int index;
+
+    @Schema(description = "Тип операции", example = "RENT")
+    private BatchOperationDTO.OperationType type;
+
+    @Schema(description = "Результат операции", example = "OK")
+    private OperationStatus status;
+
+    @Schema(description = "Описание результата", example = "Книга успешно арендована")
+    private String message;
+
+    public enum OperationStatus {
+        OK,
+        FAILED,
+        SKIPPED
+    }
+}
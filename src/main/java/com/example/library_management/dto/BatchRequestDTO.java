@@ -0,0 +1,25 @@
+package com.example.library_management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Schema(description = "DTO пакета операций, выполняемых по порядку в одной транзакции")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRequestDTO {
+    @NotEmpty(message = "Список операций обязателен")
+    @Size(max = 100, message = "В одном пакете можно передать не более 100 операций")
+    @Schema(description = "Операции в порядке выполнения")
+    private List<@NotNull(message = "Операция обязательна") @Valid BatchOperationDTO> operations;
+}
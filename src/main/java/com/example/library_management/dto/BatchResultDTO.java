@@ -0,0 +1,22 @@
+package com.example.library_management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Schema(description = "DTO результата пакета операций")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResultDTO {
+    @Schema(description = "Транзакция зафиксирована; false — все операции откачены", example = "true")
+    private boolean committed;
+
+    @Schema(description = "Результаты операций в порядке выполнения")
+    private List<BatchOperationResultDTO> results;
+}
@@ -0,0 +1,24 @@
+package com.example.library_management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Schema(description = "DTO для массового возврата книг по серийным номерам")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchReturnRequestDTO {
+    @NotEmpty(message = "Список серийных номеров обязателен")
+    @Size(max = 500, message = "За один запрос можно вернуть не более 500 книг")
+    @Schema(description = "Серийные номера возвращаемых экземпляров", example = "[123456, 122345]")
+    private List<@NotNull(message = "Серийный номер обязателен") Long> serialNumbers;
+}
@@ -0,0 +1,33 @@
+package com.example.library_management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Schema(description = "DTO результата возврата одного экземпляра в массовом возврате")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchReturnResultDTO {
+    @Schema(description = "Серийный номер экземпляра", example = "123456")
+    private Long serialNumber;
+
+    @Schema(description = "ID экземпляра, если он найден", example = "1")
+    private Long libraryBookId;
+
+    @Schema(description = "Результат возврата", example = "RETURNED")
+    private ReturnStatus status;
+
+    @Schema(description = "Описание результата", example = "Книга успешно возвращена")
+    private String message;
+
+    public enum ReturnStatus {
+        RETURNED,
+        NOT_FOUND,
+        NOT_RENTED,
+        DELETED
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.library_management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Schema(description = "DTO доступности экземпляров книги")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookAvailabilityDTO {
+    @Schema(description = "ID информации о книге", example = "1")
+    private Long bookInfoId;
+
+    @Schema(description = "Количество доступных для аренды экземпляров", example = "3")
+    private int availableCount;
+}
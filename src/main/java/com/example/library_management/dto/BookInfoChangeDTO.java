@@ -0,0 +1,29 @@
+package com.example.library_management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Schema(description = "Изменение информации о книге")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookInfoChangeDTO {
+    @Schema(description = "ID информации о книге", example = "1")
+    private Long id;
+
+    @Schema(description = "Название", example = "Война и мир")
+    private String title;
+
+    @Schema(description = "Автор", example = "Лев Толстой")
+    private String author;
+
+    @Schema(description = "ID категории", example = "2")
+    private Long categoryId;
+
+    @Schema(description = "Версия изменения", example = "1542")
+    private Long version;
+}
@@ -0,0 +1,31 @@
+package com.example.library_management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Schema(description = "Изменения каталога после указанной версии")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogSyncDTO {
+    @Schema(description = "Изменённые категории, включая удалённые")
+    private List<CategoryChangeDTO> categories;
+
+    @Schema(description = "Изменённая информация о книгах")
+    private List<BookInfoChangeDTO> bookInfos;
+
+    @Schema(description = "Изменённые экземпляры, включая удалённые")
+    private List<LibraryBookChangeDTO> books;
+
+    @Schema(description = "Значение since для следующего запроса", example = "1543")
+    private Long nextSince;
+
+    @Schema(description = "Есть ли ещё изменения сразу после nextSince", example = "false")
+    private boolean hasMore;
+}
@@ -0,0 +1,29 @@
+package com.example.library_management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Schema(description = "Изменение категории")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryChangeDTO {
+    @Schema(description = "ID категории", example = "2")
+    private Long id;
+
+    @Schema(description = "Название категории; пусто для удалённой категории", example = "Роман")
+    private String name;
+
+    @Schema(description = "ID родительской категории", example = "1")
+    private Long parentId;
+
+    @Schema(description = "Категория удалена (надгробие)", example = "false")
+    private boolean deleted;
+
+    @Schema(description = "Версия изменения", example = "1540")
+    private Long version;
+}
@@ -0,0 +1,19 @@
+package com.example.library_management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Schema(description = "Категория с цепочкой родителей")
+@Getter
+@AllArgsConstructor
+public class CategoryDetailsDTO {
+    @Schema(description = "ID категории", example = "2")
+    private final Long id;
+
+    @Schema(description = "Название категории", example = "Роман")
+    private final String name;
+
+    @Schema(description = "Родительская категория или null для корневой")
+    private final CategoryDetailsDTO parent;
+}
@@ -0,0 +1,21 @@
+package com.example.library_management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Schema(description = "Узел дерева категорий")
+@Getter
+@AllArgsConstructor
+public class CategoryTreeNodeDTO {
+    @Schema(description = "ID категории", example = "1")
+    private final Long id;
+
+    @Schema(description = "Название категории", example = "Художественная литература")
+    private final String name;
+
+    @Schema(description = "Дочерние категории")
+    private final List<CategoryTreeNodeDTO> children;
+}
@@ -0,0 +1,26 @@
+package com.example.library_management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Schema(description = "DTO начисления штрафа за день")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FineEntryDTO {
+    @Schema(description = "ID аренды", example = "12")
+    private Long rentalId;
+
+    @Schema(description = "Дата начисления", example = "2025-05-10")
+    private LocalDate accrualDate;
+
+    @Schema(description = "Сумма штрафа", example = "10.00")
+    private BigDecimal amount;
+}
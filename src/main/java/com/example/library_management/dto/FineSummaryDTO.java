@@ -0,0 +1,26 @@
+package com.example.library_management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Schema(description = "DTO штрафов пользователя")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FineSummaryDTO {
+    @Schema(description = "ID пользователя", example = "5")
+    private Long userId;
+
+    @Schema(description = "Общая сумма начисленных штрафов", example = "30.00")
+    private BigDecimal totalAmount;
+
+    @Schema(description = "Начисления по дням")
+    private List<FineEntryDTO> entries;
+}
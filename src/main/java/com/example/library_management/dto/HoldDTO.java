@@ -0,0 +1,34 @@
+package com.example.library_management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "DTO заявки в очереди на книгу")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class HoldDTO {
+    @Schema(description = "ID заявки", example = "1")
+    private Long id;
+
+    @Schema(description = "ID пользователя", example = "5")
+    private Long userId;
+
+    @Schema(description = "ID информации о книге", example = "3")
+    private Long bookInfoId;
+
+    @Schema(description = "Статус заявки", example = "WAITING")
+    private String status;
+
+    @Schema(description = "Дата постановки в очередь", example = "2025-05-01T10:00:00")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "ID аренды, оформленной по заявке", example = "12")
+    private Long rentalId;
+}
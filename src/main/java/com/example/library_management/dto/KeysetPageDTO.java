@@ -0,0 +1,22 @@
+package com.example.library_management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Schema(description = "Страница результатов с продолжением по ключу")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPageDTO<T> {
+    @Schema(description = "Элементы страницы")
+    private List<T> items;
+
+    @Schema(description = "Значение afterId для следующей страницы; null, если страница последняя", example = "120")
+    private Long nextAfterId;
+}
@@ -0,0 +1,32 @@
+package com.example.library_management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Schema(description = "Изменение экземпляра книги")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LibraryBookChangeDTO {
+    @Schema(description = "ID экземпляра", example = "10")
+    private Long id;
+
+    @Schema(description = "Серийный номер", example = "123456")
+    private Long serialNumber;
+
+    @Schema(description = "Статус экземпляра", example = "RENTED")
+    private String status;
+
+    @Schema(description = "ID информации о книге", example = "1")
+    private Long bookInfoId;
+
+    @Schema(description = "Экземпляр удалён (надгробие)", example = "false")
+    private boolean deleted;
+
+    @Schema(description = "Версия изменения", example = "1543")
+    private Long version;
+}
@@ -0,0 +1,23 @@
+package com.example.library_management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Schema(description = "Краткие данные пользователя без учётных данных")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummaryDTO {
+    @Schema(description = "ID пользователя", example = "1")
+    private Long id;
+
+    @Schema(description = "Имя пользователя (логин)", example = "Vasilich")
+    private String username;
+
+    @Schema(description = "Роль пользователя", example = "ROLE_USER")
+    private String role;
+}
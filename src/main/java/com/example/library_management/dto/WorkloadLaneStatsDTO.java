@@ -0,0 +1,47 @@
+package com.example.library_management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Schema(description = "DTO состояния класса нагрузки")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkloadLaneStatsDTO {
+    @Schema(description = "Класс нагрузки", example = "REPORTING")
+    private String lane;
+
+    @Schema(description = "Доля соединений с БД", example = "4")
+    private int connectionLimit;
+
+    @Schema(description = "Занятые соединения", example = "1")
+    private int connectionsInUse;
+
+    @Schema(description = "Потоки, ожидающие соединения", example = "0")
+    private int connectionWaiters;
+
+    @Schema(description = "Выдано соединений с момента запуска", example = "1520")
+    private long connectionsAcquired;
+
+    @Schema(description = "Отказов по таймауту ожидания соединения", example = "0")
+    private long connectionTimeouts;
+
+    @Schema(description = "Среднее ожидание соединения, мс", example = "0.4")
+    private double averageConnectionWaitMs;
+
+    @Schema(description = "Потоки исполнителя; null, если запросы выполняются в потоках сервера", example = "4")
+    private Integer executorThreads;
+
+    @Schema(description = "Выполняемые задачи", example = "1")
+    private Integer executorActive;
+
+    @Schema(description = "Задачи в очереди", example = "0")
+    private Integer executorQueued;
+
+    @Schema(description = "Отклонённые задачи", example = "0")
+    private Long executorRejected;
+}
@@ -0,0 +1,5 @@
+package com.example.library_management.event;
+
+// Статус экземпляра изменился; рассылается подписчикам после коммита транзакции
+public record BookStatusChangedEvent(Long bookId, Long bookInfoId, String status) {
+}
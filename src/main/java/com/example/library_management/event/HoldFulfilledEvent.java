@@ -0,0 +1,7 @@
+package com.example.library_management.event;
+
+import java.time.LocalDateTime;
+
+// Освободившийся экземпляр выдан следующему пользователю из очереди
+public record HoldFulfilledEvent(Long holdId, Long userId, Long bookId, Long rentalId, LocalDateTime dueDate) {
+}
@@ -0,0 +1,7 @@
+package com.example.library_management.event;
+
+import java.time.LocalDateTime;
+
+// Срок возврата по открытой аренде истёк
+public record RentalOverdueEvent(Long rentalId, Long userId, Long bookId, LocalDateTime dueDate) {
+}
@@ -0,0 +1,20 @@
+package com.example.library_management.exception;
+
+/**
+ * БД недоступна: автомат защиты разомкнут и вызов отклонён без обращения к ней.
+ */
+public class DatabaseUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterMs;
+
+    public DatabaseUnavailableException(long retryAfterMs) {
+        super("База данных временно недоступна");
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+}
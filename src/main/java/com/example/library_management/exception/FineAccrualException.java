@@ -0,0 +1,14 @@
+package com.example.library_management.exception;
+
+/**
+ * Начисление штрафов не завершилось из-за ошибки на стороне сервера или БД.
+ * Ошибки остальных порций добавляются к исключению как подавленные.
+ */
+public class FineAccrualException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public FineAccrualException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,13 +1,18 @@
 package com.example.library_management.exception;
 
 import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.exception.JDBCConnectionException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authorization.AuthorizationDeniedException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
@@ -15,10 +20,13 @@ import javax.naming.AuthenticationException;
 import java.nio.file.AccessDeniedException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final long DEFAULT_RETRY_AFTER_MS = 5_000L;
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidationException(MethodArgumentNotValidException ex) {
         Map<String, String> errors = new HashMap<>();
@@ -75,6 +83,43 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(Map.of("error", "Отсутствует тело запроса или оно некорректно")); // некорректный JSON
     }
 
+    @ExceptionHandler(MissingServletRequestParameterException.class)
+    public ResponseEntity<Map<String, String>> handleMissingParameter(MissingServletRequestParameterException ex) {
+        return ResponseEntity.badRequest().body(Map.of("error", "Не указан параметр " + ex.getParameterName())); // 400
+    }
+
+    // БД недоступна: клиент повторит запрос после Retry-After, а не получит 500
+    @ExceptionHandler({DatabaseUnavailableException.class, CannotCreateTransactionException.class,
+            DataAccessResourceFailureException.class, JDBCConnectionException.class})
+    public ResponseEntity<Map<String, String>> handleDatabaseUnavailable(Exception ex) {
+        long retryAfterMs = DEFAULT_RETRY_AFTER_MS;
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DatabaseUnavailableException unavailable) {
+                retryAfterMs = unavailable.getRetryAfterMs();
+                break;
+            }
+        }
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1L, (retryAfterMs + 999) / 1000)))
+                .body(Map.of("error", "База данных временно недоступна, повторите запрос позже")); // 503
+    }
+
+    // Очередь отчётов переполнена: отчёт не должен ждать в памяти и занимать поток сервера
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Map<String, String>> handleRejectedExecution(RejectedExecutionException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", "Сервер перегружен, повторите запрос позже")); // 503
+    }
+
+    // Исходный запрос с тем же ключом идемпотентности ещё выполняется: клиент повторит позже и получит его ответ
+    @ExceptionHandler(RequestInProgressException.class)
+    public ResponseEntity<Map<String, String>> handleRequestInProgress(RequestInProgressException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", ex.getMessage())); // 409
+    }
+
     @ExceptionHandler(BadCredentialsException.class)
     public ResponseEntity<Map<String, String>> handleBadCredentials(BadCredentialsException ex) {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", ex.getMessage())); //неверный логин/пароль
@@ -0,0 +1,13 @@
+package com.example.library_management.exception;
+
+/**
+ * Запрос с тем же ключом идемпотентности ещё выполняется: дубль не ждёт его дольше отведённого времени.
+ */
+public class RequestInProgressException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public RequestInProgressException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.library_management.model;
+
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "book_availability", schema = "public")
+@Getter
+@Setter
+@NoArgsConstructor
+public class BookAvailability {
+    @Id
+    @Column(name = "book_info_id")
+    private Long bookInfoId;
+
+    @Column(name = "available_count", nullable = false)
+    private int availableCount;
+}
@@ -3,6 +3,7 @@ package com.example.library_management.model;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -29,7 +30,11 @@ public class BookInfo {
     @Column(name = "author", nullable = false)
     private String author;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id", nullable = false)
     private Category category;
+
+    // Заполняется триггером БД при каждой записи, используется лентой изменений каталога
+    @Column(name = "change_version", insertable = false, updatable = false)
+    private Long changeVersion;
 }
@@ -1,24 +1,35 @@
 package com.example.library_management.model;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
+// Родитель может оказаться ленивым прокси Hibernate: служебные поля прокси не сериализуются
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@NamedEntityGraph(name = Category.GRAPH_WITH_PARENT, attributeNodes = @NamedAttributeNode("parent"))
 @Table(name = "categories", schema = "public")
 @Getter
 @Setter
 @NoArgsConstructor
 public class Category {
+
+    // Категория с непосредственным родителем: API отдаёт категорию вместе с родителем
+    public static final String GRAPH_WITH_PARENT = "Category.withParent";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -26,7 +37,11 @@ public class Category {
     @Column(name = "name", nullable = false, unique = true)
     private String name;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "parent_id")
     private Category parent;
+
+    // Заполняется триггером БД при каждой записи, используется лентой изменений каталога
+    @Column(name = "change_version", insertable = false, updatable = false)
+    private Long changeVersion;
 }
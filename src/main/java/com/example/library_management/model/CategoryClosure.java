@@ -0,0 +1,45 @@
+package com.example.library_management.model;
+
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+// Строка таблицы замыкания дерева категорий; изменяется только запросами CategoryClosureDAO
+@Entity
+@Table(name = "category_closure", schema = "public")
+@IdClass(CategoryClosure.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class CategoryClosure {
+    @Id
+    @Column(name = "ancestor_id", nullable = false)
+    private Long ancestorId;
+
+    @Id
+    @Column(name = "descendant_id", nullable = false)
+    private Long descendantId;
+
+    @Column(name = "depth", nullable = false)
+    private int depth;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long ancestorId;
+        private Long descendantId;
+    }
+}
@@ -7,11 +7,16 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
+@NamedEntityGraph(name = LibraryBook.GRAPH_WITH_BOOK_INFO, attributeNodes = @NamedAttributeNode("bookInfo"))
 @Table(name = "library_book", schema = "public")
 @Getter
 @Setter
 @NoArgsConstructor
 public class LibraryBook {
+
+    // Экземпляр вместе с информацией о книге: для изменения названия, автора и категории
+    public static final String GRAPH_WITH_BOOK_INFO = "LibraryBook.withBookInfo";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -23,10 +28,14 @@ public class LibraryBook {
     @Column(name = "status", nullable = false)
     private BookStatus status;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "book_info_id", nullable = false)
     private BookInfo bookInfo;
 
+    // Заполняется триггером БД при каждой записи, используется лентой изменений каталога
+    @Column(name = "change_version", insertable = false, updatable = false)
+    private Long changeVersion;
+
     public enum BookStatus {
         AVAILABLE,
         RENTED,
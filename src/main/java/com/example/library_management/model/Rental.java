@@ -3,6 +3,7 @@ package com.example.library_management.model;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -25,11 +26,11 @@ public class Rental {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "library_book_id", nullable = false)
     private LibraryBook libraryBook;
 
@@ -42,4 +43,8 @@ public class Rental {
     @Column(name = "returned_at")
     private LocalDateTime returnedAt;
 
+    // Поддерживается планировщиком просрочек и фоновой пометкой, сбрасывается при возврате
+    @Column(name = "overdue", nullable = false)
+    private boolean overdue;
+
 }
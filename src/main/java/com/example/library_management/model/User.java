@@ -6,6 +6,9 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import lombok.Getter;
@@ -20,12 +23,18 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 @Entity
+@NamedEntityGraph(name = User.GRAPH_WITH_ROLES,
+        attributeNodes = @NamedAttributeNode(value = "userRoles", subgraph = "roles"),
+        subgraphs = @NamedSubgraph(name = "roles", attributeNodes = @NamedAttributeNode("role")))
 @Table(name = "users", schema = "public")
 @Getter
 @Setter
 @NoArgsConstructor
 public class User implements UserDetails {
 
+    // Пользователь с ролями: для входа и проверки прав, где нужны getAuthorities()
+    public static final String GRAPH_WITH_ROLES = "User.withRoles";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -0,0 +1,106 @@
+package com.example.library_management.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Адаптивный предел одновременных запросов по градиенту задержки.
+ * Долгая средняя задержка — ориентир для ненагруженной системы, короткая — текущее состояние.
+ * Пока текущая задержка близка к ориентиру, предел растёт на размер очереди √limit;
+ * когда она растёт (запросы копятся на соединениях с БД), предел уменьшается пропорционально.
+ * Часть предела зарезервирована за более важными запросами: низкоприоритетные отсекаются первыми.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Priority {
+        // Доля предела, доступная запросам приоритета
+        CRITICAL(1.0),
+        NORMAL(0.9),
+        LOW(0.5);
+
+        private final double share;
+
+        Priority(double share) {
+            this.share = share;
+        }
+    }
+
+    // Допустимый рост задержки относительно ориентира до начала снижения предела
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final int LONG_WINDOW = 600;
+    private static final int SHORT_WINDOW = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private double longRttNanos;
+    private double shortRttNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Пределы должны удовлетворять 1 <= min <= initial <= max");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    // Занять место под запрос; false — запрос нужно отклонить
+    public boolean tryAcquire(Priority priority) {
+        int allowed = Math.max(1, (int) (limit * priority.share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Освободить место. rttNanos — время обработки запроса, inFlightAtStart — занятость в момент входа.
+     * Отрицательный rttNanos означает, что замер не показателен (например, БД отклонила запрос сразу).
+     */
+    public void release(long rttNanos, int inFlightAtStart) {
+        inFlight.decrementAndGet();
+        if (rttNanos >= 0) {
+            onSample(rttNanos, inFlightAtStart);
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtStart) {
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+            shortRttNanos = rttNanos;
+            return;
+        }
+        shortRttNanos += (rttNanos - shortRttNanos) / SHORT_WINDOW;
+        longRttNanos += (rttNanos - longRttNanos) / LONG_WINDOW;
+        // После спада нагрузки ориентир быстро догоняет текущую задержку, иначе предел застрянет внизу
+        if (longRttNanos > shortRttNanos * 2) {
+            longRttNanos = shortRttNanos * 2;
+        }
+
+        double current = limit;
+        // Запросов мало: задержка ничего не говорит о пределе, растить его незачем
+        if (inFlightAtStart < current / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRttNanos / shortRttNanos));
+        double target = current * gradient + Math.sqrt(current);
+        double next = current * (1 - SMOOTHING) + target * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.library_management.resilience;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * Допуск запросов к API по адаптивному пределу одновременности.
+ * Лишние запросы сразу получают 503 с Retry-After, а не ждут соединения с БД.
+ * Аренда и возврат допускаются до полного предела, отчёты администратора — только до половины.
+ * Фильтр стоит перед Spring Security, чтобы лишние запросы отклонялись ещё до проверки JWT.
+ */
+@Slf4j
+@Component
+@Order(-110)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    // Аренда и возврат одного экземпляра; массовый возврат сюда не входит и идёт с обычным приоритетом
+    private static final Pattern SINGLE_RENTAL_PATH = Pattern.compile("/api/rentals/(rent|rent/title|return)/\\d+");
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    @Autowired
+    public AdmissionControlFilter(@Value("${app.admission.initial-limit:20}") int initialLimit,
+                                  @Value("${app.admission.min-limit:4}") int minLimit,
+                                  @Value("${app.admission.max-limit:200}") int maxLimit) {
+        this(new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit));
+    }
+
+    AdmissionControlFilter(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    // Поток SSE держит запрос открытым до отключения клиента и не обращается к БД
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.startsWith("/api/") || path.equals("/api/books/stream");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AdaptiveConcurrencyLimiter.Priority priority = priorityOf(request);
+        int inFlightAtStart = limiter.getInFlight();
+        if (!limiter.tryAcquire(priority)) {
+            log.warn("Запрос {} {} отклонён: предел одновременных запросов {} исчерпан",
+                    request.getMethod(), request.getRequestURI(), limiter.getLimit());
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            response.getWriter().write("{\"error\":\"Сервер перегружен, повторите запрос позже\"}");
+            return;
+        }
+
+        long started = System.nanoTime();
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if (async) {
+                // Отчёт выполняется в своих потоках: место освобождается, когда ответ действительно готов
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        release(response, started, inFlightAtStart);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                release(response, started, inFlightAtStart);
+            }
+        }
+    }
+
+    private void release(HttpServletResponse response, long started, int inFlightAtStart) {
+        // Ответ 503 от автомата защиты БД приходит мгновенно и исказил бы оценку задержки
+        long rttNanos = response.getStatus() == HttpServletResponse.SC_SERVICE_UNAVAILABLE
+                ? -1L
+                : System.nanoTime() - started;
+        limiter.release(rttNanos, inFlightAtStart + 1);
+    }
+
+    static AdaptiveConcurrencyLimiter.Priority priorityOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (HttpMethod.POST.matches(request.getMethod()) && SINGLE_RENTAL_PATH.matcher(path).matches()) {
+            return AdaptiveConcurrencyLimiter.Priority.CRITICAL;
+        }
+        if (path.startsWith("/api/audit/") || path.equals("/api/rentals/all") || path.startsWith("/api/rentals/overdue")) {
+            return AdaptiveConcurrencyLimiter.Priority.LOW;
+        }
+        return AdaptiveConcurrencyLimiter.Priority.NORMAL;
+    }
+}
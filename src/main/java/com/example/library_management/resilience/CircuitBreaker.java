@@ -0,0 +1,107 @@
+package com.example.library_management.resilience;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Автомат защиты вызовов внешнего ресурса.
+ * После failureThreshold ошибок подряд автомат размыкается и openMs отклоняет вызовы сразу,
+ * не дожидаясь таймаутов. Затем пропускается один пробный вызов: успех замыкает автомат,
+ * ошибка снова размыкает его на openMs.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openMs;
+    private final LongSupplier clock;
+
+    // Читается без блокировки на горячем пути (isClosed), изменяется под монитором
+    private volatile State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(String name, int failureThreshold, long openMs) {
+        this(name, failureThreshold, openMs, System::currentTimeMillis);
+    }
+
+    CircuitBreaker(String name, int failureThreshold, long openMs, LongSupplier clock) {
+        if (failureThreshold < 1 || openMs < 1) {
+            throw new IllegalArgumentException("Порог ошибок и время размыкания должны быть положительными");
+        }
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openMs = openMs;
+        this.clock = clock;
+    }
+
+    // Можно ли выполнить вызов; по истечении openMs первый вызов становится пробным
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED -> {
+                return true;
+            }
+            case OPEN -> {
+                if (clock.getAsLong() - openedAt < openMs) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                log.info("Автомат '{}' пропускает пробный вызов", name);
+                return true;
+            }
+            default -> {
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+            }
+        }
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        // Успех вызова, начатого до размыкания, не замыкает автомат: это делает только пробный вызов
+        if (state == State.HALF_OPEN) {
+            state = State.CLOSED;
+            log.info("Автомат '{}' замкнут: ресурс снова доступен", name);
+        }
+    }
+
+    public synchronized void onFailure() {
+        probeInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+            log.warn("Автомат '{}' разомкнут после {} ошибок подряд на {} мс", name, consecutiveFailures, openMs);
+        }
+    }
+
+    public boolean isClosed() {
+        return state == State.CLOSED;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    // Сколько ещё ждать до пробного вызова; 0, если автомат замкнут или пробный вызов уже разрешён
+    public synchronized long getRetryAfterMs() {
+        if (state != State.OPEN) {
+            return 0L;
+        }
+        return Math.max(0L, openMs - (clock.getAsLong() - openedAt));
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.library_management.resilience;
+
+import com.example.library_management.exception.DatabaseUnavailableException;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Источник соединений за автоматом защиты. Через него проходят все обращения к БД — DAO,
+ * транзакции и фоновые задачи, поэтому при недоступной БД запросы и записи завершаются сразу,
+ * а не занимают потоки до таймаута соединения. Медленное получение соединения считается ошибкой.
+ * Ошибкой считается и оператор, упавший на живом соединении из-за состояния БД: обрыв связи,
+ * таймаут, нехватка ресурсов или остановка сервера. Ошибки данных (нарушение ограничений,
+ * синтаксис) на автомат не влияют, а успешные операторы не сбрасывают счётчик — это делает
+ * только успешное получение соединения.
+ */
+public class CircuitBreakingDataSource extends DelegatingDataSource {
+
+    private final CircuitBreaker breaker;
+    private final long slowCallNanos;
+
+    public CircuitBreakingDataSource(DataSource target, CircuitBreaker breaker, long slowCallMs) {
+        super(target);
+        this.breaker = breaker;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMs);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return guarded(() -> obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return guarded(() -> obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection guarded(ConnectionSupplier supplier) throws SQLException {
+        if (!breaker.tryAcquire()) {
+            // SQLState 08001: драйвер не смог установить соединение
+            throw new SQLTransientConnectionException("База данных недоступна", "08001",
+                    new DatabaseUnavailableException(breaker.getRetryAfterMs()));
+        }
+        long started = System.nanoTime();
+        Connection connection;
+        try {
+            connection = supplier.get();
+        } catch (SQLException | RuntimeException e) {
+            breaker.onFailure();
+            throw e;
+        }
+        if (System.nanoTime() - started > slowCallNanos) {
+            breaker.onFailure();
+        } else {
+            breaker.onSuccess();
+        }
+        return observed(connection);
+    }
+
+    private Connection observed(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = delegate(proxy, connection, method, args);
+                    // Операторы создаются методами create/prepare; их интерфейс совпадает с типом результата метода
+                    if (result instanceof Statement statement && method.getReturnType().isInterface()) {
+                        return observed(statement, method.getReturnType());
+                    }
+                    return result;
+                });
+    }
+
+    private Object observed(Statement statement, Class<?> type) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (!method.getName().startsWith("execute")) {
+                        return delegate(proxy, statement, method, args);
+                    }
+                    try {
+                        return delegate(proxy, statement, method, args);
+                    } catch (SQLException e) {
+                        if (isUnavailability(e)) {
+                            breaker.onFailure();
+                        }
+                        throw e;
+                    }
+                });
+    }
+
+    private static Object delegate(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals" -> {
+                return proxy == args[0];
+            }
+            case "hashCode" -> {
+                return System.identityHashCode(proxy);
+            }
+            default -> {
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            }
+        }
+    }
+
+    // Классы SQLState: 08 — соединение, 53 — нехватка ресурсов, 57 — вмешательство оператора (в том числе таймаут оператора)
+    static boolean isUnavailability(SQLException e) {
+        if (e instanceof SQLTimeoutException || e instanceof SQLTransientConnectionException
+                || e instanceof SQLNonTransientConnectionException) {
+            return true;
+        }
+        String state = e.getSQLState();
+        return state != null && (state.startsWith("08") || state.startsWith("53") || state.startsWith("57"));
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+}
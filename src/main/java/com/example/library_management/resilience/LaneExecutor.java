@@ -0,0 +1,85 @@
+package com.example.library_management.resilience;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Отдельные потоки для класса нагрузки. Задачи выполняются в его доле соединений с БД
+ * и с контекстом безопасности вызвавшего запроса. Очередь ограничена: при переполнении
+ * задача отклоняется сразу, а не копится в памяти.
+ */
+@Slf4j
+public class LaneExecutor implements Executor {
+
+    private final WorkloadLane lane;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public LaneExecutor(WorkloadLane lane, int threads, int queueCapacity) {
+        this.lane = lane;
+        String prefix = "lane-" + lane.name().toLowerCase() + "-";
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public WorkloadLane getLane() {
+        return lane;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        SecurityContext context = SecurityContextHolder.getContext();
+        try {
+            executor.execute(() -> {
+                SecurityContextHolder.setContext(context);
+                try {
+                    lane.run(task);
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            log.warn("Очередь нагрузки {} переполнена, задача отклонена", lane);
+            throw e;
+        }
+    }
+
+    public int getThreads() {
+        return executor.getMaximumPoolSize();
+    }
+
+    public int getActive() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueued() {
+        return executor.getQueue().size();
+    }
+
+    public long getCompleted() {
+        return executor.getCompletedTaskCount();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.library_management.resilience;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Источник соединений, разделённый по классам нагрузки. У каждого класса свой бюджет одновременно
+ * открытых соединений: отчёт, занявший все соединения своей доли, ждёт сам, а не задерживает выдачу книг.
+ * Место в бюджете освобождается при закрытии соединения. Не дождавшийся соединения запрос получает
+ * SQLTransientConnectionException, который не учитывается автоматом защиты БД: он стоит глубже.
+ */
+public class LanePartitionedDataSource extends DelegatingDataSource {
+
+    private final Map<WorkloadLane, Partition> partitions = new EnumMap<>(WorkloadLane.class);
+    private final long acquireTimeoutNanos;
+
+    public LanePartitionedDataSource(DataSource target, Map<WorkloadLane, Integer> connectionLimits, long acquireTimeoutMs) {
+        super(target);
+        for (WorkloadLane lane : WorkloadLane.values()) {
+            Integer limit = connectionLimits.get(lane);
+            if (limit == null || limit < 1) {
+                throw new IllegalArgumentException("Не задано число соединений для нагрузки " + lane);
+            }
+            partitions.put(lane, new Partition(limit));
+        }
+        this.acquireTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMs);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return partitioned(() -> obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return partitioned(() -> obtainTargetDataSource().getConnection(username, password));
+    }
+
+    public int getLimit(WorkloadLane lane) {
+        return partitions.get(lane).limit;
+    }
+
+    public int getInUse(WorkloadLane lane) {
+        Partition partition = partitions.get(lane);
+        return partition.limit - partition.permits.availablePermits();
+    }
+
+    public int getWaiting(WorkloadLane lane) {
+        return partitions.get(lane).permits.getQueueLength();
+    }
+
+    public long getAcquired(WorkloadLane lane) {
+        return partitions.get(lane).acquired.get();
+    }
+
+    public long getTimeouts(WorkloadLane lane) {
+        return partitions.get(lane).timeouts.get();
+    }
+
+    // Среднее ожидание места в бюджете по выданным соединениям
+    public double getAverageWaitMs(WorkloadLane lane) {
+        Partition partition = partitions.get(lane);
+        long acquired = partition.acquired.get();
+        return acquired == 0 ? 0.0 : partition.waitNanos.get() / (acquired * 1_000_000.0);
+    }
+
+    private Connection partitioned(ConnectionSupplier supplier) throws SQLException {
+        WorkloadLane lane = WorkloadLane.current();
+        Partition partition = partitions.get(lane);
+        long started = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = partition.permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Ожидание соединения прервано", "08001", e);
+        }
+        if (!acquired) {
+            partition.timeouts.incrementAndGet();
+            throw new SQLTransientConnectionException("Все соединения нагрузки " + lane + " заняты", "08001");
+        }
+        partition.waitNanos.addAndGet(System.nanoTime() - started);
+        partition.acquired.incrementAndGet();
+
+        Connection connection;
+        try {
+            connection = supplier.get();
+        } catch (SQLException | RuntimeException e) {
+            partition.permits.release();
+            throw e;
+        }
+        return releasingOnClose(connection, partition.permits);
+    }
+
+    // Повторное закрытие соединения допустимо по контракту JDBC, поэтому место освобождается один раз
+    private static Connection releasingOnClose(Connection connection, Semaphore permits) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    } finally {
+                        if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                            permits.release();
+                        }
+                    }
+                });
+    }
+
+    private static final class Partition {
+        final int limit;
+        final Semaphore permits;
+        final AtomicLong acquired = new AtomicLong();
+        final AtomicLong timeouts = new AtomicLong();
+        final AtomicLong waitNanos = new AtomicLong();
+
+        Partition(int limit) {
+            this.limit = limit;
+            this.permits = new Semaphore(limit, true);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.library_management.resilience;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+public final class StaleResponses {
+
+    private StaleResponses() {
+    }
+
+    // Пометить текущий HTTP-ответ как отданный из кэша, который не обновлялся ageMs; вне HTTP-запроса ничего не делает
+    public static void markStale(long ageMs) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletResponse response = servletAttributes.getResponse();
+            if (response != null && !response.isCommitted()) {
+                response.setHeader(HttpHeaders.AGE, Long.toString(Math.max(0L, ageMs) / 1000));
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.library_management.resilience;
+
+/**
+ * Класс нагрузки, к которому относится текущий поток. От него зависит, из какой доли
+ * соединений с БД берётся соединение: отчёты администратора не могут занять соединения выдачи и возврата.
+ * Потоки запросов и фоновых задач по умолчанию относятся к PATRON, REPORTING выставляет исполнитель отчётов.
+ */
+public enum WorkloadLane {
+    PATRON,
+    REPORTING;
+
+    private static final ThreadLocal<WorkloadLane> CURRENT = ThreadLocal.withInitial(() -> PATRON);
+
+    public static WorkloadLane current() {
+        return CURRENT.get();
+    }
+
+    // Выполнить задачу в этом классе нагрузки и вернуть поток в прежний
+    public void run(Runnable task) {
+        WorkloadLane previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            task.run();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.library_management.resilience;
+
+import com.example.library_management.dto.WorkloadLaneStatsDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Показатели классов нагрузки: занятость доли соединений с БД и очередь исполнителя.
+ */
+@Component
+public class WorkloadLaneMetrics {
+
+    private final LanePartitionedDataSource dataSource;
+    private final Map<WorkloadLane, LaneExecutor> executors = new EnumMap<>(WorkloadLane.class);
+
+    @Autowired
+    public WorkloadLaneMetrics(DataSource dataSource, List<LaneExecutor> executors) throws SQLException {
+        this.dataSource = dataSource.unwrap(LanePartitionedDataSource.class);
+        for (LaneExecutor executor : executors) {
+            this.executors.put(executor.getLane(), executor);
+        }
+    }
+
+    public List<WorkloadLaneStatsDTO> getStats() {
+        List<WorkloadLaneStatsDTO> stats = new ArrayList<>();
+        for (WorkloadLane lane : WorkloadLane.values()) {
+            LaneExecutor executor = executors.get(lane);
+            stats.add(new WorkloadLaneStatsDTO(lane.name(),
+                    dataSource.getLimit(lane),
+                    dataSource.getInUse(lane),
+                    dataSource.getWaiting(lane),
+                    dataSource.getAcquired(lane),
+                    dataSource.getTimeouts(lane),
+                    dataSource.getAverageWaitMs(lane),
+                    executor == null ? null : executor.getThreads(),
+                    executor == null ? null : executor.getActive(),
+                    executor == null ? null : executor.getQueued(),
+                    executor == null ? null : executor.getRejected()));
+        }
+        return stats;
+    }
+}
@@ -1,27 +1,33 @@
 package com.example.library_management.security;
 
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-
+import java.util.List;
+
+/**
+ * Аутентификация по JWT без обращения к БД: имя и роли берутся из подписанного токена.
+ * Поэтому при недоступной БД запросы остаются аутентифицированными и могут получить
+ * данные из снимка каталога, а не 401.
+ */
+@Slf4j
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final com.example.library_management.security.JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
 
-    public JwtAuthenticationFilter(com.example.library_management.security.JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(com.example.library_management.security.JwtUtil jwtUtil) {
         this.jwtUtil = jwtUtil;
-        this.userDetailsService = userDetailsService;
     }
 
     @Override
@@ -35,18 +41,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
             try {
                 String username = jwtUtil.extractUsername(token);
+                List<String> roles = jwtUtil.extractRoles(token);
 
-                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-                    if (jwtUtil.validateToken(token, userDetails)) {
-                        UsernamePasswordAuthenticationToken authToken =
-                                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                        SecurityContextHolder.getContext().setAuthentication(authToken);
-                    }
+                if (username != null && roles != null && jwtUtil.isTokenValid(token)
+                        && SecurityContextHolder.getContext().getAuthentication() == null) {
+                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(username, null,
+                            roles.stream().map(role -> new SimpleGrantedAuthority("ROLE_" + role)).toList());
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
                 }
-            } catch (Exception ex) {
-                System.out.println("JWT проверка не пройдена: " + ex.getMessage());
+            } catch (JwtException | IllegalArgumentException ex) {
+                log.debug("JWT проверка не пройдена: {}", ex.getMessage());
             }
         }
 
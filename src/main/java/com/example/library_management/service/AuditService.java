@@ -5,10 +5,10 @@ import com.example.library_management.model.AuditLog;
 import com.example.library_management.model.LibraryBook;
 import com.example.library_management.model.User;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -41,6 +41,7 @@ public class AuditService {
     }
 
     // Получить всю историю действий
+    @Transactional(readOnly = true)
     public List<AuditLog> getAllLogs() {
         List<AuditLog> logs = auditLogDAO.findAll();
         if (logs.isEmpty()) {
@@ -52,6 +53,7 @@ public class AuditService {
 
 
      // Получить историю по книге
+    @Transactional(readOnly = true)
     public List<AuditLog> getLogsByBookId(Long bookId) {
         List<AuditLog> logs = auditLogDAO.findByBookId(bookId);
         if (logs.isEmpty()) {
@@ -64,6 +66,7 @@ public class AuditService {
 
 
      // Получить историю по пользователю
+    @Transactional(readOnly = true)
     public List<AuditLog> getLogsByUser(User user) {
         List<AuditLog> logs = auditLogDAO.findByUser(user);
         if (logs.isEmpty()) {
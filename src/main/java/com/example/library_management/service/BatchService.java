@@ -0,0 +1,118 @@
+package com.example.library_management.service;
+
+import com.example.library_management.dto.BatchOperationDTO;
+import com.example.library_management.dto.BatchOperationDTO.OperationType;
+import com.example.library_management.dto.BatchOperationResultDTO;
+import com.example.library_management.dto.BatchOperationResultDTO.OperationStatus;
+import com.example.library_management.dto.BatchResultDTO;
+import com.example.library_management.dto.CategoryDTO;
+import com.example.library_management.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Пакетное выполнение операций каталога и аренды.
+ * Операции выполняются по порядку в одной транзакции через существующие методы сервисов,
+ * которые присоединяются к ней. Первая ошибка откатывает весь пакет, оставшиеся операции
+ * помечаются пропущенными; действия после коммита (трекер просрочек, события) при откате не выполняются.
+ */
+@Slf4j
+@Service
+public class BatchService {
+
+    private final LibraryBookService libraryBookService;
+    private final RentalService rentalService;
+    private final CategoryService categoryService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public BatchService(LibraryBookService libraryBookService, RentalService rentalService,
+                        CategoryService categoryService, PlatformTransactionManager transactionManager) {
+        this.libraryBookService = libraryBookService;
+        this.rentalService = rentalService;
+        this.categoryService = categoryService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public BatchResultDTO execute(List<BatchOperationDTO> operations, User user, boolean admin) {
+        // Весь пакет проверяется до начала транзакции
+        for (int i = 0; i < operations.size(); i++) {
+            validate(i, operations.get(i), admin);
+        }
+
+        List<BatchOperationResultDTO> results = new ArrayList<>(operations.size());
+        Boolean committed = transactionTemplate.execute(status -> {
+            for (int i = 0; i < operations.size(); i++) {
+                BatchOperationDTO operation = operations.get(i);
+                try {
+                    results.add(new BatchOperationResultDTO(i, operation.getType(), OperationStatus.OK, apply(operation, user)));
+                } catch (RuntimeException e) {
+                    log.warn("Операция {} пакета ({}) завершилась ошибкой: {}", i, operation.getType(), e.getMessage());
+                    results.add(new BatchOperationResultDTO(i, operation.getType(), OperationStatus.FAILED, e.getMessage()));
+                    for (int j = i + 1; j < operations.size(); j++) {
+                        results.add(new BatchOperationResultDTO(j, operations.get(j).getType(), OperationStatus.SKIPPED,
+                                "Операция не выполнена: пакет откачен"));
+                    }
+                    status.setRollbackOnly();
+                    return false;
+                }
+            }
+            return true;
+        });
+
+        log.info("Пакет из {} операций пользователя '{}' {}", operations.size(), user.getUsername(),
+                Boolean.TRUE.equals(committed) ? "выполнен" : "откачен");
+        return new BatchResultDTO(Boolean.TRUE.equals(committed), results);
+    }
+
+    private String apply(BatchOperationDTO operation, User user) {
+        switch (operation.getType()) {
+            case ADD_BOOK -> {
+                libraryBookService.addFullBook(operation.getTitle(), operation.getAuthor(),
+                        operation.getCategoryId(), operation.getSerialNumber());
+                return "Новая книга успешно добавлена";
+            }
+            case RENT -> {
+                rentalService.rentBook(user, operation.getBookId());
+                return "Книга успешно арендована";
+            }
+            case RETURN -> {
+                rentalService.returnBook(operation.getBookId(), user);
+                return "Книга успешно возвращена";
+            }
+            case UPDATE_CATEGORY -> {
+                categoryService.updateCategory(
+                        new CategoryDTO(operation.getCategoryId(), operation.getName(), operation.getParentId()));
+                return "Категория успешно обновлена";
+            }
+            default -> throw new IllegalArgumentException("Неизвестный тип операции: " + operation.getType());
+        }
+    }
+
+    private void validate(int index, BatchOperationDTO operation, boolean admin) {
+        OperationType type = operation.getType();
+        if ((type == OperationType.ADD_BOOK || type == OperationType.UPDATE_CATEGORY) && !admin) {
+            throw new SecurityException("Операция " + index + " (" + type + ") доступна только администратору");
+        }
+        boolean valid = switch (type) {
+            case ADD_BOOK -> isNotBlank(operation.getTitle()) && isNotBlank(operation.getAuthor())
+                    && operation.getCategoryId() != null
+                    && operation.getSerialNumber() != null && operation.getSerialNumber() >= 100000;
+            case RENT, RETURN -> operation.getBookId() != null;
+            case UPDATE_CATEGORY -> operation.getCategoryId() != null && isNotBlank(operation.getName());
+        };
+        if (!valid) {
+            throw new IllegalArgumentException("Операция " + index + " (" + type + ") заполнена некорректно");
+        }
+    }
+
+    private static boolean isNotBlank(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.library_management.service;
+
+import com.example.library_management.dao.BookAvailabilityDAO;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+@Slf4j
+@Service
+public class BookAvailabilityService {
+
+    private final BookAvailabilityDAO bookAvailabilityDAO;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public BookAvailabilityService(BookAvailabilityDAO bookAvailabilityDAO, PlatformTransactionManager transactionManager) {
+        this.bookAvailabilityDAO = bookAvailabilityDAO;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Число доступных экземпляров книги
+    @Transactional(readOnly = true)
+    public int getAvailableCount(Long bookInfoId) {
+        return bookAvailabilityDAO.findAvailableCount(bookInfoId)
+                .orElseThrow(() -> {
+                    log.error("Счётчик доступности для книги с ID {} не найден", bookInfoId);
+                    throw new EntityNotFoundException("Информация о книге с ID " + bookInfoId + " не найдена");
+                });
+    }
+
+    // Сверка счётчиков с таблицей library_book, каждая книга исправляется в отдельной транзакции
+    @Scheduled(fixedDelayString = "${app.availability.reconcile-interval-ms:3600000}",
+            initialDelayString = "${app.availability.reconcile-initial-delay-ms:60000}")
+    public void reconcile() {
+        List<Long> driftedIds = bookAvailabilityDAO.findDriftedBookInfoIds();
+        if (driftedIds.isEmpty()) {
+            log.info("Счётчики доступности книг согласованы");
+            return;
+        }
+
+        for (Long bookInfoId : driftedIds) {
+            transactionTemplate.executeWithoutResult(status -> bookAvailabilityDAO.recalculate(bookInfoId));
+        }
+        log.warn("Исправлены счётчики доступности для {} книг: {}", driftedIds.size(), driftedIds);
+    }
+}
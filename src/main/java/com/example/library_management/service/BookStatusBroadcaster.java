@@ -0,0 +1,290 @@
+package com.example.library_management.service;
+
+import com.example.library_management.event.BookStatusChangedEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Рассылка изменений статусов экземпляров по SSE.
+ * Закоммиченные события складываются в общий кольцевой буфер с последовательными номерами.
+ * Каждый подписчик читает буфер со своей позиции, и у подписчика одновременно работает
+ * не более одной задачи отправки. Медленный клиент, отставший больше чем на размер буфера,
+ * получает событие reset и отключается: ему нужно заново загрузить каталог.
+ * Запись в сокет блокирующая, поэтому подписчик, чья запись не завершилась за write-timeout,
+ * отключается сторожем: асинхронный запрос завершается на уровне контейнера, а не через прерывание
+ * потока, на которое блокирующая запись Tomcat может не реагировать. Сам зависший вызов записи
+ * ограничен таймаутом соединения коннектора (server.tomcat.connection-timeout).
+ */
+@Slf4j
+@Service
+public class BookStatusBroadcaster {
+
+    static final String STATUS_EVENT = "book-status";
+    static final String RESET_EVENT = "reset";
+
+    private static final int MAX_EVENTS_PER_DRAIN = 256;
+
+    private final AtomicReferenceArray<Entry> ring;
+    private final int capacity;
+    private final long emitterTimeoutMs;
+    private final long writeTimeoutNanos;
+    private final Executor dispatcher;
+    private final ExecutorService ownedDispatcher;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // Номера событий начинаются заново после перезапуска, поэтому ID события включает метку запуска
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    // Номер последнего опубликованного события
+    private volatile long head;
+
+    @Autowired
+    public BookStatusBroadcaster(@Value("${app.stream.buffer-size:4096}") int capacity,
+                                 @Value("${app.stream.timeout-ms:1800000}") long emitterTimeoutMs,
+                                 @Value("${app.stream.write-timeout-ms:5000}") long writeTimeoutMs,
+                                 @Value("${app.stream.dispatch-threads:4}") int dispatchThreads) {
+        this(capacity, emitterTimeoutMs, writeTimeoutMs, newDispatcher(dispatchThreads));
+    }
+
+    BookStatusBroadcaster(int capacity, long emitterTimeoutMs, long writeTimeoutMs, Executor dispatcher) {
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.capacity = capacity;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMs);
+        this.dispatcher = dispatcher;
+        this.ownedDispatcher = dispatcher instanceof ExecutorService executorService ? executorService : null;
+    }
+
+    // Подписаться на изменения; lastEventId — ID последнего полученного события при переподключении
+    public SseEmitter subscribe(String lastEventId, HttpServletRequest request) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        register(emitter, lastEventId, () -> {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().complete();
+            }
+        });
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookStatusChanged(BookStatusChangedEvent event) {
+        publish(event);
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Scheduled(fixedRateString = "${app.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        // Комментарий-пинг выявляет разорванные соединения, на которые давно ничего не отправлялось
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.draining.compareAndSet(false, true)) {
+                dispatcher.execute(() -> {
+                    try {
+                        send(subscriber, SseEmitter.event().comment("ping"));
+                    } catch (IOException | IllegalStateException e) {
+                        drop(subscriber, e);
+                    } finally {
+                        subscriber.draining.set(false);
+                    }
+                    schedule(subscriber);
+                });
+            }
+        }
+    }
+
+    // Отключить подписчиков, чья запись висит дольше write-timeout
+    @Scheduled(fixedRateString = "${app.stream.write-check-ms:1000}")
+    public void expireStalledWrites() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            synchronized (subscriber) {
+                if (subscriber.closed || !subscriber.writing || now - subscriber.writeStartedAt < writeTimeoutNanos) {
+                    continue;
+                }
+            }
+            log.warn("Запись подписчику не завершилась за {} мс, подписчик отключён",
+                    TimeUnit.NANOSECONDS.toMillis(writeTimeoutNanos));
+            evict(subscriber);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        if (ownedDispatcher != null) {
+            ownedDispatcher.shutdownNow();
+        }
+    }
+
+    void register(SseEmitter emitter, String lastEventId, Runnable closeConnection) {
+        long start = lastEventId == null || lastEventId.isBlank() ? head : resumePosition(lastEventId);
+        Subscriber subscriber = new Subscriber(emitter, closeConnection, start);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        schedule(subscriber);
+    }
+
+    synchronized void publish(BookStatusChangedEvent event) {
+        long sequence = head + 1;
+        ring.set((int) (sequence % capacity), new Entry(sequence, event));
+        head = sequence;
+        subscribers.forEach(this::schedule);
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.position < head && !subscriber.closed && subscriber.draining.compareAndSet(false, true)) {
+            dispatcher.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            int sent = 0;
+            while (subscriber.position < head && sent < MAX_EVENTS_PER_DRAIN) {
+                long next = subscriber.position + 1;
+                Entry entry = ring.get((int) (next % capacity));
+                if (entry == null || entry.sequence != next) {
+                    // Нужное событие уже вытеснено из буфера
+                    reset(subscriber);
+                    return;
+                }
+                send(subscriber, SseEmitter.event()
+                        .id(eventId(entry.sequence))
+                        .name(STATUS_EVENT)
+                        .data(entry.event, MediaType.APPLICATION_JSON));
+                subscriber.position = next;
+                sent++;
+            }
+        } catch (IOException | IllegalStateException e) {
+            drop(subscriber, e);
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // Оставшиеся события отправит следующая задача, чтобы один подписчик не занимал поток надолго
+        schedule(subscriber);
+    }
+
+    private void reset(Subscriber subscriber) {
+        log.warn("Подписчик отстал больше чем на {} событий и будет отключён", capacity);
+        subscriber.closed = true;
+        subscribers.remove(subscriber);
+        try {
+            send(subscriber, SseEmitter.event().id(eventId(head)).name(RESET_EVENT).data(eventId(head)));
+            subscriber.emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            subscriber.emitter.completeWithError(e);
+        }
+    }
+
+    // Отправка с отметкой начала записи для сторожа
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws IOException {
+        synchronized (subscriber) {
+            subscriber.writeStartedAt = System.nanoTime();
+            subscriber.writing = true;
+        }
+        try {
+            subscriber.emitter.send(event);
+        } finally {
+            synchronized (subscriber) {
+                subscriber.writing = false;
+            }
+        }
+    }
+
+    String eventId(long sequence) {
+        return epoch + ":" + sequence;
+    }
+
+    // Позиция для продолжения; ID чужого запуска или неразборчивый ID приводят к событию reset
+    private long resumePosition(String lastEventId) {
+        int separator = lastEventId.indexOf(':');
+        if (separator < 0 || !epoch.equals(lastEventId.substring(0, separator))) {
+            return -1L;
+        }
+        try {
+            return Math.min(Long.parseLong(lastEventId.substring(separator + 1)), head);
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    // Асинхронный запрос завершается сразу, а не по таймауту контейнера
+    private void drop(Subscriber subscriber, Exception cause) {
+        subscriber.closed = true;
+        subscribers.remove(subscriber);
+        subscriber.emitter.completeWithError(cause);
+    }
+
+    // Зависшая запись держит блокировку ответа в Spring, поэтому соединение закрывается через AsyncContext
+    // контейнера, и только затем завершается emitter; после закрытия контейнер может отвергнуть его dispatch
+    private void evict(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscribers.remove(subscriber);
+        try {
+            subscriber.closeConnection.run();
+        } catch (IllegalStateException e) {
+            log.debug("Асинхронный запрос подписчика уже завершён: {}", e.getMessage());
+        }
+        try {
+            subscriber.emitter.completeWithError(new IOException("Превышено время записи в поток статусов"));
+        } catch (IllegalStateException e) {
+            log.debug("Emitter подписчика уже завершён: {}", e.getMessage());
+        }
+    }
+
+    private static ExecutorService newDispatcher(int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "book-status-sse-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private record Entry(long sequence, BookStatusChangedEvent event) {
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        // Закрывает соединение подписчика на уровне контейнера
+        private final Runnable closeConnection;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile long position;
+        private volatile boolean closed;
+        // Идёт ли запись и когда она началась
+        private boolean writing;
+        private long writeStartedAt;
+
+        private Subscriber(SseEmitter emitter, Runnable closeConnection, long position) {
+            this.emitter = emitter;
+            this.closeConnection = closeConnection;
+            this.position = position;
+        }
+    }
+}
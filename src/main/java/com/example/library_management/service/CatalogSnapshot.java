@@ -0,0 +1,373 @@
+package com.example.library_management.service;
+
+import com.example.library_management.dto.BookInfoChangeDTO;
+import com.example.library_management.dto.BookInfoDTO;
+import com.example.library_management.dto.CategoryChangeDTO;
+import com.example.library_management.dto.CategoryDetailsDTO;
+import com.example.library_management.dto.CategoryDTO;
+import com.example.library_management.dto.LibraryBookChangeDTO;
+import com.example.library_management.dto.LibraryBookDTO;
+import com.example.library_management.model.LibraryBook.BookStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Неизменяемый снимок каталога: категории, информация о книгах и экземпляры в параллельных массивах,
+ * упорядоченных по ID. Поиск по ID — двоичный поиск без блокировок и без промежуточных объектов.
+ * Изменения не модифицируют снимок, а создают новый: неизменённые строки копируются из старых массивов,
+ * строки с общими значениями (названия, авторы) переиспользуются.
+ * Неизменяемые представления категорий строятся один раз на снимок при первом чтении
+ * и переходят в следующий снимок, если категории в нём не менялись.
+ */
+public final class CatalogSnapshot {
+
+    // ID из SERIAL начинаются с 1, поэтому 0 означает отсутствие родителя
+    static final long NO_PARENT = 0L;
+
+    private static final BookStatus[] STATUSES = BookStatus.values();
+
+    static final CatalogSnapshot EMPTY = new CatalogSnapshot(0L, new long[0],
+            new long[0], new String[0], new long[0],
+            new long[0], new String[0], new String[0], new long[0],
+            new long[0], new long[0], new byte[0], new long[0]);
+
+    // Все изменения с версией не больше cursor применены; применённые более поздние версии перечислены в pendingVersions
+    final long cursor;
+    final long[] pendingVersions;
+
+    final long[] categoryIds;
+    final String[] categoryNames;
+    final long[] categoryParents;
+
+    final long[] bookInfoIds;
+    final String[] bookInfoTitles;
+    final String[] bookInfoAuthors;
+    final long[] bookInfoCategories;
+
+    final long[] bookIds;
+    final long[] bookSerials;
+    final byte[] bookStatuses;
+    final long[] bookInfoRefs;
+
+    private final CategoryViews categoryViews;
+
+    CatalogSnapshot(long cursor, long[] pendingVersions,
+                    long[] categoryIds, String[] categoryNames, long[] categoryParents,
+                    long[] bookInfoIds, String[] bookInfoTitles, String[] bookInfoAuthors, long[] bookInfoCategories,
+                    long[] bookIds, long[] bookSerials, byte[] bookStatuses, long[] bookInfoRefs) {
+        this(cursor, pendingVersions, categoryIds, categoryNames, categoryParents,
+                bookInfoIds, bookInfoTitles, bookInfoAuthors, bookInfoCategories,
+                bookIds, bookSerials, bookStatuses, bookInfoRefs, new CategoryViews());
+    }
+
+    private CatalogSnapshot(long cursor, long[] pendingVersions,
+                            long[] categoryIds, String[] categoryNames, long[] categoryParents,
+                            long[] bookInfoIds, String[] bookInfoTitles, String[] bookInfoAuthors, long[] bookInfoCategories,
+                            long[] bookIds, long[] bookSerials, byte[] bookStatuses, long[] bookInfoRefs,
+                            CategoryViews categoryViews) {
+        this.cursor = cursor;
+        this.pendingVersions = pendingVersions;
+        this.categoryIds = categoryIds;
+        this.categoryNames = categoryNames;
+        this.categoryParents = categoryParents;
+        this.bookInfoIds = bookInfoIds;
+        this.bookInfoTitles = bookInfoTitles;
+        this.bookInfoAuthors = bookInfoAuthors;
+        this.bookInfoCategories = bookInfoCategories;
+        this.bookIds = bookIds;
+        this.bookSerials = bookSerials;
+        this.bookStatuses = bookStatuses;
+        this.bookInfoRefs = bookInfoRefs;
+        this.categoryViews = categoryViews;
+    }
+
+    public int categoryCount() {
+        return categoryIds.length;
+    }
+
+    public int bookInfoCount() {
+        return bookInfoIds.length;
+    }
+
+    public int bookCount() {
+        return bookIds.length;
+    }
+
+    // Позиция категории или отрицательное число, если её нет
+    public int indexOfCategory(long id) {
+        return Arrays.binarySearch(categoryIds, id);
+    }
+
+    public int indexOfBookInfo(long id) {
+        return Arrays.binarySearch(bookInfoIds, id);
+    }
+
+    public int indexOfBook(long id) {
+        return Arrays.binarySearch(bookIds, id);
+    }
+
+    public long categoryId(int index) {
+        return categoryIds[index];
+    }
+
+    public String categoryName(int index) {
+        return categoryNames[index];
+    }
+
+    // ID родителя или NO_PARENT для корневой категории
+    public long categoryParentId(int index) {
+        return categoryParents[index];
+    }
+
+    public boolean isBookDeleted(int index) {
+        return STATUSES[bookStatuses[index]] == BookStatus.DELETED;
+    }
+
+    public CategoryDTO category(int index) {
+        long parentId = categoryParents[index];
+        return new CategoryDTO(categoryIds[index], categoryNames[index], parentId == NO_PARENT ? null : parentId);
+    }
+
+    // Все категории по возрастанию ID с цепочками родителей; список общий для всех читателей снимка
+    public List<CategoryDetailsDTO> categoryDetails() {
+        return categoryViews().all;
+    }
+
+    public CategoryDetailsDTO categoryDetails(int index) {
+        return categoryViews().byIndex[index];
+    }
+
+    // Непосредственные подкатегории категории с указанной позицией
+    public List<CategoryDetailsDTO> subcategoryDetails(int index) {
+        return categoryViews().childrenByIndex.get(index);
+    }
+
+    public BookInfoDTO bookInfo(int index) {
+        return new BookInfoDTO(bookInfoIds[index], bookInfoTitles[index], bookInfoAuthors[index], bookInfoCategories[index]);
+    }
+
+    public LibraryBookDTO book(int index) {
+        return new LibraryBookDTO(bookIds[index], bookSerials[index], STATUSES[bookStatuses[index]].name(), bookInfoRefs[index]);
+    }
+
+    /**
+     * Новый снимок с применёнными изменениями. Списки изменений не обязаны быть упорядочены;
+     * при нескольких изменениях одной строки побеждает более поздняя версия.
+     */
+    CatalogSnapshot apply(List<CategoryChangeDTO> categories, List<BookInfoChangeDTO> bookInfos,
+                          List<LibraryBookChangeDTO> books, long newCursor, long[] newPendingVersions) {
+        CategoryChangeDTO[] categoryChanges = latestById(categories.toArray(new CategoryChangeDTO[0]),
+                CategoryChangeDTO::getId, CategoryChangeDTO::getVersion);
+        // Без изменений категорий столбцы и их представления переходят в новый снимок как есть
+        boolean categoriesChanged = categoryChanges.length > 0;
+        long[] changedCategoryIds = new long[categoryChanges.length];
+        boolean[] removedCategories = new boolean[categoryChanges.length];
+        for (int i = 0; i < categoryChanges.length; i++) {
+            changedCategoryIds[i] = categoryChanges[i].getId();
+            removedCategories[i] = categoryChanges[i].isDeleted();
+        }
+        int[] categoryPlan = categoriesChanged
+                ? mergePlan(categoryIds, changedCategoryIds, removedCategories)
+                : new int[0];
+        long[] newCategoryIds = categoriesChanged ? new long[categoryPlan.length] : categoryIds;
+        String[] newCategoryNames = categoriesChanged ? new String[categoryPlan.length] : categoryNames;
+        long[] newCategoryParents = categoriesChanged ? new long[categoryPlan.length] : categoryParents;
+        for (int i = 0; i < categoryPlan.length; i++) {
+            int source = categoryPlan[i];
+            if (source >= 0) {
+                newCategoryIds[i] = categoryIds[source];
+                newCategoryNames[i] = categoryNames[source];
+                newCategoryParents[i] = categoryParents[source];
+            } else {
+                CategoryChangeDTO change = categoryChanges[~source];
+                newCategoryIds[i] = change.getId();
+                newCategoryNames[i] = change.getName();
+                newCategoryParents[i] = change.getParentId() == null ? NO_PARENT : change.getParentId();
+            }
+        }
+
+        BookInfoChangeDTO[] bookInfoChanges = latestById(bookInfos.toArray(new BookInfoChangeDTO[0]),
+                BookInfoChangeDTO::getId, BookInfoChangeDTO::getVersion);
+        long[] changedBookInfoIds = new long[bookInfoChanges.length];
+        for (int i = 0; i < bookInfoChanges.length; i++) {
+            changedBookInfoIds[i] = bookInfoChanges[i].getId();
+        }
+        int[] bookInfoPlan = mergePlan(bookInfoIds, changedBookInfoIds, new boolean[bookInfoChanges.length]);
+        long[] newBookInfoIds = new long[bookInfoPlan.length];
+        String[] newBookInfoTitles = new String[bookInfoPlan.length];
+        String[] newBookInfoAuthors = new String[bookInfoPlan.length];
+        long[] newBookInfoCategories = new long[bookInfoPlan.length];
+        for (int i = 0; i < bookInfoPlan.length; i++) {
+            int source = bookInfoPlan[i];
+            if (source >= 0) {
+                newBookInfoIds[i] = bookInfoIds[source];
+                newBookInfoTitles[i] = bookInfoTitles[source];
+                newBookInfoAuthors[i] = bookInfoAuthors[source];
+                newBookInfoCategories[i] = bookInfoCategories[source];
+            } else {
+                BookInfoChangeDTO change = bookInfoChanges[~source];
+                newBookInfoIds[i] = change.getId();
+                newBookInfoTitles[i] = change.getTitle();
+                newBookInfoAuthors[i] = change.getAuthor();
+                newBookInfoCategories[i] = change.getCategoryId();
+            }
+        }
+
+        // Мягко удалённые экземпляры остаются в снимке со статусом DELETED, как и в БД
+        LibraryBookChangeDTO[] bookChanges = latestById(books.toArray(new LibraryBookChangeDTO[0]),
+                LibraryBookChangeDTO::getId, LibraryBookChangeDTO::getVersion);
+        long[] changedBookIds = new long[bookChanges.length];
+        for (int i = 0; i < bookChanges.length; i++) {
+            changedBookIds[i] = bookChanges[i].getId();
+        }
+        int[] bookPlan = mergePlan(bookIds, changedBookIds, new boolean[bookChanges.length]);
+        long[] newBookIds = new long[bookPlan.length];
+        long[] newBookSerials = new long[bookPlan.length];
+        byte[] newBookStatuses = new byte[bookPlan.length];
+        long[] newBookInfoRefs = new long[bookPlan.length];
+        for (int i = 0; i < bookPlan.length; i++) {
+            int source = bookPlan[i];
+            if (source >= 0) {
+                newBookIds[i] = bookIds[source];
+                newBookSerials[i] = bookSerials[source];
+                newBookStatuses[i] = bookStatuses[source];
+                newBookInfoRefs[i] = bookInfoRefs[source];
+            } else {
+                LibraryBookChangeDTO change = bookChanges[~source];
+                newBookIds[i] = change.getId();
+                newBookSerials[i] = change.getSerialNumber();
+                newBookStatuses[i] = (byte) BookStatus.valueOf(change.getStatus()).ordinal();
+                newBookInfoRefs[i] = change.getBookInfoId();
+            }
+        }
+
+        return new CatalogSnapshot(newCursor, newPendingVersions,
+                newCategoryIds, newCategoryNames, newCategoryParents,
+                newBookInfoIds, newBookInfoTitles, newBookInfoAuthors, newBookInfoCategories,
+                newBookIds, newBookSerials, newBookStatuses, newBookInfoRefs,
+                categoriesChanged ? new CategoryViews() : categoryViews);
+    }
+
+    // Тот же снимок с другим курсором: массивы общие, копирование не нужно
+    CatalogSnapshot withCursor(long newCursor, long[] newPendingVersions) {
+        return new CatalogSnapshot(newCursor, newPendingVersions,
+                categoryIds, categoryNames, categoryParents,
+                bookInfoIds, bookInfoTitles, bookInfoAuthors, bookInfoCategories,
+                bookIds, bookSerials, bookStatuses, bookInfoRefs, categoryViews);
+    }
+
+    private CategoryViews categoryViews() {
+        CategoryViews views = categoryViews;
+        if (views.all == null) {
+            synchronized (views) {
+                if (views.all == null) {
+                    views.build(this);
+                }
+            }
+        }
+        return views;
+    }
+
+    /**
+     * План слияния упорядоченных ID старого снимка с упорядоченными ID изменений.
+     * Элемент плана ≥ 0 — позиция строки в старых массивах, отрицательный (~j) — изменение j;
+     * удалённые строки в план не попадают.
+     */
+    static int[] mergePlan(long[] oldIds, long[] changedIds, boolean[] removed) {
+        int[] plan = new int[oldIds.length + changedIds.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < oldIds.length || j < changedIds.length) {
+            if (j == changedIds.length || (i < oldIds.length && oldIds[i] < changedIds[j])) {
+                plan[size++] = i++;
+            } else {
+                if (i < oldIds.length && oldIds[i] == changedIds[j]) {
+                    i++;
+                }
+                if (!removed[j]) {
+                    plan[size++] = ~j;
+                }
+                j++;
+            }
+        }
+        return size == plan.length ? plan : Arrays.copyOf(plan, size);
+    }
+
+    // Изменения, упорядоченные по ID, по одному на строку — с наибольшей версией
+    private static <T> T[] latestById(T[] changes, ToLongFunction<T> id,
+                                      ToLongFunction<T> version) {
+        if (changes.length < 2) {
+            return changes;
+        }
+        Arrays.sort(changes, Comparator.comparingLong(id).thenComparingLong(version));
+        int size = 0;
+        for (int i = 0; i < changes.length; i++) {
+            if (i + 1 < changes.length && id.applyAsLong(changes[i + 1]) == id.applyAsLong(changes[i])) {
+                continue;
+            }
+            changes[size++] = changes[i];
+        }
+        return size == changes.length ? changes : Arrays.copyOf(changes, size);
+    }
+
+    /**
+     * Представления категорий снимка. Родитель строится раньше потомка;
+     * цикл в данных обрывается на категории, которая уже строится выше по цепочке.
+     */
+    private static final class CategoryViews {
+        private CategoryDetailsDTO[] byIndex;
+        private List<List<CategoryDetailsDTO>> childrenByIndex;
+        // Публикуется последним, после остальных полей
+        private volatile List<CategoryDetailsDTO> all;
+
+        private void build(CatalogSnapshot snapshot) {
+            int count = snapshot.categoryCount();
+            byIndex = new CategoryDetailsDTO[count];
+            int[] parentIndexes = new int[count];
+            for (int i = 0; i < count; i++) {
+                parentIndexes[i] = snapshot.indexOfCategory(snapshot.categoryParents[i]);
+            }
+
+            // Цепочка ещё не построенных предков собирается снизу вверх и строится сверху вниз
+            boolean[] inChain = new boolean[count];
+            int[] chain = new int[count];
+            for (int i = 0; i < count; i++) {
+                int depth = 0;
+                int current = i;
+                while (current >= 0 && byIndex[current] == null && !inChain[current]) {
+                    inChain[current] = true;
+                    chain[depth++] = current;
+                    current = parentIndexes[current];
+                }
+                CategoryDetailsDTO parent = current >= 0 ? byIndex[current] : null;
+                for (int d = depth - 1; d >= 0; d--) {
+                    int index = chain[d];
+                    byIndex[index] = new CategoryDetailsDTO(snapshot.categoryIds[index], snapshot.categoryNames[index], parent);
+                    inChain[index] = false;
+                    parent = byIndex[index];
+                }
+            }
+
+            List<List<CategoryDetailsDTO>> children = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                children.add(new ArrayList<>());
+            }
+            for (int i = 0; i < count; i++) {
+                if (parentIndexes[i] >= 0) {
+                    children.get(parentIndexes[i]).add(byIndex[i]);
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                List<CategoryDetailsDTO> list = children.get(i);
+                children.set(i, list.isEmpty() ? List.of() : List.copyOf(list));
+            }
+            childrenByIndex = children;
+            all = List.of(byIndex);
+        }
+    }
+}
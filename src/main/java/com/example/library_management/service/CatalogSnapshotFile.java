@@ -0,0 +1,245 @@
+package com.example.library_management.service;
+
+import com.example.library_management.model.LibraryBook.BookStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Двоичный файл снимка каталога для быстрого прогрева после перезапуска.
+ * Формат: заголовок (сигнатура, версия формата, таблица названий статусов экземпляров), курсор
+ * и применённые неустоявшиеся версии, затем столбцы категорий, информации о книгах и экземпляров;
+ * в конце CRC32 всего содержимого. Статусы хранятся номерами в таблице файла и при чтении
+ * сопоставляются с текущим перечислением по названию, поэтому изменение порядка статусов между
+ * версиями приложения не искажает снимок, а неизвестный статус делает файл непригодным.
+ * Файл записывается во временный и атомарно переименовывается, читается через отображение в память.
+ * Повреждённый или несовместимый файл игнорируется: снимок загружается из БД целиком.
+ */
+@Slf4j
+@Component
+public class CatalogSnapshotFile {
+
+    private static final int MAGIC = 0x43415453;
+    private static final int FORMAT_VERSION = 2;
+
+    private static final String[] STATUS_NAMES = Arrays.stream(BookStatus.values()).map(Enum::name).toArray(String[]::new);
+
+    // null — сохранение снимка отключено
+    private final Path path;
+
+    @Autowired
+    public CatalogSnapshotFile(@Value("${app.catalog.snapshot-file:catalog.snapshot}") String path) {
+        this(path.isBlank() ? null : Path.of(path));
+    }
+
+    CatalogSnapshotFile(Path path) {
+        this.path = path;
+    }
+
+    public boolean isEnabled() {
+        return path != null;
+    }
+
+    public void write(CatalogSnapshot snapshot) throws IOException {
+        if (path == null) {
+            return;
+        }
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            CRC32 crc = new CRC32();
+            try (OutputStream file = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), crc))) {
+                writeBody(out, snapshot);
+                out.flush();
+                // Контрольная сумма пишется мимо CheckedOutputStream, чтобы не учитывать саму себя
+                file.write(ByteBuffer.allocate(Long.BYTES).putLong(crc.getValue()).array());
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public Optional<CatalogSnapshot> read() {
+        if (path == null || !Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < Integer.BYTES * 2 + Long.BYTES || size > Integer.MAX_VALUE) {
+                log.warn("Файл снимка каталога {} имеет недопустимый размер {}", path, size);
+                return Optional.empty();
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int bodyLength = (int) size - Long.BYTES;
+
+            CRC32 crc = new CRC32();
+            crc.update(mapped.slice(0, bodyLength));
+            if (crc.getValue() != mapped.getLong(bodyLength)) {
+                log.warn("Файл снимка каталога {} повреждён: не совпала контрольная сумма", path);
+                return Optional.empty();
+            }
+
+            ByteBuffer body = mapped.slice(0, bodyLength);
+            if (body.getInt() != MAGIC || body.getInt() != FORMAT_VERSION) {
+                log.warn("Файл снимка каталога {} имеет неизвестный формат", path);
+                return Optional.empty();
+            }
+            return Optional.of(readBody(body));
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            log.warn("Не удалось прочитать файл снимка каталога {}: {}", path, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static void writeBody(DataOutputStream out, CatalogSnapshot snapshot) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        writeStrings(out, STATUS_NAMES);
+        out.writeLong(snapshot.cursor);
+        writeLongs(out, snapshot.pendingVersions);
+
+        writeLongs(out, snapshot.categoryIds);
+        writeStrings(out, snapshot.categoryNames);
+        writeLongs(out, snapshot.categoryParents);
+
+        writeLongs(out, snapshot.bookInfoIds);
+        writeStrings(out, snapshot.bookInfoTitles);
+        writeStrings(out, snapshot.bookInfoAuthors);
+        writeLongs(out, snapshot.bookInfoCategories);
+
+        writeLongs(out, snapshot.bookIds);
+        writeLongs(out, snapshot.bookSerials);
+        out.writeInt(snapshot.bookStatuses.length);
+        out.write(snapshot.bookStatuses);
+        writeLongs(out, snapshot.bookInfoRefs);
+    }
+
+    private static CatalogSnapshot readBody(ByteBuffer in) {
+        byte[] statusMapping = readStatusMapping(in);
+        long cursor = in.getLong();
+        long[] pendingVersions = readLongs(in);
+
+        long[] categoryIds = readLongs(in);
+        String[] categoryNames = readStrings(in);
+        long[] categoryParents = readLongs(in);
+
+        long[] bookInfoIds = readLongs(in);
+        String[] bookInfoTitles = readStrings(in);
+        String[] bookInfoAuthors = readStrings(in);
+        long[] bookInfoCategories = readLongs(in);
+
+        long[] bookIds = readLongs(in);
+        long[] bookSerials = readLongs(in);
+        byte[] bookStatuses = new byte[readLength(in, 1)];
+        in.get(bookStatuses);
+        for (int i = 0; i < bookStatuses.length; i++) {
+            int fileStatus = bookStatuses[i];
+            if (fileStatus < 0 || fileStatus >= statusMapping.length) {
+                throw new IllegalArgumentException("некорректный статус экземпляра " + fileStatus);
+            }
+            bookStatuses[i] = statusMapping[fileStatus];
+        }
+        long[] bookInfoRefs = readLongs(in);
+
+        if (categoryNames.length != categoryIds.length || categoryParents.length != categoryIds.length
+                || bookInfoTitles.length != bookInfoIds.length || bookInfoAuthors.length != bookInfoIds.length
+                || bookInfoCategories.length != bookInfoIds.length || bookSerials.length != bookIds.length
+                || bookStatuses.length != bookIds.length || bookInfoRefs.length != bookIds.length) {
+            throw new IllegalArgumentException("длины столбцов снимка не совпадают");
+        }
+        return new CatalogSnapshot(cursor, pendingVersions,
+                categoryIds, categoryNames, categoryParents,
+                bookInfoIds, bookInfoTitles, bookInfoAuthors, bookInfoCategories,
+                bookIds, bookSerials, bookStatuses, bookInfoRefs);
+    }
+
+    // Номер статуса в файле -> номер того же статуса в текущем перечислении
+    private static byte[] readStatusMapping(ByteBuffer in) {
+        String[] names = readStrings(in);
+        byte[] mapping = new byte[names.length];
+        for (int i = 0; i < names.length; i++) {
+            if (names[i] == null) {
+                throw new IllegalArgumentException("пустое название статуса экземпляра");
+            }
+            // valueOf бросает IllegalArgumentException для статуса, которого больше нет
+            mapping[i] = (byte) BookStatus.valueOf(names[i]).ordinal();
+        }
+        return mapping;
+    }
+
+    private static void writeLongs(DataOutputStream out, long[] values) throws IOException {
+        out.writeInt(values.length);
+        for (long value : values) {
+            out.writeLong(value);
+        }
+    }
+
+    // Длина -1 кодирует null
+    private static void writeStrings(DataOutputStream out, String[] values) throws IOException {
+        out.writeInt(values.length);
+        for (String value : values) {
+            if (value == null) {
+                out.writeInt(-1);
+            } else {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static long[] readLongs(ByteBuffer in) {
+        long[] values = new long[readLength(in, Long.BYTES)];
+        in.asLongBuffer().get(values);
+        in.position(in.position() + values.length * Long.BYTES);
+        return values;
+    }
+
+    private static String[] readStrings(ByteBuffer in) {
+        String[] values = new String[readLength(in, Integer.BYTES)];
+        for (int i = 0; i < values.length; i++) {
+            int length = in.getInt();
+            if (length < 0) {
+                continue;
+            }
+            if (length > in.remaining()) {
+                throw new IllegalArgumentException("строка выходит за границы файла");
+            }
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            values[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return values;
+    }
+
+    // Длина массива с проверкой, что элементы минимального размера помещаются в остаток файла
+    private static int readLength(ByteBuffer in, int minElementBytes) {
+        int length = in.getInt();
+        if (length < 0 || (long) length * minElementBytes > in.remaining()) {
+            throw new IllegalArgumentException("некорректная длина массива " + length);
+        }
+        return length;
+    }
+}
@@ -0,0 +1,308 @@
+package com.example.library_management.service;
+
+import com.example.library_management.dto.BookInfoChangeDTO;
+import com.example.library_management.dto.CatalogSyncDTO;
+import com.example.library_management.dto.CategoryChangeDTO;
+import com.example.library_management.dto.CategoryDetailsDTO;
+import com.example.library_management.dto.LibraryBookChangeDTO;
+import com.example.library_management.dto.LibraryBookDTO;
+import com.example.library_management.event.BookStatusChangedEvent;
+import com.example.library_management.resilience.CircuitBreaker;
+import com.example.library_management.resilience.StaleResponses;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Снимок каталога в памяти для чтения списков и поиска по ID без обращения к БД.
+ * Снимок обновляется по ленте изменений каталога: после коммита изменений и периодически.
+ * Новый снимок собирается из старого и дельты и публикуется заменой ссылки, читатели
+ * не блокируются и всегда видят согласованный снимок целиком.
+ * Изменения применяются сразу, а курсор продвигается только по устоявшимся версиям, поэтому
+ * транзакция, зафиксированная позже транзакции с большей версией, не теряется.
+ * Снимок периодически и при остановке сохраняется в файл; при старте он читается из файла
+ * и догоняет БД по ленте изменений с сохранённого курсора вместо полной загрузки.
+ * Пока автомат защиты БД разомкнут, снимок продолжает обслуживать чтение, а ответ помечается
+ * заголовком Age со временем с последнего успешного обновления.
+ */
+@Slf4j
+@Service
+public class CatalogSnapshotService {
+
+    // Порция ленты изменений за один запрос к каждому источнику
+    private static final int REFRESH_CHUNK_SIZE = 10_000;
+
+    private final CatalogSyncService catalogSyncService;
+    private final CatalogSnapshotFile snapshotFile;
+    private final CircuitBreaker databaseBreaker;
+    private final Executor refresher;
+    private final ExecutorService ownedRefresher;
+
+    private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>(CatalogSnapshot.EMPTY);
+    private final AtomicBoolean refreshRequested = new AtomicBoolean();
+    private volatile boolean ready;
+    private volatile long refreshedAt;
+
+    // Последний записанный в файл снимок; неизменившийся снимок повторно не сохраняется
+    private final Object saveLock = new Object();
+    private CatalogSnapshot lastSaved;
+
+    @Autowired
+    public CatalogSnapshotService(CatalogSyncService catalogSyncService, CatalogSnapshotFile snapshotFile,
+                                  CircuitBreaker databaseBreaker) {
+        this(catalogSyncService, snapshotFile, databaseBreaker, newRefresher());
+    }
+
+    CatalogSnapshotService(CatalogSyncService catalogSyncService, CatalogSnapshotFile snapshotFile,
+                           CircuitBreaker databaseBreaker, Executor refresher) {
+        this.catalogSyncService = catalogSyncService;
+        this.snapshotFile = snapshotFile;
+        this.databaseBreaker = databaseBreaker;
+        this.refresher = refresher;
+        this.ownedRefresher = refresher instanceof ExecutorService executorService ? executorService : null;
+    }
+
+    // Пока снимок не загружен, вызывающий код обращается к БД
+    public boolean isReady() {
+        return ready;
+    }
+
+    public CatalogSnapshot current() {
+        markIfStale();
+        return snapshot.get();
+    }
+
+    // Экземпляры без удалённых, по возрастанию ID
+    public List<LibraryBookDTO> getAllBooks() {
+        CatalogSnapshot current = current();
+        List<LibraryBookDTO> books = new ArrayList<>(current.bookCount());
+        for (int i = 0; i < current.bookCount(); i++) {
+            if (!current.isBookDeleted(i)) {
+                books.add(current.book(i));
+            }
+        }
+        return books;
+    }
+
+    public Optional<LibraryBookDTO> findBook(long id) {
+        CatalogSnapshot current = current();
+        int index = current.indexOfBook(id);
+        return index < 0 ? Optional.empty() : Optional.of(current.book(index));
+    }
+
+    // Категории с цепочками родителей; представления строятся один раз на снимок и общие для всех читателей
+    public List<CategoryDetailsDTO> getAllCategories() {
+        return current().categoryDetails();
+    }
+
+    public Optional<CategoryDetailsDTO> findCategory(long id) {
+        CatalogSnapshot current = current();
+        int index = current.indexOfCategory(id);
+        return index < 0 ? Optional.empty() : Optional.of(current.categoryDetails(index));
+    }
+
+    public List<CategoryDetailsDTO> getSubcategories(long parentId) {
+        CatalogSnapshot current = current();
+        int parentIndex = current.indexOfCategory(parentId);
+        return parentIndex < 0 ? List.of() : current.subcategoryDetails(parentIndex);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Optional<CatalogSnapshot> saved = restore();
+        saved.ifPresent(snapshot::set);
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // Снимок из файла лучше, чем обращения к недоступной БД; он догонит её при следующем обновлении
+            if (saved.isEmpty()) {
+                throw e;
+            }
+            log.warn("Снимок каталога из файла не удалось обновить при старте: {}", e.getMessage());
+        }
+        ready = true;
+        CatalogSnapshot current = snapshot.get();
+        log.info("Снимок каталога загружен{}: {} категорий, {} книг, {} экземпляров, версия {}",
+                saved.isPresent() ? " из файла с версии " + saved.get().cursor : "",
+                current.categoryCount(), current.bookInfoCount(), current.bookCount(), current.cursor);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookStatusChanged(BookStatusChangedEvent event) {
+        requestRefresh();
+    }
+
+    // Обновить снимок в фоне; запросы, пришедшие до начала обновления, объединяются в одно
+    public void requestRefresh() {
+        if (ready && refreshRequested.compareAndSet(false, true)) {
+            refresher.execute(() -> {
+                refreshRequested.set(false);
+                refreshSafely();
+            });
+        }
+    }
+
+    // Подбирает изменения, не вызвавшие requestRefresh, и продвигает курсор по устоявшимся версиям
+    @Scheduled(fixedDelayString = "${app.catalog.refresh-interval-ms:1000}",
+            initialDelayString = "${app.catalog.refresh-interval-ms:1000}")
+    public void scheduledRefresh() {
+        if (ready) {
+            refreshSafely();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalog.snapshot-save-interval-ms:300000}",
+            initialDelayString = "${app.catalog.snapshot-save-interval-ms:300000}")
+    public void save() {
+        if (!ready || !snapshotFile.isEnabled()) {
+            return;
+        }
+        synchronized (saveLock) {
+            CatalogSnapshot current = snapshot.get();
+            if (current == lastSaved) {
+                return;
+            }
+            try {
+                snapshotFile.write(current);
+                lastSaved = current;
+                log.info("Снимок каталога версии {} сохранён в файл", current.cursor);
+            } catch (IOException e) {
+                log.error("Не удалось сохранить снимок каталога в файл", e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (ownedRefresher != null) {
+            ownedRefresher.shutdownNow();
+        }
+        save();
+    }
+
+    // Единственный писатель снимка; читатели в это время продолжают работать со старым
+    synchronized void refresh() {
+        CatalogSnapshot current = snapshot.get();
+        CatalogSyncDTO page;
+        do {
+            page = catalogSyncService.collectChanges(current.cursor, REFRESH_CHUNK_SIZE);
+            current = applyPage(current, page);
+            snapshot.set(current);
+        } while (page.isHasMore());
+        refreshedAt = System.currentTimeMillis();
+    }
+
+    // Снимок из файла, если он не новее БД: иначе БД восстановлена из копии и снимок нельзя догнать по ленте
+    private Optional<CatalogSnapshot> restore() {
+        Optional<CatalogSnapshot> saved = snapshotFile.read();
+        if (saved.isEmpty()) {
+            return saved;
+        }
+        CatalogSnapshot restored = saved.get();
+        long savedVersion = restored.pendingVersions.length == 0
+                ? restored.cursor
+                : Math.max(restored.cursor, restored.pendingVersions[restored.pendingVersions.length - 1]);
+        long currentVersion = catalogSyncService.getCurrentVersion();
+        if (savedVersion > currentVersion) {
+            log.warn("Снимок каталога в файле (версия {}) новее БД (версия {}) и будет загружен заново",
+                    savedVersion, currentVersion);
+            return Optional.empty();
+        }
+        lastSaved = restored;
+        return saved;
+    }
+
+    private void refreshSafely() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            if (databaseBreaker.isClosed()) {
+                log.error("Ошибка обновления снимка каталога", e);
+            } else {
+                log.debug("Снимок каталога не обновлён: БД недоступна");
+            }
+        }
+    }
+
+    /**
+     * Применяет порцию ленты. Изменения, уже применённые в прошлый раз, но ещё не устоявшиеся,
+     * пропускаются, чтобы долгая транзакция в БД не приводила к пересборке массивов на каждом обновлении.
+     */
+    static CatalogSnapshot applyPage(CatalogSnapshot current, CatalogSyncDTO page) {
+        long nextCursor = page.getNextSince();
+        List<CategoryChangeDTO> categories = new ArrayList<>();
+        List<BookInfoChangeDTO> bookInfos = new ArrayList<>();
+        List<LibraryBookChangeDTO> books = new ArrayList<>();
+        long[] pending = new long[page.getCategories().size() + page.getBookInfos().size() + page.getBooks().size()];
+        int pendingCount = 0;
+
+        for (CategoryChangeDTO change : page.getCategories()) {
+            if (isNew(current, change.getVersion())) {
+                categories.add(change);
+            }
+            if (change.getVersion() > nextCursor) {
+                pending[pendingCount++] = change.getVersion();
+            }
+        }
+        for (BookInfoChangeDTO change : page.getBookInfos()) {
+            if (isNew(current, change.getVersion())) {
+                bookInfos.add(change);
+            }
+            if (change.getVersion() > nextCursor) {
+                pending[pendingCount++] = change.getVersion();
+            }
+        }
+        for (LibraryBookChangeDTO change : page.getBooks()) {
+            if (isNew(current, change.getVersion())) {
+                books.add(change);
+            }
+            if (change.getVersion() > nextCursor) {
+                pending[pendingCount++] = change.getVersion();
+            }
+        }
+
+        long[] pendingVersions = Arrays.copyOf(pending, pendingCount);
+        Arrays.sort(pendingVersions);
+        if (categories.isEmpty() && bookInfos.isEmpty() && books.isEmpty()) {
+            return nextCursor == current.cursor && Arrays.equals(pendingVersions, current.pendingVersions)
+                    ? current
+                    : current.withCursor(nextCursor, pendingVersions);
+        }
+        return current.apply(categories, bookInfos, books, nextCursor, pendingVersions);
+    }
+
+    private void markIfStale() {
+        if (!databaseBreaker.isClosed()) {
+            StaleResponses.markStale(System.currentTimeMillis() - refreshedAt);
+        }
+    }
+
+    private static boolean isNew(CatalogSnapshot current, long version) {
+        return version > current.cursor && Arrays.binarySearch(current.pendingVersions, version) < 0;
+    }
+
+    private static ExecutorService newRefresher() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-snapshot-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
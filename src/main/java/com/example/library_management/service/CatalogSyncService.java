@@ -0,0 +1,84 @@
+package com.example.library_management.service;
+
+import com.example.library_management.dao.CatalogChangeDAO;
+import com.example.library_management.dao.CatalogChangeDAO.Change;
+import com.example.library_management.dto.BookInfoChangeDTO;
+import com.example.library_management.dto.CatalogSyncDTO;
+import com.example.library_management.dto.CategoryChangeDTO;
+import com.example.library_management.dto.LibraryBookChangeDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Лента изменений каталога для синхронизации клиентов.
+ * Версии выдаются последовательностью в момент записи, а транзакции фиксируются в произвольном порядке,
+ * поэтому nextSince продвигается только по «устоявшимся» изменениям: тем, ниже горизонта которых
+ * в БД не осталось незавершённых транзакций (см. {@link CatalogChangeDAO}).
+ * Более свежие изменения тоже отдаются, но повторятся в следующем ответе — клиент применяет их идемпотентно.
+ */
+@Service
+public class CatalogSyncService {
+
+    public static final int MAX_LIMIT = 1000;
+
+    private final CatalogChangeDAO catalogChangeDAO;
+
+    @Autowired
+    public CatalogSyncService(CatalogChangeDAO catalogChangeDAO) {
+        this.catalogChangeDAO = catalogChangeDAO;
+    }
+
+    @Transactional(readOnly = true)
+    public CatalogSyncDTO getChanges(long since, int limit) {
+        if (since < 0) {
+            throw new IllegalArgumentException("Версия since не может быть отрицательной");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Размер выборки должен быть от 1 до " + MAX_LIMIT);
+        }
+        return collectChanges(since, limit);
+    }
+
+    long getCurrentVersion() {
+        return catalogChangeDAO.findCurrentVersion();
+    }
+
+    // Без ограничения размера выборки; используется снимком каталога
+    CatalogSyncDTO collectChanges(long since, int limit) {
+        // Из каждого источника берётся не больше limit изменений, после слияния по версии отсекается общий limit.
+        // Все источники и флаги settled читаются одним запросом, в одном снимке БД
+        List<Change<?>> merged = catalogChangeDAO.findChanges(since, limit);
+
+        boolean truncated = merged.size() > limit;
+        List<Change<?>> page = truncated ? merged.subList(0, limit) : merged;
+
+        List<CategoryChangeDTO> categories = new ArrayList<>();
+        List<BookInfoChangeDTO> bookInfos = new ArrayList<>();
+        List<LibraryBookChangeDTO> books = new ArrayList<>();
+        long nextSince = since;
+        boolean settledPrefix = true;
+        for (Change<?> change : page) {
+            if (settledPrefix && change.settled()) {
+                nextSince = change.version();
+            } else {
+                settledPrefix = false;
+            }
+            Object item = change.item();
+            if (item instanceof CategoryChangeDTO category) {
+                categories.add(category);
+            } else if (item instanceof BookInfoChangeDTO bookInfo) {
+                bookInfos.add(bookInfo);
+            } else if (item instanceof LibraryBookChangeDTO book) {
+                books.add(book);
+            }
+        }
+
+        // Если в выборке есть неустоявшиеся изменения, клиенту стоит подождать, а не запрашивать сразу
+        boolean hasMore = truncated && settledPrefix;
+        return new CatalogSyncDTO(categories, bookInfos, books, nextSince, hasMore);
+    }
+}
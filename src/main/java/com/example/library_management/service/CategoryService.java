@@ -1,36 +1,77 @@
 package com.example.library_management.service;
 
 import com.example.library_management.dao.BookInfoDAO;
+import com.example.library_management.dao.CategoryClosureDAO;
 import com.example.library_management.dao.CategoryDAO;
+import com.example.library_management.dto.BookInfoDTO;
 import com.example.library_management.dto.CategoryDTO;
+import com.example.library_management.dto.CategoryDetailsDTO;
+import com.example.library_management.dto.CategoryTreeNodeDTO;
+import com.example.library_management.dto.KeysetPageDTO;
 import com.example.library_management.model.Category;
+import com.example.library_management.resilience.CircuitBreaker;
+import com.example.library_management.resilience.StaleResponses;
+import com.example.library_management.util.TransactionCallbacks;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @Service
 public class CategoryService {
+    public static final int MAX_PAGE_SIZE = 500;
+
     private final CategoryDAO categoryDAO;
     private final BookInfoDAO bookInfoDAO;
+    private final CategoryClosureDAO categoryClosureDAO;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final CircuitBreaker databaseBreaker;
+
+    // Неизменяемый снимок дерева категорий; поколение растёт после каждого коммита изменения категорий
+    private final AtomicLong treeGeneration = new AtomicLong();
+    private volatile TreeSnapshot treeSnapshot;
+
+    private record TreeSnapshot(long generation, List<CategoryTreeNodeDTO> roots, long builtAt) {
+    }
 
-    public CategoryService(CategoryDAO categoryDAO, BookInfoDAO bookInfoDAO) {
+    public CategoryService(CategoryDAO categoryDAO, BookInfoDAO bookInfoDAO, CategoryClosureDAO categoryClosureDAO,
+                           CatalogSnapshotService catalogSnapshotService, CircuitBreaker databaseBreaker) {
         this.categoryDAO = categoryDAO;
         this.bookInfoDAO = bookInfoDAO;
+        this.categoryClosureDAO = categoryClosureDAO;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.databaseBreaker = databaseBreaker;
     }
 
-    public List<Category> getAllCategories() {
-        List<Category> categories = categoryDAO.findAll();
+    @Transactional(readOnly = true)
+    public List<CategoryDetailsDTO> getAllCategories() {
+        List<CategoryDetailsDTO> categories = catalogSnapshotService.isReady()
+                ? catalogSnapshotService.getAllCategories()
+                : toDetails(categoryDAO.findAll());
         log.info("Получено {} категорий", categories.size());
         return categories;
     }
 
-    public Category getCategoryById(Long id) {
-        Category category = categoryDAO.findById(id)
+    // Категория, которой ещё нет в снимке (только что создана), читается из БД
+    @Transactional(readOnly = true)
+    public CategoryDetailsDTO getCategoryById(Long id) {
+        Optional<CategoryDetailsDTO> cached = catalogSnapshotService.isReady()
+                ? catalogSnapshotService.findCategory(id)
+                : Optional.empty();
+        CategoryDetailsDTO category = cached.or(() -> categoryDAO.findById(id).map(CategoryService::toDetails))
                 .orElseThrow(() -> {
                     log.error("Категория с ID {} не найдена", id);
                     throw new EntityNotFoundException("Категория с ID " + id + " не найдена");
@@ -39,12 +80,65 @@ public class CategoryService {
         return category;
     }
 
-    public List<Category> getSubcategories(Long parentId) {
-        List<Category> subcategories = categoryDAO.findByParentId(parentId);
+    @Transactional(readOnly = true)
+    public List<CategoryDetailsDTO> getSubcategories(Long parentId) {
+        List<CategoryDetailsDTO> subcategories = catalogSnapshotService.isReady()
+                ? catalogSnapshotService.getSubcategories(parentId)
+                : toDetails(categoryDAO.findByParentId(parentId));
         log.info("Получено {} подкатегорий для родительской категории с ID {}", subcategories.size(), parentId);
         return subcategories;
     }
 
+    // Всё дерево категорий; строится одним запросом и отдаётся из снимка до следующего изменения
+    @Transactional(readOnly = true)
+    public List<CategoryTreeNodeDTO> getCategoryTree() {
+        long generation = treeGeneration.get();
+        TreeSnapshot snapshot = treeSnapshot;
+        if (snapshot != null && snapshot.generation() == generation) {
+            return snapshot.roots();
+        }
+        // Пока БД недоступна, устаревшее дерево лучше ошибки
+        if (snapshot != null && !databaseBreaker.isClosed()) {
+            StaleResponses.markStale(System.currentTimeMillis() - snapshot.builtAt());
+            return snapshot.roots();
+        }
+
+        List<CategoryTreeNodeDTO> roots = buildTree(categoryDAO.findAllFlat());
+        // Если за время построения дерево изменилось, снимок не сохраняется: он мог прочитать старые данные
+        if (treeGeneration.get() == generation) {
+            treeSnapshot = new TreeSnapshot(generation, roots, System.currentTimeMillis());
+        }
+        log.info("Дерево категорий построено: {} корневых категорий", roots.size());
+        return roots;
+    }
+
+    // Категория со всеми потомками любой глубины
+    @Transactional(readOnly = true)
+    public List<CategoryDTO> getSubtree(Long id) {
+        getCategoryById(id);
+        return categoryClosureDAO.findSubtree(id);
+    }
+
+    // Предки категории от корня до непосредственного родителя
+    @Transactional(readOnly = true)
+    public List<CategoryDTO> getAncestors(Long id) {
+        getCategoryById(id);
+        return categoryClosureDAO.findAncestors(id);
+    }
+
+    // Книги категории вместе с подкатегориями, постранично по ID книги
+    @Transactional(readOnly = true)
+    public KeysetPageDTO<BookInfoDTO> getBooksInSubtree(Long id, Long afterId, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+        getCategoryById(id);
+
+        List<BookInfoDTO> books = categoryClosureDAO.findBooksInSubtree(id, afterId == null ? 0L : afterId, size);
+        Long nextAfterId = books.size() < size ? null : books.get(books.size() - 1).getId();
+        return new KeysetPageDTO<>(books, nextAfterId);
+    }
+
     @Transactional
     public void createCategory(Category category) {
         Optional<Category> existing = categoryDAO.findByName(category.getName());
@@ -60,14 +154,22 @@ public class CategoryService {
             category.setParent(parent);
         }
 
+        categoryClosureDAO.lockTree();
         categoryDAO.save(category);
+        categoryClosureDAO.insertNode(category.getId(), category.getParent() == null ? null : category.getParent().getId());
+        refreshAfterCommit();
         log.info("Категория '{}' успешно создана", category.getName());
     }
 
     @Transactional
     public void updateCategory(CategoryDTO dto) {
+        // Блокировка берётся до чтения: UPDATE пишет parent_id целиком, и переименование по устаревшему
+        // родителю откатило бы параллельный перенос в categories, но не в таблице замыкания
+        categoryClosureDAO.lockTree();
         Category existing = categoryDAO.findById(dto.getId())
                 .orElseThrow(() -> new EntityNotFoundException("Категория не найдена"));
+        Long oldParentId = existing.getParent() == null ? null : existing.getParent().getId();
+        boolean parentChanged = !Objects.equals(oldParentId, dto.getParentId());
 
         existing.setName(dto.getName());
 
@@ -77,12 +179,20 @@ public class CategoryService {
             }
             Category parent = categoryDAO.findById(dto.getParentId())
                     .orElseThrow(() -> new EntityNotFoundException("Родительская категория не найдена"));
+            // Новый родитель не должен лежать в поддереве переносимой категории
+            if (parentChanged && categoryClosureDAO.isSelfOrDescendant(dto.getId(), dto.getParentId())) {
+                throw new IllegalArgumentException("Категория не может стать подкатегорией своего потомка");
+            }
             existing.setParent(parent);
         } else {
             existing.setParent(null);
         }
 
         categoryDAO.update(existing);
+        if (parentChanged) {
+            categoryClosureDAO.moveSubtree(dto.getId(), dto.getParentId());
+        }
+        refreshAfterCommit();
         log.info("Категория с ID {} успешно обновлена", dto.getId());
     }
 
@@ -102,6 +212,75 @@ public class CategoryService {
         }
 
         categoryDAO.delete(category);
+        refreshAfterCommit();
         log.info("Категория с ID {} удалена", id);
     }
-}
\ No newline at end of file
+
+    // Сбросить дерево и обновить снимок каталога, когда изменение станет видно другим транзакциям
+    private void refreshAfterCommit() {
+        TransactionCallbacks.afterCommit(treeGeneration::incrementAndGet);
+        TransactionCallbacks.afterCommit(catalogSnapshotService::requestRefresh);
+    }
+
+    // Сборка дерева из плоского списка за O(n) без рекурсии: дети группируются по родителю,
+    // обход от корней с явным стеком даёт порядок, в обратном порядке каждый узел собирается после своих детей
+    private static List<CategoryTreeNodeDTO> buildTree(List<CategoryDTO> categories) {
+        Map<Long, List<CategoryDTO>> childrenByParent = new HashMap<>();
+        Map<Long, CategoryDTO> byId = new HashMap<>(categories.size() * 2);
+        for (CategoryDTO category : categories) {
+            byId.put(category.getId(), category);
+        }
+        List<CategoryDTO> rootCategories = new ArrayList<>();
+        for (CategoryDTO category : categories) {
+            if (category.getParentId() == null || !byId.containsKey(category.getParentId())) {
+                rootCategories.add(category);
+            } else {
+                childrenByParent.computeIfAbsent(category.getParentId(), parentId -> new ArrayList<>()).add(category);
+            }
+        }
+
+        List<CategoryDTO> order = new ArrayList<>(categories.size());
+        Deque<CategoryDTO> stack = new ArrayDeque<>(rootCategories);
+        while (!stack.isEmpty()) {
+            CategoryDTO category = stack.pop();
+            order.add(category);
+            childrenByParent.getOrDefault(category.getId(), List.of()).forEach(stack::push);
+        }
+
+        Map<Long, CategoryTreeNodeDTO> built = new HashMap<>(order.size() * 2);
+        for (int i = order.size() - 1; i >= 0; i--) {
+            CategoryDTO category = order.get(i);
+            List<CategoryDTO> children = childrenByParent.getOrDefault(category.getId(), List.of());
+            List<CategoryTreeNodeDTO> childNodes = new ArrayList<>(children.size());
+            for (CategoryDTO child : children) {
+                childNodes.add(built.remove(child.getId()));
+            }
+            built.put(category.getId(), new CategoryTreeNodeDTO(category.getId(), category.getName(), List.copyOf(childNodes)));
+        }
+
+        List<CategoryTreeNodeDTO> roots = new ArrayList<>(rootCategories.size());
+        for (CategoryDTO root : rootCategories) {
+            roots.add(built.get(root.getId()));
+        }
+        return List.copyOf(roots);
+    }
+
+    // Чтение из БД, пока снимок каталога не загружен: родители подгружаются по цепочке
+    private static List<CategoryDetailsDTO> toDetails(List<Category> categories) {
+        return categories.stream().map(CategoryService::toDetails).toList();
+    }
+
+    // Цепочка собирается снизу вверх и строится от корня; повтор категории в цепочке обрывает её
+    private static CategoryDetailsDTO toDetails(Category category) {
+        List<Category> chain = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (Category current = category; current != null && seen.add(current.getId()); current = current.getParent()) {
+            chain.add(current);
+        }
+        CategoryDetailsDTO details = null;
+        for (int i = chain.size() - 1; i >= 0; i--) {
+            details = new CategoryDetailsDTO(chain.get(i).getId(), chain.get(i).getName(), details);
+        }
+        return details;
+    }
+}
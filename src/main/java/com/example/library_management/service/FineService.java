@@ -0,0 +1,126 @@
+package com.example.library_management.service;
+
+import com.example.library_management.dao.FineLedgerDAO;
+import com.example.library_management.dto.FineEntryDTO;
+import com.example.library_management.dto.FineSummaryDTO;
+import com.example.library_management.exception.FineAccrualException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Начисление ежедневных штрафов за просроченные аренды.
+ * Просроченные аренды делятся на диапазоны ID по индексу, каждый диапазон начисляется
+ * одним INSERT ... SELECT в своей транзакции на пуле потоков. Таблица rentals только читается,
+ * а уникальность (rental_id, accrual_date) делает повторный запуск за тот же день безопасным.
+ */
+@Slf4j
+@Service
+public class FineService {
+
+    private final FineLedgerDAO fineLedgerDAO;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService accrualExecutor;
+    private final BigDecimal dailyRate;
+    private final int chunkSize;
+
+    @Autowired
+    public FineService(FineLedgerDAO fineLedgerDAO, PlatformTransactionManager transactionManager,
+                       @Value("${app.fines.daily-rate:10.00}") BigDecimal dailyRate,
+                       @Value("${app.fines.chunk-size:5000}") int chunkSize,
+                       @Value("${app.fines.parallelism:4}") int parallelism) {
+        this.fineLedgerDAO = fineLedgerDAO;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dailyRate = dailyRate;
+        this.chunkSize = chunkSize;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.accrualExecutor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "fine-accrual-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(cron = "${app.fines.cron:0 30 0 * * *}")
+    public void accrueNightly() {
+        accrueForDay(LocalDate.now());
+    }
+
+    // Начислить штрафы за день, возвращает число новых записей в журнале
+    public int accrueForDay(LocalDate day) {
+        List<Future<Integer>> chunks = new ArrayList<>();
+        long fromId = 0L;
+        while (true) {
+            Optional<Long> upperBound = fineLedgerDAO.findOverdueChunkUpperBound(fromId, chunkSize);
+            long rangeFrom = fromId;
+            long rangeTo = upperBound.orElse(Long.MAX_VALUE);
+            chunks.add(accrualExecutor.submit(() -> transactionTemplate.execute(status ->
+                    fineLedgerDAO.accrueRange(rangeFrom, rangeTo, day, dailyRate))));
+            if (upperBound.isEmpty()) {
+                break;
+            }
+            fromId = rangeTo;
+        }
+
+        // Ожидаются все порции: по ошибке одной остальные не бросаются недоделанными
+        int accrued = 0;
+        FineAccrualException failure = null;
+        for (Future<Integer> chunk : chunks) {
+            try {
+                Integer inserted = chunk.get();
+                accrued += inserted == null ? 0 : inserted;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new FineAccrualException("Начисление штрафов за " + day + " прервано", e);
+            } catch (ExecutionException e) {
+                log.error("Ошибка начисления порции штрафов за {}", day, e.getCause());
+                if (failure == null) {
+                    failure = new FineAccrualException("Ошибка начисления штрафов за " + day, e.getCause());
+                } else {
+                    failure.addSuppressed(e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+
+        log.info("Штрафы за {} начислены: {} записей в {} порциях", day, accrued, chunks.size());
+        return accrued;
+    }
+
+    // Штрафы пользователя
+    @Transactional(readOnly = true)
+    public FineSummaryDTO getUserFines(Long userId) {
+        List<FineEntryDTO> entries = fineLedgerDAO.findByUserId(userId).stream()
+                .map(entry -> new FineEntryDTO(entry.getRentalId(), entry.getAccrualDate(), entry.getAmount()))
+                .toList();
+        BigDecimal total = fineLedgerDAO.sumByUserId(userId);
+
+        log.info("Получены штрафы пользователя с ID {}: {} начислений на сумму {}", userId, entries.size(), total);
+        return new FineSummaryDTO(userId, total, entries);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        accrualExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.library_management.service;
+
+import com.example.library_management.event.HoldFulfilledEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class HoldNotifier {
+
+    // Уведомление о выдаче книги по очереди
+    @EventListener
+    public void onHoldFulfilled(HoldFulfilledEvent event) {
+        log.info("Пользователю с ID {} выдана книга ID {} по заявке {}: аренда {}, срок возврата {}",
+                event.userId(), event.bookId(), event.holdId(), event.rentalId(), event.dueDate());
+    }
+}
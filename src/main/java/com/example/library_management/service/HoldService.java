@@ -0,0 +1,119 @@
+package com.example.library_management.service;
+
+import com.example.library_management.dao.BookAvailabilityDAO;
+import com.example.library_management.dao.HoldDAO;
+import com.example.library_management.dao.RentalDAO;
+import com.example.library_management.dto.HoldDTO;
+import com.example.library_management.event.BookStatusChangedEvent;
+import com.example.library_management.event.HoldFulfilledEvent;
+import com.example.library_management.model.Hold;
+import com.example.library_management.model.LibraryBook;
+import com.example.library_management.model.User;
+import com.example.library_management.util.TransactionCallbacks;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Очереди ожидания по книгам.
+ * Возвращённый экземпляр в той же транзакции выдаётся первому пользователю из очереди,
+ * а пользователь получает уведомление вместо опроса доступности.
+ */
+@Slf4j
+@Service
+public class HoldService {
+
+    private final HoldDAO holdDAO;
+    private final RentalDAO rentalDAO;
+    private final BookAvailabilityDAO bookAvailabilityDAO;
+    private final OverdueTracker overdueTracker;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public HoldService(HoldDAO holdDAO, RentalDAO rentalDAO, BookAvailabilityDAO bookAvailabilityDAO,
+                       OverdueTracker overdueTracker, ApplicationEventPublisher eventPublisher) {
+        this.holdDAO = holdDAO;
+        this.rentalDAO = rentalDAO;
+        this.bookAvailabilityDAO = bookAvailabilityDAO;
+        this.overdueTracker = overdueTracker;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Встать в очередь на книгу
+    @Transactional
+    public HoldDTO placeHold(User user, Long bookInfoId) {
+        int available = bookAvailabilityDAO.lockAvailableCount(bookInfoId)
+                .orElseThrow(() -> {
+                    log.error("Книга с ID {} не найдена при постановке в очередь", bookInfoId);
+                    throw new EntityNotFoundException("Информация о книге с ID " + bookInfoId + " не найдена");
+                });
+
+        if (available > 0) {
+            throw new IllegalStateException("Есть доступные экземпляры — оформите аренду");
+        }
+
+        Long holdId = holdDAO.insertWaiting(user.getId(), bookInfoId)
+                .orElseThrow(() -> new IllegalStateException("Вы уже стоите в очереди на эту книгу"));
+
+        log.info("Пользователь '{}' встал в очередь на книгу с ID {}, заявка {}", user.getUsername(), bookInfoId, holdId);
+        return new HoldDTO(holdId, user.getId(), bookInfoId, Hold.HoldStatus.WAITING.name(), LocalDateTime.now().withNano(0), null);
+    }
+
+    // Отменить свою заявку
+    @Transactional
+    public void cancelHold(Long holdId, User user) {
+        if (!holdDAO.cancelWaiting(holdId, user.getId())) {
+            throw new EntityNotFoundException("Активная заявка с ID " + holdId + " не найдена");
+        }
+        log.info("Пользователь '{}' отменил заявку {}", user.getUsername(), holdId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<HoldDTO> getUserHolds(Long userId) {
+        return holdDAO.findByUserId(userId).stream().map(this::toDTO).toList();
+    }
+
+    @Transactional(readOnly = true)
+    public List<HoldDTO> getQueue(Long bookInfoId) {
+        return holdDAO.findWaitingByBookInfoId(bookInfoId).stream().map(this::toDTO).toList();
+    }
+
+    // Выдать только что возвращённый экземпляр первому в очереди; вызывается внутри транзакции возврата
+    @Transactional
+    public boolean handOff(Long bookId, Long bookInfoId) {
+        HoldDAO.WaitingHold hold = holdDAO.claimNextWaiting(bookInfoId).orElse(null);
+        if (hold == null) {
+            return false;
+        }
+
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        LocalDateTime dueDate = now.plusDays(RentalService.LOAN_PERIOD_DAYS);
+        RentalDAO.RentalTransition rental = rentalDAO.rentAvailableBook(bookId, hold.userId(), now, dueDate).orElse(null);
+        if (rental == null) {
+            log.warn("Экземпляр с ID {} не удалось выдать по заявке {}, заявка остаётся в очереди", bookId, hold.holdId());
+            return false;
+        }
+        holdDAO.markFulfilled(hold.holdId(), rental.rentalId(), now);
+        eventPublisher.publishEvent(new BookStatusChangedEvent(bookId, bookInfoId, LibraryBook.BookStatus.RENTED.name()));
+
+        HoldFulfilledEvent event = new HoldFulfilledEvent(hold.holdId(), hold.userId(), bookId, rental.rentalId(), dueDate);
+        TransactionCallbacks.afterCommit(() -> {
+            overdueTracker.track(rental.rentalId(), hold.userId(), bookId, dueDate);
+            eventPublisher.publishEvent(event);
+        });
+
+        log.info("Экземпляр с ID {} выдан по заявке {} пользователю с ID {}", bookId, hold.holdId(), hold.userId());
+        return true;
+    }
+
+    private HoldDTO toDTO(Hold hold) {
+        return new HoldDTO(hold.getId(), hold.getUserId(), hold.getBookInfoId(), hold.getStatus().name(),
+                hold.getCreatedAt(), hold.getRentalId());
+    }
+}
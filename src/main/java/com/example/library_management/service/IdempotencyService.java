@@ -0,0 +1,167 @@
+package com.example.library_management.service;
+
+import com.example.library_management.exception.RequestInProgressException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Повтор ответов на изменяющие запросы с заголовком Idempotency-Key.
+ * Первый успешный ответ хранится в ограниченном по размеру хранилище с TTL и отдаётся повторным
+ * запросам с тем же ключом без вызова сервисов. Одновременный дубль ждёт завершения первого запроса
+ * не дольше await-timeout, после чего получает 409 с Retry-After и не занимает поток сервера.
+ * Ошибки не сохраняются: после неудачи запрос с тем же ключом выполняется заново.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final int maxEntries;
+    private final long ttlMs;
+    private final long awaitTimeoutMs;
+    private final LongSupplier clock;
+
+    // Порядок вставки совпадает с порядком истечения, так как TTL у всех записей одинаковый
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    @Autowired
+    public IdempotencyService(@Value("${app.idempotency.max-entries:10000}") int maxEntries,
+                              @Value("${app.idempotency.ttl-ms:86400000}") long ttlMs,
+                              @Value("${app.idempotency.await-timeout-ms:5000}") long awaitTimeoutMs) {
+        this(maxEntries, ttlMs, awaitTimeoutMs, System::currentTimeMillis);
+    }
+
+    IdempotencyService(int maxEntries, long ttlMs, long awaitTimeoutMs, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+        this.awaitTimeoutMs = awaitTimeoutMs;
+        this.clock = clock;
+    }
+
+    private record Entry(String fingerprint, CompletableFuture<ResponseEntity<?>> response, long expiresAt) {
+    }
+
+    /**
+     * Выполнить действие один раз для ключа пользователя.
+     * fingerprint описывает сам запрос (метод, путь, тело): тот же ключ с другим запросом отклоняется.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> execute(String username, String key, String fingerprint,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Ключ идемпотентности должен содержать от 1 до " + MAX_KEY_LENGTH + " символов");
+        }
+
+        String storeKey = username + ':' + key;
+        CompletableFuture<ResponseEntity<?>> owned = new CompletableFuture<>();
+        Entry existing;
+        synchronized (entries) {
+            evictExpired();
+            existing = entries.get(storeKey);
+            if (existing == null) {
+                entries.put(storeKey, new Entry(fingerprint, owned, clock.getAsLong() + ttlMs));
+                evictOverflow();
+            }
+        }
+
+        if (existing != null) {
+            if (!existing.fingerprint().equals(fingerprint)) {
+                throw new IllegalStateException("Ключ идемпотентности уже использован для другого запроса");
+            }
+            log.info("Повторный запрос с ключом идемпотентности '{}' пользователя '{}'", key, username);
+            return (ResponseEntity<T>) replay(await(existing.response()));
+        }
+
+        try {
+            ResponseEntity<T> response = action.get();
+            owned.complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            // Ошибка не кэшируется: следующий запрос с этим ключом выполнится заново
+            synchronized (entries) {
+                Entry current = entries.get(storeKey);
+                if (current != null && current.response() == owned) {
+                    entries.remove(storeKey);
+                }
+            }
+            owned.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void evictExpired() {
+        long now = clock.getAsLong();
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().expiresAt() > now) {
+                break;
+            }
+            iterator.remove();
+        }
+    }
+
+    // Вытесненный незавершённый запрос доработает сам, дубли получат ответ через уже полученный future
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private ResponseEntity<?> await(CompletableFuture<ResponseEntity<?>> response) {
+        try {
+            return response.get(awaitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new RequestInProgressException("Запрос с этим ключом идемпотентности ещё выполняется");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание исходного запроса прервано", e);
+        } catch (ExecutionException e) {
+            // Одновременный дубль получает ту же ошибку, что и исходный запрос
+            Throwable cause = Objects.requireNonNullElse(e.getCause(), e);
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause.getMessage(), cause);
+        }
+    }
+
+    private static ResponseEntity<?> replay(ResponseEntity<?> original) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(original.getHeaders());
+        headers.set(REPLAYED_HEADER, "true");
+        return new ResponseEntity<>(original.getBody(), headers, original.getStatusCode());
+    }
+}
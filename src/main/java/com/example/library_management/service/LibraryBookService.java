@@ -1,21 +1,32 @@
 package com.example.library_management.service;
 
+import com.example.library_management.dao.BookAvailabilityDAO;
 import com.example.library_management.dao.BookInfoDAO;
 import com.example.library_management.dao.CategoryDAO;
 import com.example.library_management.dao.LibraryBookDAO;
 import com.example.library_management.dto.LibraryBookDTO;
 import com.example.library_management.dto.UpdateBookInfoDTO;
+import com.example.library_management.event.BookStatusChangedEvent;
 import com.example.library_management.mapper.LibraryBookMapper;
 import com.example.library_management.model.BookInfo;
 import com.example.library_management.model.Category;
 import com.example.library_management.model.LibraryBook;
 import com.example.library_management.model.LibraryBook.BookStatus;
+import com.example.library_management.util.IdLists;
+import com.example.library_management.util.SingleFlight;
+import com.example.library_management.util.TransactionCallbacks;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import jakarta.transaction.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -26,18 +37,36 @@ public class LibraryBookService {
     private final CategoryDAO categoryDAO;
     private final BookInfoDAO bookInfoDAO;
     private final LibraryBookMapper libraryBookMapper;
+    private final BookAvailabilityDAO bookAvailabilityDAO;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    // DTO не привязан к контексту персистентности, поэтому одновременные чтения одной книги выполняют один запрос
+    private final SingleFlight<Long, LibraryBookDTO> bookLookups = new SingleFlight<>();
+    private final TransactionTemplate readOnlyTransaction;
 
 
     @Autowired
-    public LibraryBookService(LibraryBookDAO libraryBookDAO, CategoryDAO categoryDAO, BookInfoDAO bookInfoDAO, LibraryBookMapper libraryBookMapper) {
+    public LibraryBookService(LibraryBookDAO libraryBookDAO, CategoryDAO categoryDAO, BookInfoDAO bookInfoDAO, LibraryBookMapper libraryBookMapper,
+                              BookAvailabilityDAO bookAvailabilityDAO, ApplicationEventPublisher eventPublisher,
+                              CatalogSnapshotService catalogSnapshotService, PlatformTransactionManager transactionManager) {
         this.libraryBookDAO = libraryBookDAO;
         this.categoryDAO = categoryDAO;
         this.bookInfoDAO = bookInfoDAO;
         this.libraryBookMapper = libraryBookMapper;
+        this.bookAvailabilityDAO = bookAvailabilityDAO;
+        this.eventPublisher = eventPublisher;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
     // Получить все книги без удаленных
+    @Transactional(readOnly = true)
     public List<LibraryBookDTO> getAllBooks() {
+        if (catalogSnapshotService.isReady()) {
+            return catalogSnapshotService.getAllBooks();
+        }
         List<LibraryBook> books = libraryBookDAO.findAll();
         return books.stream()
                 .map(libraryBookMapper::toDTO)
@@ -52,9 +81,40 @@ public class LibraryBookService {
                 });
     }
 
+    // Экземпляр, которого ещё нет в снимке (только что добавлен), читается из БД.
+    // Транзакцию открывает только ведущий запрос: ожидающие не занимают соединения, пока ждут его результат
     public LibraryBookDTO getBookDTOById(Long id) {
-        LibraryBook book = getBookEntityById(id);
-        return libraryBookMapper.toDTO(book);
+        if (catalogSnapshotService.isReady()) {
+            Optional<LibraryBookDTO> cached = catalogSnapshotService.findBook(id);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
+        return bookLookups.execute(id,
+                () -> readOnlyTransaction.execute(status -> libraryBookMapper.toDTO(getBookEntityById(id))));
+    }
+
+    // Книги по списку ID в порядке запроса; ненайденные ID пропускаются
+    @Transactional(readOnly = true)
+    public List<LibraryBookDTO> getBooksByIds(List<Long> ids) {
+        List<Long> distinctIds = IdLists.distinct(ids);
+        List<LibraryBookDTO> books = new ArrayList<>(distinctIds.size());
+        List<Long> missingIds = distinctIds;
+        if (catalogSnapshotService.isReady()) {
+            missingIds = new ArrayList<>();
+            for (Long id : distinctIds) {
+                Optional<LibraryBookDTO> cached = catalogSnapshotService.findBook(id);
+                if (cached.isPresent()) {
+                    books.add(cached.get());
+                } else {
+                    missingIds.add(id);
+                }
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            libraryBookDAO.findByIds(missingIds).forEach(book -> books.add(libraryBookMapper.toDTO(book)));
+        }
+        return IdLists.inRequestOrder(distinctIds, books, LibraryBookDTO::getId);
     }
 
     @Transactional
@@ -65,7 +125,7 @@ public class LibraryBookService {
                     throw new EntityNotFoundException("Категория с ID " + categoryId + " не найдена");
                 });
 
-        if (libraryBookDAO.findBySerialNumber(serialNumber).isPresent()) {
+        if (libraryBookDAO.existsBySerialNumber(serialNumber)) {
             throw new IllegalStateException("Серийный номер " + serialNumber + " уже существует");
         }
 
@@ -79,7 +139,15 @@ public class LibraryBookService {
         libraryBook.setBookInfo(bookInfo);
         libraryBook.setSerialNumber(serialNumber);
         libraryBook.setStatus(BookStatus.AVAILABLE);
-        libraryBookDAO.save(libraryBook);
+        try {
+            libraryBookDAO.save(libraryBook);
+        } catch (DataIntegrityViolationException e) {
+            // Номер мог занять параллельный запрос, который ещё не попал в индекс;
+            // ошибку Hibernate репозиторий уже перевёл в исключение Spring
+            throw new IllegalStateException("Серийный номер " + serialNumber + " уже существует");
+        }
+        bookAvailabilityDAO.changeAvailableCount(bookInfo.getId(), 1);
+        eventPublisher.publishEvent(new BookStatusChangedEvent(libraryBook.getId(), bookInfo.getId(), BookStatus.AVAILABLE.name()));
 
         log.info("Книга '{}' автора '{}' успешно добавлена с серийным номером {}", title, author, serialNumber);
     }
@@ -92,8 +160,13 @@ public class LibraryBookService {
             throw new IllegalStateException("Нельзя удалить книгу, она сейчас в аренде");
         }
 
+        if (book.getStatus() == BookStatus.AVAILABLE) {
+            bookAvailabilityDAO.changeAvailableCount(book.getBookInfo().getId(), -1);
+        }
+
         book.setStatus(BookStatus.DELETED);
         libraryBookDAO.update(book);
+        eventPublisher.publishEvent(new BookStatusChangedEvent(book.getId(), book.getBookInfo().getId(), BookStatus.DELETED.name()));
 
         log.info("Книга с ID {} помечена как удалённая", bookId);
 
@@ -101,7 +174,11 @@ public class LibraryBookService {
 
     @Transactional
     public void updateBookInfo(Long bookId, UpdateBookInfoDTO updateBookInfoDTO) {
-        LibraryBook book = getBookEntityById(bookId);
+        LibraryBook book = libraryBookDAO.findByIdWithBookInfo(bookId)
+                .orElseThrow(() -> {
+                    log.error("Книга с ID {} не найдена", bookId);
+                    throw new EntityNotFoundException("Книга с ID " + bookId + " не найдена");
+                });
 
         BookInfo bookInfo = book.getBookInfo();
         if (bookInfo.getId() != updateBookInfoDTO.getBookInfoId()) {
@@ -116,6 +193,7 @@ public class LibraryBookService {
         bookInfo.setCategory(category);
 
         bookInfoDAO.update(bookInfo);
+        TransactionCallbacks.afterCommit(catalogSnapshotService::requestRefresh);
         log.info("Информация о книге '{}' автора '{}' обновлена", bookInfo.getTitle(), bookInfo.getAuthor());
     }
 }
@@ -0,0 +1,18 @@
+package com.example.library_management.service;
+
+import com.example.library_management.event.RentalOverdueEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class OverdueNotifier {
+
+    // Уведомление о просрочке
+    @EventListener
+    public void onRentalOverdue(RentalOverdueEvent event) {
+        log.warn("Аренда с ID {} просрочена: пользователь ID {}, книга ID {}, срок возврата {}",
+                event.rentalId(), event.userId(), event.bookId(), event.dueDate());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.library_management.service;
+
+import com.example.library_management.dao.RentalDAO;
+import com.example.library_management.event.RentalOverdueEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Поддержка флага просрочки в таблице rentals.
+ * Основной источник — события планировщика просрочек; фоновый проход порциями
+ * добирает аренды, пропущенные во время простоя или перезапуска приложения.
+ */
+@Slf4j
+@Service
+public class OverdueService {
+
+    private final RentalDAO rentalDAO;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    @Autowired
+    public OverdueService(RentalDAO rentalDAO, PlatformTransactionManager transactionManager,
+                          @Value("${app.overdue.sweep-chunk-size:500}") int chunkSize) {
+        this.rentalDAO = rentalDAO;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    @EventListener
+    public void onRentalOverdue(RentalOverdueEvent event) {
+        Boolean marked = transactionTemplate.execute(status -> rentalDAO.markOverdue(event.rentalId()));
+        if (Boolean.TRUE.equals(marked)) {
+            log.info("Аренда с ID {} помечена как просроченная", event.rentalId());
+        }
+    }
+
+    // Каждая порция помечается в отдельной транзакции, чтобы не держать блокировки на всю таблицу
+    @Scheduled(fixedDelayString = "${app.overdue.sweep-interval-ms:300000}",
+            initialDelayString = "${app.overdue.sweep-initial-delay-ms:30000}")
+    public int sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int marked;
+        do {
+            Integer chunk = transactionTemplate.execute(status -> rentalDAO.markOverdueChunk(now, chunkSize));
+            marked = chunk == null ? 0 : chunk;
+            total += marked;
+        } while (marked == chunkSize);
+
+        if (total > 0) {
+            log.info("Фоновый проход пометил просроченными {} аренд", total);
+        }
+        return total;
+    }
+}
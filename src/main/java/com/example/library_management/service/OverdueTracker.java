@@ -0,0 +1,114 @@
+package com.example.library_management.service;
+
+import com.example.library_management.dao.RentalDAO;
+import com.example.library_management.event.RentalOverdueEvent;
+import com.example.library_management.util.TimingWheel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Планировщик просрочек: открытые аренды лежат в колесе таймеров по сроку возврата,
+ * и событие {@link RentalOverdueEvent} публикуется в момент истечения срока без повторного сканирования таблицы.
+ * Новые и закрытые аренды добавляются и снимаются из колеса после коммита транзакции.
+ */
+@Slf4j
+@Service
+public class OverdueTracker {
+
+    private static final int LOAD_CHUNK_SIZE = 10_000;
+
+    private final RentalDAO rentalDAO;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TimingWheel<RentalOverdueEvent> wheel;
+    private final Map<Long, TimingWheel.Timeout<RentalOverdueEvent>> timeoutsByRentalId = new HashMap<>();
+
+    @Autowired
+    public OverdueTracker(RentalDAO rentalDAO, ApplicationEventPublisher eventPublisher,
+                          @Value("${app.overdue.tick-ms:1000}") long tickMs,
+                          @Value("${app.overdue.wheel-size:64}") int wheelSize) {
+        this.rentalDAO = rentalDAO;
+        this.eventPublisher = eventPublisher;
+        this.wheel = new TimingWheel<>(tickMs, wheelSize, System.currentTimeMillis());
+    }
+
+    // Поставить аренду на отслеживание; повторный вызов заменяет срок возврата
+    public synchronized void track(Long rentalId, Long userId, Long bookId, LocalDateTime dueDate) {
+        TimingWheel.Timeout<RentalOverdueEvent> previous = timeoutsByRentalId.remove(rentalId);
+        if (previous != null) {
+            wheel.cancel(previous);
+        }
+        RentalOverdueEvent event = new RentalOverdueEvent(rentalId, userId, bookId, dueDate);
+        timeoutsByRentalId.put(rentalId, wheel.schedule(event, toEpochMillis(dueDate)));
+    }
+
+    // Снять аренду с отслеживания после возврата книги
+    public synchronized void untrack(Long rentalId) {
+        TimingWheel.Timeout<RentalOverdueEvent> timeout = timeoutsByRentalId.remove(rentalId);
+        if (timeout != null) {
+            wheel.cancel(timeout);
+        }
+    }
+
+    public synchronized int getTrackedCount() {
+        return wheel.size();
+    }
+
+    // Аренды, уже помеченные просроченными, не загружаются: событие по ним было опубликовано до перезапуска
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long lastId = 0L;
+        int loaded = 0;
+        List<RentalOverdueEvent> chunk;
+        do {
+            // Порция читается под монитором, чтобы возврат, закоммиченный во время загрузки, не вернул аренду в колесо
+            synchronized (this) {
+                chunk = rentalDAO.findOpenRentalsAfter(lastId, LOAD_CHUNK_SIZE);
+                for (RentalOverdueEvent rental : chunk) {
+                    lastId = rental.rentalId();
+                    if (!timeoutsByRentalId.containsKey(rental.rentalId())) {
+                        timeoutsByRentalId.put(rental.rentalId(), wheel.schedule(rental, toEpochMillis(rental.dueDate())));
+                    }
+                }
+            }
+            loaded += chunk.size();
+        } while (chunk.size() == LOAD_CHUNK_SIZE);
+
+        log.info("В планировщик просрочек загружено {} открытых аренд", loaded);
+    }
+
+    @Scheduled(fixedRateString = "${app.overdue.tick-ms:1000}")
+    public void tick() {
+        List<RentalOverdueEvent> due;
+        synchronized (this) {
+            due = wheel.advance(System.currentTimeMillis());
+            for (RentalOverdueEvent event : due) {
+                timeoutsByRentalId.remove(event.rentalId());
+            }
+        }
+
+        // Слушатели вызываются вне монитора, чтобы не блокировать аренду и возврат
+        for (RentalOverdueEvent event : due) {
+            try {
+                eventPublisher.publishEvent(event);
+            } catch (RuntimeException e) {
+                log.error("Ошибка обработки просрочки аренды с ID {}", event.rentalId(), e);
+            }
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -2,87 +2,198 @@ package com.example.library_management.service;
 
 import com.example.library_management.dao.LibraryBookDAO;
 import com.example.library_management.dao.RentalDAO;
+import com.example.library_management.dto.BatchReturnResultDTO;
+import com.example.library_management.dto.BatchReturnResultDTO.ReturnStatus;
+import com.example.library_management.dto.KeysetPageDTO;
 import com.example.library_management.dto.RentalDTO;
+import com.example.library_management.event.BookStatusChangedEvent;
 import com.example.library_management.mapper.RentalMapper;
 import com.example.library_management.model.LibraryBook;
 import com.example.library_management.model.Rental;
 import com.example.library_management.model.User;
+import com.example.library_management.util.IdLists;
+import com.example.library_management.util.TransactionCallbacks;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class RentalService {
 
+    public static final int LOAN_PERIOD_DAYS = 7;
+
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final RentalDAO rentalDAO;
     private final LibraryBookDAO libraryBookDAO;
-    private final AuditService auditService;
     private final RentalMapper rentalMapper;
+    private final OverdueTracker overdueTracker;
+    private final HoldService holdService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public RentalService(RentalDAO rentalDAO, LibraryBookDAO libraryBookDAO, AuditService auditService, RentalMapper rentalMapper) {
+    public RentalService(RentalDAO rentalDAO, LibraryBookDAO libraryBookDAO, RentalMapper rentalMapper,
+                         OverdueTracker overdueTracker, HoldService holdService, ApplicationEventPublisher eventPublisher) {
         this.rentalDAO = rentalDAO;
         this.libraryBookDAO = libraryBookDAO;
-        this.auditService = auditService;
         this.rentalMapper = rentalMapper;
+        this.overdueTracker = overdueTracker;
+        this.holdService = holdService;
+        this.eventPublisher = eventPublisher;
     }
 
 
     //Арендовать книгу пользователем
     @Transactional
     public void rentBook(User user, Long bookId) {
-        LibraryBook book = libraryBookDAO.findById(bookId)
-                .orElseThrow(() -> {
-                    log.error("Ошибка: Книга с ID '{}' не найдена при попытке аренды", bookId);
-                    throw new EntityNotFoundException("Книга не найдена");
-                });
-
-        if (book.getStatus() != LibraryBook.BookStatus.AVAILABLE) {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        LocalDateTime dueDate = now.plusDays(LOAN_PERIOD_DAYS); //срок возврата через 7 дней
+
+        RentalDAO.RentalTransition transition = rentalDAO.rentAvailableBook(bookId, user.getId(), now, dueDate).orElse(null);
+        if (transition == null) {
+            LibraryBook book = libraryBookDAO.findById(bookId)
+                    .orElseThrow(() -> {
+                        log.error("Ошибка: Книга с ID '{}' не найдена при попытке аренды", bookId);
+                        throw new EntityNotFoundException("Книга не найдена");
+                    });
             log.error("Ошибка: Книга с ID '{}' недоступна для аренды. Текущий статус: {}", bookId, book.getStatus());
             throw new EntityNotFoundException("Книга недоступна для аренды");
         }
+        trackAfterCommit(transition, user, dueDate);
+        publishStatus(transition, LibraryBook.BookStatus.RENTED);
+
+        log.info("Книга с ID '{}' успешно арендована пользователем '{}'. Дата возврата: {}", bookId, user.getUsername(), dueDate);
+    }
 
+    // Арендовать любой свободный экземпляр книги
+    @Transactional
+    public RentalDTO rentAnyCopy(User user, Long bookInfoId) {
         LocalDateTime now = LocalDateTime.now().withNano(0);
-        LocalDateTime dueDate = now.plusDays(7); //срок возврата через 7 дней
+        LocalDateTime dueDate = now.plusDays(LOAN_PERIOD_DAYS);
 
-        Rental rental = new Rental();
-        rental.setUser(user);
-        rental.setLibraryBook(book);
-        rental.setRentedAt(now);
-        rental.setDueDate(dueDate);
+        RentalDAO.RentalTransition transition = rentalDAO.rentAnyAvailableCopy(bookInfoId, user.getId(), now, dueDate)
+                .orElseThrow(() -> {
+                    log.error("Ошибка: Нет свободных экземпляров книги с BookInfo ID '{}'", bookInfoId);
+                    throw new EntityNotFoundException("Нет доступных экземпляров книги");
+                });
+        trackAfterCommit(transition, user, dueDate);
+        publishStatus(transition, LibraryBook.BookStatus.RENTED);
 
-        book.setStatus(LibraryBook.BookStatus.RENTED);
-        libraryBookDAO.update(book);
+        log.info("Книга с ID '{}' успешно арендована пользователем '{}'. Дата возврата: {}",
+                transition.bookId(), user.getUsername(), dueDate);
+        return new RentalDTO(transition.rentalId(), user.getId(), transition.bookId(), now, dueDate, null);
+    }
 
-        rentalDAO.save(rental);
+    // Возврат
+    @Transactional
+    public void returnBook(Long bookId, User currentUser) {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
 
-        auditService.logAction(user, book, "BOOK_RENTED");
+        RentalDAO.RentalTransition transition = rentalDAO.closeActiveRental(bookId, currentUser.getId(), now).orElse(null);
+        if (transition == null) {
+            rejectReturn(bookId, currentUser);
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> overdueTracker.untrack(transition.rentalId()));
+        if (!holdService.handOff(transition.bookId(), transition.bookInfoId())) {
+            publishStatus(transition, LibraryBook.BookStatus.AVAILABLE);
+        }
 
-        log.info("Книга с ID '{}' успешно арендована пользователем '{}'. Дата возврата: {}", bookId, user.getUsername(), dueDate);
+        log.info("Книга с ID '{}' успешно возвращена пользователем '{}'.", bookId, currentUser.getUsername());
     }
 
-    // Возврат
+    // Массовый возврат по серийным номерам (стойка возврата со сканером)
     @Transactional
-    public void returnBook(Long bookId, User currentUser) {
+    public List<BatchReturnResultDTO> returnBooksBySerialNumbers(List<Long> serialNumbers, User staff) {
+        Set<Long> uniqueSerialNumbers = new LinkedHashSet<>(serialNumbers);
+        Map<Long, LibraryBook> booksBySerial = libraryBookDAO.findBySerialNumbers(uniqueSerialNumbers).stream()
+                .collect(Collectors.toMap(LibraryBook::getSerialNumber, Function.identity()));
+
+        List<Long> rentedBookIds = booksBySerial.values().stream()
+                .filter(book -> book.getStatus() == LibraryBook.BookStatus.RENTED)
+                .map(LibraryBook::getId)
+                .toList();
+
+        List<RentalDAO.RentalTransition> transitions = rentedBookIds.isEmpty()
+                ? List.of()
+                : rentalDAO.closeActiveRentals(rentedBookIds, staff.getId(), LocalDateTime.now().withNano(0));
+        Set<Long> returnedBookIds = transitions.stream()
+                .map(RentalDAO.RentalTransition::bookId)
+                .collect(Collectors.toSet());
+        if (!transitions.isEmpty()) {
+            TransactionCallbacks.afterCommit(() -> transitions.forEach(t -> overdueTracker.untrack(t.rentalId())));
+            for (RentalDAO.RentalTransition transition : transitions) {
+                if (!holdService.handOff(transition.bookId(), transition.bookInfoId())) {
+                    publishStatus(transition, LibraryBook.BookStatus.AVAILABLE);
+                }
+            }
+        }
+
+        List<BatchReturnResultDTO> results = new ArrayList<>(uniqueSerialNumbers.size());
+        for (Long serialNumber : uniqueSerialNumbers) {
+            LibraryBook book = booksBySerial.get(serialNumber);
+            if (book == null) {
+                results.add(new BatchReturnResultDTO(serialNumber, null, ReturnStatus.NOT_FOUND, "Книга не найдена"));
+            } else if (book.getStatus() == LibraryBook.BookStatus.DELETED) {
+                results.add(new BatchReturnResultDTO(serialNumber, book.getId(), ReturnStatus.DELETED, "Книга удалена"));
+            } else if (returnedBookIds.contains(book.getId())) {
+                results.add(new BatchReturnResultDTO(serialNumber, book.getId(), ReturnStatus.RETURNED, "Книга успешно возвращена"));
+            } else {
+                results.add(new BatchReturnResultDTO(serialNumber, book.getId(), ReturnStatus.NOT_RENTED, "Книга не арендована"));
+            }
+        }
+
+        log.info("Сотрудник '{}' выполнил массовый возврат: отсканировано {}, возвращено {}",
+                staff.getUsername(), uniqueSerialNumbers.size(), returnedBookIds.size());
+        return results;
+    }
+
+    // Просроченные аренды всех пользователей, постранично по ID
+    @Transactional(readOnly = true)
+    public KeysetPageDTO<RentalDTO> getOverdueRentals(Long afterId, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+
+        List<RentalDTO> rentals = rentalDAO.findOverduePage(afterId == null ? 0L : afterId, size);
+        Long nextAfterId = rentals.size() == size ? rentals.get(rentals.size() - 1).getId() : null;
+
+        log.info("Получена страница просроченных аренд после ID {}: {} записей", afterId, rentals.size());
+        return new KeysetPageDTO<>(rentals, nextAfterId);
+    }
+
+    // Новая аренда попадает в планировщик просрочек только после коммита
+    private void trackAfterCommit(RentalDAO.RentalTransition transition, User user, LocalDateTime dueDate) {
+        TransactionCallbacks.afterCommit(() ->
+                overdueTracker.track(transition.rentalId(), user.getId(), transition.bookId(), dueDate));
+    }
+
+    // Подписчики потока статусов получат событие после коммита
+    private void publishStatus(RentalDAO.RentalTransition transition, LibraryBook.BookStatus status) {
+        eventPublisher.publishEvent(new BookStatusChangedEvent(transition.bookId(), transition.bookInfoId(), status.name()));
+    }
+
+    // Выясняет, почему возврат не состоялся; вызывается только на неуспешном пути
+    private void rejectReturn(Long bookId, User currentUser) {
         LibraryBook book = libraryBookDAO.findById(bookId)
                 .orElseThrow(() -> {
                     log.error("Ошибка: Книга с ID '{}' не найдена", bookId);
                     throw new EntityNotFoundException("Книга не найдена");
                 });
 
-        List<Rental> rentals = rentalDAO.findByBookId(bookId);
-
-        if (rentals.isEmpty()) {
-            log.error("Ошибка: Нет записей аренды для книги с ID '{}'", bookId);
-            throw new EntityNotFoundException("Книга не арендована");
-        }
-
         if (book.getStatus() == LibraryBook.BookStatus.DELETED) {
             log.error("Ошибка: Книга с ID '{}' помечена как удалённая", bookId);
             throw new IllegalStateException("Книга удалена");
@@ -93,12 +204,10 @@ public class RentalService {
             throw new IllegalStateException("Книга уже доступна — возврат невозможен");
         }
 
-        Rental rental = rentals.stream()
-                .filter(r -> r.getReturnedAt() == null)
-                .findFirst()
+        Rental rental = rentalDAO.findActiveByBookId(bookId)
                 .orElseThrow(() -> {
-                    log.error("Ошибка: Книга с ID '{}' уже возвращена", bookId);
-                    throw new IllegalStateException("Книга уже возвращена");
+                    log.error("Ошибка: Нет открытой аренды для книги с ID '{}'", bookId);
+                    throw new EntityNotFoundException("Книга не арендована");
                 });
 
         if (!rental.getUser().getId().equals(currentUser.getId())) {
@@ -106,17 +215,12 @@ public class RentalService {
             throw new SecurityException("Вы не можете вернуть чужую книгу");
         }
 
-        rental.setReturnedAt(LocalDateTime.now().withNano(0));
-        book.setStatus(LibraryBook.BookStatus.AVAILABLE);
-        libraryBookDAO.update(book);
-        rentalDAO.update(rental);
-
-        auditService.logAction(currentUser, book, "BOOK_RETURNED");
-
-        log.info("Книга с ID '{}' успешно возвращена пользователем '{}'.", bookId, currentUser.getUsername());
+        log.error("Ошибка: Книга с ID '{}' в несогласованном состоянии: статус {}, открытая аренда {}", bookId, book.getStatus(), rental.getId());
+        throw new IllegalStateException("Книга в несогласованном состоянии — возврат невозможен");
     }
 
      //Получить просроченные аренды (не возвращены и дата уже прошла)
+     @Transactional(readOnly = true)
      public List<RentalDTO> getOverdueRentalsByUser(Long userId) {
          List<Rental> overdueRentals = rentalDAO.findOverdueByUserId(userId);
          if (overdueRentals == null || overdueRentals.isEmpty()) {
@@ -133,6 +237,7 @@ public class RentalService {
      }
 
 
+    @Transactional(readOnly = true)
     public List<Rental> getRentalsByUser(Long userId) {
         List<Rental> rentals = rentalDAO.findByUserId(userId);
         if (rentals == null || rentals.isEmpty()) {
@@ -143,6 +248,7 @@ public class RentalService {
         return rentals;
     }
 
+    @Transactional(readOnly = true)
     public List<Rental> getRentalsByBook(Long bookId) {
         List<Rental> rentals = rentalDAO.findByBookId(bookId);
         if (rentals.isEmpty()) {
@@ -153,7 +259,15 @@ public class RentalService {
         return rentals;
     }
 
+    // Аренды по списку ID в порядке запроса; ненайденные ID пропускаются
+    @Transactional(readOnly = true)
+    public List<RentalDTO> getRentalsByIds(List<Long> ids) {
+        List<Long> distinctIds = IdLists.distinct(ids);
+        return IdLists.inRequestOrder(distinctIds, rentalDAO.findDTOsByIds(distinctIds), RentalDTO::getId);
+    }
+
     // Все аренды
+    @Transactional(readOnly = true)
     public List<Rental> getAllRentals() {
         List<Rental> rentals = rentalDAO.findAll();
         log.info("Запрашиваются все аренды. Найдено {} аренды", rentals.size());
@@ -7,14 +7,15 @@ import com.example.library_management.dao.UserDAO;
 import com.example.library_management.dao.UserRoleDAO;
 import com.example.library_management.dto.LoginDTO;
 import com.example.library_management.dto.UpdateUserDTO;
+import com.example.library_management.dto.UserSummaryDTO;
 import com.example.library_management.model.Rental;
 import com.example.library_management.model.Role;
 import com.example.library_management.model.RoleType;
 import com.example.library_management.model.User;
 import com.example.library_management.model.UserRole;
 import com.example.library_management.security.JwtUtil;
+import com.example.library_management.util.IdLists;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -22,6 +23,7 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -79,9 +81,9 @@ public class UserService implements UserDetailsService {
     }
 
     //Логин
-    @Transactional
+    @Transactional(readOnly = true)
     public String login(LoginDTO loginDTO) {
-        User user = userDAO.findByUsername(loginDTO.getUsername());
+        User user = userDAO.findByUsernameWithRoles(loginDTO.getUsername());
         if (user == null) {
             throw new UsernameNotFoundException("Пользователь не найден");
         }
@@ -172,10 +174,11 @@ public class UserService implements UserDetailsService {
     }
 
 
+    // Без транзакции: одновременные поиски одного пользователя объединяются в один запрос в UserDAO
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         log.info("Попытка загрузить пользователя с именем '{}'", username);
-        User user = userDAO.findByUsername(username);
+        User user = userDAO.findByUsernameWithRoles(username);
         if (user == null) {
             log.error("Пользователь с именем '{}' не найден", username);
             throw new UsernameNotFoundException("Пользователь не найден: " + username);
@@ -185,7 +188,7 @@ public class UserService implements UserDetailsService {
     }
 
     // Пользователь по id
-    @Transactional
+    @Transactional(readOnly = true)
     public User getUserById(Long id) {
         log.info("Попытка получить пользователя с ID '{}'", id);
 
@@ -205,7 +208,14 @@ public class UserService implements UserDetailsService {
         }
     }
 
-    // По имени
+    // Краткие данные пользователей по списку ID в порядке запроса; ненайденные ID пропускаются
+    @Transactional(readOnly = true)
+    public List<UserSummaryDTO> getUsersByIds(List<Long> ids) {
+        List<Long> distinctIds = IdLists.distinct(ids);
+        return IdLists.inRequestOrder(distinctIds, userDAO.findSummariesByIds(distinctIds), UserSummaryDTO::getId);
+    }
+
+    // По имени; без транзакции, как и loadUserByUsername: найденный пользователь передаётся в изменяющие методы
     public User findByUsername(String username) {
         User user = userDAO.findByUsername(username);
         if (user == null) {
@@ -0,0 +1,49 @@
+package com.example.library_management.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+public final class IdLists {
+
+    // Предел числа ID в одном запросе множественного получения
+    public static final int MAX_IDS = 1000;
+
+    private IdLists() {
+    }
+
+    // Проверить список ID из запроса и убрать повторы, сохранив порядок
+    public static List<Long> distinct(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("Список ID не может быть пустым");
+        }
+        if (ids.size() > MAX_IDS) {
+            throw new IllegalArgumentException("За один запрос можно получить не более " + MAX_IDS + " записей");
+        }
+        LinkedHashSet<Long> unique = new LinkedHashSet<>(ids);
+        if (unique.contains(null)) {
+            throw new IllegalArgumentException("Список ID содержит пустое значение");
+        }
+        return new ArrayList<>(unique);
+    }
+
+    // Расставить найденные записи в порядке запрошенных ID; ненайденные ID пропускаются
+    public static <T> List<T> inRequestOrder(List<Long> ids, Collection<T> items, Function<T, Long> idOf) {
+        Map<Long, T> byId = new HashMap<>(items.size() * 2);
+        for (T item : items) {
+            byId.put(idOf.apply(item), item);
+        }
+        List<T> ordered = new ArrayList<>(byId.size());
+        for (Long id : ids) {
+            T item = byId.get(id);
+            if (item != null) {
+                ordered.add(item);
+            }
+        }
+        return ordered;
+    }
+}
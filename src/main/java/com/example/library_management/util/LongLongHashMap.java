@@ -0,0 +1,186 @@
+package com.example.library_management.util;
+
+import java.util.Arrays;
+
+/**
+ * Хеш-таблица long → long с открытой адресацией и линейным пробированием.
+ * Ключи и значения хранятся в примитивных массивах, без упаковки в Long.
+ * Удаление выполняется обратным сдвигом, поэтому надгробия не накапливаются.
+ * Класс не потокобезопасен.
+ */
+public class LongLongHashMap {
+
+    private static final long EMPTY_KEY = 0L;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    // Ключ 0 совпадает с маркером пустой ячейки и хранится отдельно
+    private boolean hasZeroKey;
+    private long zeroValue;
+
+    public LongLongHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == EMPTY_KEY) {
+            return hasZeroKey;
+        }
+        return indexOf(key) >= 0;
+    }
+
+    public long get(long key, long missingValue) {
+        if (key == EMPTY_KEY) {
+            return hasZeroKey ? zeroValue : missingValue;
+        }
+        int index = indexOf(key);
+        return index >= 0 ? values[index] : missingValue;
+    }
+
+    public void put(long key, long value) {
+        if (key == EMPTY_KEY) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+
+        int index = slot(key);
+        while (keys[index] != EMPTY_KEY) {
+            if (keys[index] == key) {
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    public boolean remove(long key) {
+        if (key == EMPTY_KEY) {
+            if (!hasZeroKey) {
+                return false;
+            }
+            hasZeroKey = false;
+            zeroValue = 0L;
+            size--;
+            return true;
+        }
+
+        int index = indexOf(key);
+        if (index < 0) {
+            return false;
+        }
+        shiftBack(index);
+        size--;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY_KEY);
+        hasZeroKey = false;
+        zeroValue = 0L;
+        size = 0;
+    }
+
+    private int indexOf(long key) {
+        int index = slot(key);
+        while (keys[index] != EMPTY_KEY) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Сдвигает следующие элементы цепочки на освободившееся место
+    private void shiftBack(int freed) {
+        int current = freed;
+        while (true) {
+            current = (current + 1) & mask;
+            long key = keys[current];
+            if (key == EMPTY_KEY) {
+                break;
+            }
+            int home = slot(key);
+            // Элемент можно перенести, если его исходная ячейка не лежит между freed и current
+            boolean movable = freed <= current
+                    ? home <= freed || home > current
+                    : home <= freed && home > current;
+            if (movable) {
+                keys[freed] = key;
+                values[freed] = values[current];
+                freed = current;
+            }
+        }
+        keys[freed] = EMPTY_KEY;
+        values[freed] = 0L;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != EMPTY_KEY) {
+                int index = slot(key);
+                while (keys[index] != EMPTY_KEY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        resizeThreshold = capacity >> 1;
+    }
+
+    private int slot(long key) {
+        // Финализатор MurmurHash3: последовательные серийные номера не образуют длинных цепочек
+        long hash = key;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (int) hash & mask;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity >> 1 < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
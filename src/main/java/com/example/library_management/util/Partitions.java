@@ -0,0 +1,27 @@
+package com.example.library_management.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public final class Partitions {
+
+    // Размер порции для запросов с IN: держит число параметров и разброс планов в разумных пределах
+    public static final int IN_CLAUSE_CHUNK_SIZE = 500;
+
+    private Partitions() {
+    }
+
+    // Разбить коллекцию на последовательные порции не больше size элементов
+    public static <T> List<List<T>> partition(Collection<T> items, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Размер порции должен быть положительным");
+        }
+        List<T> list = items instanceof List<T> asList ? asList : new ArrayList<>(items);
+        List<List<T>> chunks = new ArrayList<>((list.size() + size - 1) / size);
+        for (int from = 0; from < list.size(); from += size) {
+            chunks.add(list.subList(from, Math.min(from + size, list.size())));
+        }
+        return chunks;
+    }
+}
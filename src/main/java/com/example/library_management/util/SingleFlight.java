@@ -0,0 +1,58 @@
+package com.example.library_management.util;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Объединение одновременных одинаковых запросов: первый вызов с ключом выполняет загрузку,
+ * остальные, пришедшие до её окончания, ждут и получают тот же результат или ту же ошибку.
+ * Результат не кэшируется: следующий вызов после завершения загрузки выполнит её заново.
+ * Разделять можно только значения, не привязанные к вызывающему (отсоединённые сущности, DTO).
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> owned = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, owned);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            V value = loader.get();
+            owned.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            owned.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, owned);
+        }
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание объединённого запроса прервано", e);
+        } catch (ExecutionException e) {
+            Throwable cause = Objects.requireNonNullElse(e.getCause(), e);
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause.getMessage(), cause);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.library_management.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Иерархическое колесо таймеров.
+ * Нижний уровень хранит задачи с точностью до одного тика, каждый следующий уровень
+ * в wheelSize раз грубее. Когда окно верхнего уровня становится текущим, его задачи
+ * переносятся на нижние уровни, поэтому добавление и отмена выполняются за O(1),
+ * а продвижение времени не требует перебора всех задач.
+ * Класс не потокобезопасен.
+ */
+public class TimingWheel<T> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final List<Level<T>> levels = new ArrayList<>();
+    private final List<Timeout<T>> expired = new ArrayList<>();
+
+    // Все задачи со временем срабатывания меньше currentTime уже выданы
+    private long currentTime;
+    private int size;
+
+    public TimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("Некорректные параметры колеса таймеров");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.currentTime = Math.floorDiv(startMs, tickMs) * tickMs;
+        this.levels.add(new Level<>(tickMs, wheelSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getCurrentTime() {
+        return currentTime;
+    }
+
+    public Timeout<T> schedule(T payload, long expirationMs) {
+        Timeout<T> timeout = new Timeout<>(payload, expirationMs);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    public boolean cancel(Timeout<T> timeout) {
+        if (timeout.cancelled || timeout.fired) {
+            return false;
+        }
+        timeout.cancelled = true;
+        if (timeout.bucket != null) {
+            timeout.bucket.unlink(timeout);
+        } else {
+            expired.remove(timeout);
+        }
+        size--;
+        return true;
+    }
+
+    // Продвинуть время до nowMs и вернуть задачи, срок которых наступил
+    public List<T> advance(long nowMs) {
+        List<T> fired = new ArrayList<>();
+        drainExpired(fired);
+
+        long target = Math.floorDiv(nowMs, tickMs) * tickMs;
+        if (size == 0) {
+            // Пустое колесо можно перевести сразу, не проходя тики
+            currentTime = Math.max(currentTime, target);
+            return fired;
+        }
+
+        while (currentTime < target) {
+            // Окно текущего тика закрывается: все его задачи просрочены
+            Bucket<T> bucket = levels.get(0).bucketFor(currentTime);
+            currentTime += tickMs;
+            collect(bucket, fired);
+
+            // Переносим вниз окна верхних уровней, начинающиеся с нового момента
+            for (int i = levels.size() - 1; i > 0; i--) {
+                Level<T> level = levels.get(i);
+                if (Math.floorMod(currentTime, level.tickMs) == 0) {
+                    for (Timeout<T> timeout : level.bucketFor(currentTime).drain()) {
+                        place(timeout);
+                    }
+                }
+            }
+            drainExpired(fired);
+
+            if (size == 0) {
+                currentTime = target;
+            }
+        }
+        return fired;
+    }
+
+    private void place(Timeout<T> timeout) {
+        if (timeout.expirationMs < currentTime) {
+            expired.add(timeout);
+            return;
+        }
+        for (int i = 0; ; i++) {
+            if (i == levels.size()) {
+                Level<T> upper = levels.get(i - 1);
+                levels.add(new Level<>(Math.multiplyExact(upper.tickMs, (long) wheelSize), wheelSize));
+            }
+            Level<T> level = levels.get(i);
+            long window = Math.floorDiv(timeout.expirationMs, level.tickMs);
+            if (window < Math.floorDiv(currentTime, level.tickMs) + wheelSize) {
+                level.bucketFor(timeout.expirationMs).link(timeout);
+                return;
+            }
+        }
+    }
+
+    private void collect(Bucket<T> bucket, List<T> fired) {
+        for (Timeout<T> timeout : bucket.drain()) {
+            timeout.fired = true;
+            fired.add(timeout.payload);
+            size--;
+        }
+    }
+
+    private void drainExpired(List<T> fired) {
+        for (Timeout<T> timeout : expired) {
+            timeout.fired = true;
+            fired.add(timeout.payload);
+            size--;
+        }
+        expired.clear();
+    }
+
+    public static final class Timeout<T> {
+        private final T payload;
+        private final long expirationMs;
+        private Bucket<T> bucket;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+        private boolean cancelled;
+        private boolean fired;
+
+        private Timeout(T payload, long expirationMs) {
+            this.payload = payload;
+            this.expirationMs = expirationMs;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+
+        public long getExpirationMs() {
+            return expirationMs;
+        }
+    }
+
+    private static final class Level<T> {
+        private final long tickMs;
+        private final Bucket<T>[] buckets;
+
+        @SuppressWarnings("unchecked")
+        private Level(long tickMs, int wheelSize) {
+            this.tickMs = tickMs;
+            this.buckets = (Bucket<T>[]) new Bucket<?>[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new Bucket<>();
+            }
+        }
+
+        private Bucket<T> bucketFor(long timeMs) {
+            return buckets[(int) Math.floorMod(Math.floorDiv(timeMs, tickMs), (long) buckets.length)];
+        }
+    }
+
+    // Двусвязный список задач одного окна
+    private static final class Bucket<T> {
+        private Timeout<T> head;
+
+        private void link(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.prev = null;
+            timeout.next = head;
+            if (head != null) {
+                head.prev = timeout;
+            }
+            head = timeout;
+        }
+
+        private void unlink(Timeout<T> timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+
+        private List<Timeout<T>> drain() {
+            List<Timeout<T>> drained = new ArrayList<>();
+            Timeout<T> current = head;
+            while (current != null) {
+                Timeout<T> next = current.next;
+                current.bucket = null;
+                current.prev = null;
+                current.next = null;
+                drained.add(current);
+                current = next;
+            }
+            head = null;
+            return drained;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+CREATE TABLE book_availability (
+                                   book_info_id INT PRIMARY KEY,
+                                   available_count INT NOT NULL DEFAULT 0,
+                                   FOREIGN KEY (book_info_id) REFERENCES book_info(id)
+);
+
+INSERT INTO book_availability (book_info_id, available_count)
+SELECT bi.id, COUNT(lb.id) FILTER (WHERE lb.status = 'AVAILABLE')
+FROM book_info bi
+         LEFT JOIN library_book lb ON lb.book_info_id = bi.id
+GROUP BY bi.id;
@@ -0,0 +1 @@
+CREATE UNIQUE INDEX ux_rentals_active_book ON rentals (library_book_id) WHERE returned_at IS NULL;
@@ -0,0 +1,12 @@
+ALTER TABLE rentals ADD COLUMN IF NOT EXISTS overdue BOOLEAN NOT NULL DEFAULT FALSE;
+
+UPDATE rentals SET overdue = TRUE WHERE returned_at IS NULL AND due_date < CURRENT_TIMESTAMP;
+
+-- Кандидаты для фоновой пометки просрочек
+CREATE INDEX ix_rentals_pending_due ON rentals (due_date, id) WHERE returned_at IS NULL AND NOT overdue;
+
+-- Отчёты по просрочкам читаются только из индексов
+CREATE INDEX ix_rentals_overdue ON rentals (id)
+    INCLUDE (user_id, library_book_id, rented_at, due_date, returned_at) WHERE overdue;
+CREATE INDEX ix_rentals_overdue_user ON rentals (user_id, id)
+    INCLUDE (library_book_id, rented_at, due_date, returned_at) WHERE overdue;
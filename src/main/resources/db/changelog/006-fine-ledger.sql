@@ -0,0 +1,14 @@
+CREATE TABLE fine_ledger (
+                             id BIGSERIAL PRIMARY KEY,
+                             rental_id BIGINT NOT NULL,
+                             user_id BIGINT NOT NULL,
+                             accrual_date DATE NOT NULL,
+                             amount NUMERIC(10, 2) NOT NULL,
+                             created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                             FOREIGN KEY (rental_id) REFERENCES rentals(id),
+                             FOREIGN KEY (user_id) REFERENCES users(id),
+                             CONSTRAINT ux_fine_ledger_rental_day UNIQUE (rental_id, accrual_date)
+);
+
+-- Сумма штрафов пользователя считается по индексу
+CREATE INDEX ix_fine_ledger_user ON fine_ledger (user_id) INCLUDE (amount);
@@ -0,0 +1,20 @@
+CREATE TABLE holds (
+                       id BIGSERIAL PRIMARY KEY,
+                       user_id BIGINT NOT NULL,
+                       book_info_id BIGINT NOT NULL,
+                       status VARCHAR(20) NOT NULL,
+                       created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                       fulfilled_at TIMESTAMP,
+                       rental_id BIGINT,
+                       FOREIGN KEY (user_id) REFERENCES users(id),
+                       FOREIGN KEY (book_info_id) REFERENCES book_info(id),
+                       FOREIGN KEY (rental_id) REFERENCES rentals(id)
+);
+
+-- Очередь ожидания книги: голова очереди берётся по индексу за O(log n)
+CREATE INDEX ix_holds_queue ON holds (book_info_id, id) WHERE status = 'WAITING';
+
+-- Пользователь стоит в очереди на книгу не более одного раза
+CREATE UNIQUE INDEX ux_holds_waiting_user ON holds (user_id, book_info_id) WHERE status = 'WAITING';
+
+CREATE INDEX ix_holds_user ON holds (user_id, id);
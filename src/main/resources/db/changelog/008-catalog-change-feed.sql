@@ -0,0 +1,52 @@
+--liquibase formatted sql
+
+--changeset library:008-catalog-change-columns
+CREATE SEQUENCE catalog_change_seq;
+
+ALTER TABLE categories ADD COLUMN change_version BIGINT NOT NULL DEFAULT nextval('catalog_change_seq');
+ALTER TABLE categories ADD COLUMN changed_at TIMESTAMPTZ NOT NULL DEFAULT clock_timestamp();
+ALTER TABLE book_info ADD COLUMN change_version BIGINT NOT NULL DEFAULT nextval('catalog_change_seq');
+ALTER TABLE book_info ADD COLUMN changed_at TIMESTAMPTZ NOT NULL DEFAULT clock_timestamp();
+ALTER TABLE library_book ADD COLUMN change_version BIGINT NOT NULL DEFAULT nextval('catalog_change_seq');
+ALTER TABLE library_book ADD COLUMN changed_at TIMESTAMPTZ NOT NULL DEFAULT clock_timestamp();
+
+CREATE INDEX ix_categories_change_version ON categories (change_version);
+CREATE INDEX ix_book_info_change_version ON book_info (change_version);
+CREATE INDEX ix_library_book_change_version ON library_book (change_version);
+
+-- Удалённые категории; экземпляры удаляются мягко и сами служат надгробиями со статусом DELETED
+CREATE TABLE category_tombstones (
+                                     category_id BIGINT PRIMARY KEY,
+                                     change_version BIGINT NOT NULL,
+                                     changed_at TIMESTAMPTZ NOT NULL DEFAULT clock_timestamp()
+);
+CREATE INDEX ix_category_tombstones_change_version ON category_tombstones (change_version);
+
+--changeset library:008-catalog-change-triggers splitStatements:false
+CREATE FUNCTION bump_catalog_change_version() RETURNS trigger AS $$
+BEGIN
+    NEW.change_version := nextval('catalog_change_seq');
+    NEW.changed_at := clock_timestamp();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_categories_change_version BEFORE INSERT OR UPDATE ON categories
+    FOR EACH ROW EXECUTE FUNCTION bump_catalog_change_version();
+CREATE TRIGGER trg_book_info_change_version BEFORE INSERT OR UPDATE ON book_info
+    FOR EACH ROW EXECUTE FUNCTION bump_catalog_change_version();
+CREATE TRIGGER trg_library_book_change_version BEFORE INSERT OR UPDATE ON library_book
+    FOR EACH ROW EXECUTE FUNCTION bump_catalog_change_version();
+
+CREATE FUNCTION record_category_tombstone() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO category_tombstones (category_id, change_version, changed_at)
+    VALUES (OLD.id, nextval('catalog_change_seq'), clock_timestamp())
+    ON CONFLICT (category_id) DO UPDATE
+        SET change_version = EXCLUDED.change_version, changed_at = EXCLUDED.changed_at;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_categories_tombstone AFTER DELETE ON categories
+    FOR EACH ROW EXECUTE FUNCTION record_category_tombstone();
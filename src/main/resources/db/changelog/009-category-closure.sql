@@ -0,0 +1,25 @@
+-- Таблица замыкания дерева категорий: пара (предок, потомок) для каждого пути, включая путь к самой себе
+CREATE TABLE category_closure (
+                                  ancestor_id INT NOT NULL REFERENCES categories(id) ON DELETE CASCADE,
+                                  descendant_id INT NOT NULL REFERENCES categories(id) ON DELETE CASCADE,
+                                  depth INT NOT NULL,
+                                  PRIMARY KEY (ancestor_id, descendant_id)
+);
+
+-- Поддерево читается по первичному ключу, предки — по этому индексу
+CREATE INDEX ix_category_closure_descendant ON category_closure (descendant_id, depth, ancestor_id);
+
+-- Поиск книг поддерева соединяет замыкание с book_info по категории
+CREATE INDEX IF NOT EXISTS ix_book_info_category ON book_info (category_id, id);
+
+-- Заполнение по существующим категориям; путь защищает от зацикленных данных, созданных до проверки циклов
+WITH RECURSIVE tree (ancestor_id, descendant_id, depth, path) AS (
+    SELECT id, id, 0, ARRAY[id] FROM categories
+    UNION ALL
+    SELECT tree.ancestor_id, c.id, tree.depth + 1, tree.path || c.id
+    FROM tree
+             JOIN categories c ON c.parent_id = tree.descendant_id
+    WHERE NOT c.id = ANY (tree.path)
+)
+INSERT INTO category_closure (ancestor_id, descendant_id, depth)
+SELECT ancestor_id, descendant_id, MIN(depth) FROM tree GROUP BY ancestor_id, descendant_id;
@@ -0,0 +1,47 @@
+--liquibase formatted sql
+
+--changeset library:010-catalog-change-horizon-columns
+-- Горизонт изменения: первый ещё не выданный номер транзакции сразу после выдачи версии.
+-- Триггеры назначают транзакции номер до выдачи версии, поэтому любая транзакция с меньшей версией
+-- получила номер раньше и он ниже горизонта: изменение устоялось, когда все транзакции ниже горизонта завершились.
+-- Строки, записанные до миграции, получают 0 и сразу считаются устоявшимися.
+ALTER TABLE categories ADD COLUMN change_horizon BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE book_info ADD COLUMN change_horizon BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE library_book ADD COLUMN change_horizon BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE category_tombstones ADD COLUMN change_horizon BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE categories DROP COLUMN changed_at;
+ALTER TABLE book_info DROP COLUMN changed_at;
+ALTER TABLE library_book DROP COLUMN changed_at;
+ALTER TABLE category_tombstones DROP COLUMN changed_at;
+
+--changeset library:010-catalog-change-horizon-triggers splitStatements:false
+-- Номер транзакции назначается явно до nextval: BEFORE-триггер срабатывает раньше, чем вставка строки
+-- назначит его сама, и без этого транзакция, начавшаяся с INSERT, могла бы получить номер выше
+-- уже записанного чужого горизонта. Горизонт читается отдельным выражением после nextval:
+-- в READ COMMITTED каждое выражение изменяющей функции берёт свежий снимок,
+-- а снимок самого оператора мог быть сделан раньше выдачи версии
+CREATE OR REPLACE FUNCTION bump_catalog_change_version() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_current_xact_id();
+    NEW.change_version := nextval('catalog_change_seq');
+    NEW.change_horizon := pg_snapshot_xmax(pg_current_snapshot())::text::bigint;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION record_category_tombstone() RETURNS trigger AS $$
+DECLARE
+    version BIGINT;
+    horizon BIGINT;
+BEGIN
+    PERFORM pg_current_xact_id();
+    version := nextval('catalog_change_seq');
+    horizon := pg_snapshot_xmax(pg_current_snapshot())::text::bigint;
+    INSERT INTO category_tombstones (category_id, change_version, change_horizon)
+    VALUES (OLD.id, version, horizon)
+    ON CONFLICT (category_id) DO UPDATE
+        SET change_version = EXCLUDED.change_version, change_horizon = EXCLUDED.change_horizon;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
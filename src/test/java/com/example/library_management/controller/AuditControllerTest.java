@@ -19,9 +19,11 @@ import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.List;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -54,7 +56,11 @@ class AuditControllerTest {
         when(auditService.getAllLogs()).thenReturn(List.of(log));
         when(auditMapper.toDTO(log)).thenReturn(dto);
 
-        mockMvc.perform(get("/api/audit/all"))
+        MvcResult result = mockMvc.perform(get("/api/audit/all"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(1L))
                 .andExpect(jsonPath("$[0].userId").value(2L))
@@ -67,7 +73,11 @@ class AuditControllerTest {
     void getAllLogs_shouldReturnNotFoundWhenEmpty() throws Exception {
         when(auditService.getAllLogs()).thenThrow(new EntityNotFoundException("Логи отсутствуют"));
 
-        mockMvc.perform(get("/api/audit/all"))
+        MvcResult result = mockMvc.perform(get("/api/audit/all"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.error").value("Логи отсутствуют"));
     }
@@ -84,7 +94,11 @@ class AuditControllerTest {
         when(auditService.getLogsByBookId(bookId)).thenReturn(List.of(log));
         when(auditMapper.toDTO(log)).thenReturn(dto);
 
-        mockMvc.perform(get("/api/audit/book/{bookId}", bookId))
+        MvcResult result = mockMvc.perform(get("/api/audit/book/{bookId}", bookId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(10L))
                 .andExpect(jsonPath("$[0].userId").value(2L))
@@ -99,7 +113,11 @@ class AuditControllerTest {
         when(auditService.getLogsByBookId(bookId))
                 .thenThrow(new EntityNotFoundException("Логов для книги с ID " + bookId + " не найдено"));
 
-        mockMvc.perform(get("/api/audit/book/{bookId}", bookId))
+        MvcResult result = mockMvc.perform(get("/api/audit/book/{bookId}", bookId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.error").value("Логов для книги с ID " + bookId + " не найдено"));
     }
@@ -119,7 +137,11 @@ class AuditControllerTest {
         when(auditService.getLogsByUser(user)).thenReturn(List.of(log));
         when(auditMapper.toDTO(log)).thenReturn(dto);
 
-        mockMvc.perform(get("/api/audit/user/{userId}", userId))
+        MvcResult result = mockMvc.perform(get("/api/audit/user/{userId}", userId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(20L))
                 .andExpect(jsonPath("$[0].userId").value(userId))
@@ -138,7 +160,11 @@ class AuditControllerTest {
         when(auditService.getLogsByUser(user))
                 .thenThrow(new EntityNotFoundException("Логов для пользователя с ID " + userId + " пока нет"));
 
-        mockMvc.perform(get("/api/audit/user/{userId}", userId))
+        MvcResult result = mockMvc.perform(get("/api/audit/user/{userId}", userId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.error").value("Логов для пользователя с ID " + userId + " пока нет"));
     }
@@ -0,0 +1,79 @@
+package com.example.library_management.controller;
+
+import com.example.library_management.dto.BatchOperationDTO.OperationType;
+import com.example.library_management.dto.BatchOperationResultDTO;
+import com.example.library_management.dto.BatchOperationResultDTO.OperationStatus;
+import com.example.library_management.dto.BatchResultDTO;
+import com.example.library_management.launch.Main;
+import com.example.library_management.model.User;
+import com.example.library_management.service.BatchService;
+import com.example.library_management.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ActiveProfiles("batch-test")
+@SpringBootTest
+@ContextConfiguration(classes = {Main.class, TestConfig.class})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class BatchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BatchService batchService;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    @WithMockUser(username = "admin1", roles = "ADMIN")
+    void executeBatch_returnsPerOperationResults() throws Exception {
+        User admin = new User();
+        admin.setUsername("admin1");
+        BatchResultDTO result = new BatchResultDTO(false, List.of(
+                new BatchOperationResultDTO(0, OperationType.RENT, OperationStatus.OK, "Книга успешно арендована"),
+                new BatchOperationResultDTO(1, OperationType.RETURN, OperationStatus.FAILED, "Книга не найдена"),
+                new BatchOperationResultDTO(2, OperationType.RENT, OperationStatus.SKIPPED, "Операция не выполнена: пакет откачен")));
+
+        when(userService.findByUsername("admin1")).thenReturn(admin);
+        when(batchService.execute(anyList(), eq(admin), eq(true))).thenReturn(result);
+
+        mockMvc.perform(post("/api/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"operations\": [" +
+                                "{\"type\": \"RENT\", \"bookId\": 1}," +
+                                "{\"type\": \"RETURN\", \"bookId\": 2}," +
+                                "{\"type\": \"RENT\", \"bookId\": 3}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.committed").value(false))
+                .andExpect(jsonPath("$.results[1].status").value("FAILED"))
+                .andExpect(jsonPath("$.results[2].status").value("SKIPPED"));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void executeBatch_emptyOperations_returnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"operations\": []}"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.library_management.controller;
 
 import com.example.library_management.dto.CategoryDTO;
+import com.example.library_management.dto.CategoryDetailsDTO;
+import com.example.library_management.dto.CategoryTreeNodeDTO;
 import com.example.library_management.exception.GlobalExceptionHandler;
 import com.example.library_management.launch.Main;
 import com.example.library_management.model.Category;
@@ -45,9 +47,7 @@ class CategoryControllerTest {
     @Test
     @WithMockUser(roles = "ADMIN")
     void getAllCategories_shouldReturnList() throws Exception {
-        Category cat = new Category();
-        cat.setId(1L);
-        cat.setName("Science");
+        CategoryDetailsDTO cat = new CategoryDetailsDTO(1L, "Science", null);
 
         when(categoryService.getAllCategories()).thenReturn(List.of(cat));
 
@@ -67,9 +67,7 @@ class CategoryControllerTest {
     @Test
     @WithMockUser(roles = "ADMIN")
     void getCategoryById_shouldReturnCategory() throws Exception {
-        Category cat = new Category();
-        cat.setId(2L);
-        cat.setName("History");
+        CategoryDetailsDTO cat = new CategoryDetailsDTO(2L, "History", null);
 
         when(categoryService.getCategoryById(2L)).thenReturn(cat);
 
@@ -143,16 +141,15 @@ class CategoryControllerTest {
     @Test
     @WithMockUser(roles = "ADMIN")
     void getSubcategories_shouldReturnList() throws Exception {
-        Category sub = new Category();
-        sub.setId(3L);
-        sub.setName("Subcategory");
+        CategoryDetailsDTO sub = new CategoryDetailsDTO(3L, "Subcategory", new CategoryDetailsDTO(1L, "Root", null));
 
         when(categoryService.getSubcategories(1L)).thenReturn(List.of(sub));
 
         mockMvc.perform(get("/api/categories/1/subcategories"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(3L))
-                .andExpect(jsonPath("$[0].name").value("Subcategory"));
+                .andExpect(jsonPath("$[0].name").value("Subcategory"))
+                .andExpect(jsonPath("$[0].parent.id").value(1L));
     }
 
     @Test
@@ -166,6 +163,42 @@ class CategoryControllerTest {
                 .andExpect(jsonPath("$.error").value("Категория с ID 999 не найдена"));
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getCategoryTree_shouldReturnNestedTree() throws Exception {
+        CategoryTreeNodeDTO child = new CategoryTreeNodeDTO(2L, "Child", List.of());
+        when(categoryService.getCategoryTree()).thenReturn(List.of(new CategoryTreeNodeDTO(1L, "Root", List.of(child))));
+
+        mockMvc.perform(get("/api/categories/tree"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Root"))
+                .andExpect(jsonPath("$[0].children[0].id").value(2L));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getSubtree_shouldReturnDescendantsByLevel() throws Exception {
+        when(categoryService.getSubtree(1L)).thenReturn(List.of(
+                new CategoryDTO(1L, "Root", null),
+                new CategoryDTO(3L, "Child", 1L),
+                new CategoryDTO(8L, "Grandchild", 3L)));
+
+        mockMvc.perform(get("/api/categories/1/subtree"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[2].parentId").value(3L));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getBooksInSubtree_invalidSize_shouldReturnBadRequest() throws Exception {
+        when(categoryService.getBooksInSubtree(1L, null, 0))
+                .thenThrow(new IllegalArgumentException("Размер страницы должен быть от 1 до 500"));
+
+        mockMvc.perform(get("/api/categories/1/books").param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void getCategoryById_notFound() throws Exception {
@@ -0,0 +1,92 @@
+package com.example.library_management.controller;
+
+import com.example.library_management.dto.FineEntryDTO;
+import com.example.library_management.dto.FineSummaryDTO;
+import com.example.library_management.exception.FineAccrualException;
+import com.example.library_management.launch.Main;
+import com.example.library_management.model.User;
+import com.example.library_management.service.FineService;
+import com.example.library_management.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ActiveProfiles("fine-test")
+@SpringBootTest
+@ContextConfiguration(classes = {Main.class, TestConfig.class})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class FineControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FineService fineService;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    @WithMockUser(username = "user1", roles = "USER")
+    void getMyFines_returnsSummary() throws Exception {
+        User user = new User();
+        user.setId(5L);
+        user.setUsername("user1");
+        FineSummaryDTO summary = new FineSummaryDTO(5L, new BigDecimal("20.00"), List.of(
+                new FineEntryDTO(12L, LocalDate.of(2025, 5, 10), new BigDecimal("10.00")),
+                new FineEntryDTO(12L, LocalDate.of(2025, 5, 11), new BigDecimal("10.00"))));
+
+        when(userService.findByUsername("user1")).thenReturn(user);
+        when(fineService.getUserFines(5L)).thenReturn(summary);
+
+        mockMvc.perform(get("/api/fines/me"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId").value(5))
+                .andExpect(jsonPath("$.totalAmount").value(20.00))
+                .andExpect(jsonPath("$.entries.length()").value(2));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getUserFines_asUser_returnsForbidden() throws Exception {
+        mockMvc.perform(get("/api/fines/user/{userId}", 5L))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void accrueFines_returnsAccruedCount() throws Exception {
+        when(fineService.accrueForDay(any())).thenReturn(3);
+
+        mockMvc.perform(post("/api/fines/accrue"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Начислено штрафов: 3"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void accrueFines_chunkFailure_returnsServerError() throws Exception {
+        when(fineService.accrueForDay(any()))
+                .thenThrow(new FineAccrualException("Ошибка начисления штрафов", new RuntimeException("db down")));
+
+        mockMvc.perform(post("/api/fines/accrue"))
+                .andExpect(status().isInternalServerError());
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.library_management.controller;
+
+import com.example.library_management.dto.HoldDTO;
+import com.example.library_management.launch.Main;
+import com.example.library_management.model.User;
+import com.example.library_management.service.HoldService;
+import com.example.library_management.service.UserService;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ActiveProfiles("hold-test")
+@SpringBootTest
+@ContextConfiguration(classes = {Main.class, TestConfig.class})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class HoldControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private UserService userService;
+
+    private User user() {
+        User user = new User();
+        user.setId(5L);
+        user.setUsername("user1");
+        when(userService.findByUsername("user1")).thenReturn(user);
+        return user;
+    }
+
+    @Test
+    @WithMockUser(username = "user1", roles = "USER")
+    void placeHold_returnsWaitingHold() throws Exception {
+        User user = user();
+        when(holdService.placeHold(user, 3L)).thenReturn(new HoldDTO(1L, 5L, 3L, "WAITING", null, null));
+
+        mockMvc.perform(post("/api/holds/{bookInfoId}", 3L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.status").value("WAITING"));
+    }
+
+    @Test
+    @WithMockUser(username = "user1", roles = "USER")
+    void placeHold_copiesAvailable_returnsBadRequest() throws Exception {
+        user();
+        when(holdService.placeHold(any(), eq(3L)))
+                .thenThrow(new IllegalStateException("Есть доступные экземпляры — оформите аренду"));
+
+        mockMvc.perform(post("/api/holds/{bookInfoId}", 3L))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "user1", roles = "USER")
+    void cancelHold_missing_returnsNotFound() throws Exception {
+        user();
+        doThrow(new EntityNotFoundException("Активная заявка с ID 9 не найдена"))
+                .when(holdService).cancelHold(eq(9L), any());
+
+        mockMvc.perform(delete("/api/holds/{holdId}", 9L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "user1", roles = "USER")
+    void getMyHolds_returnsList() throws Exception {
+        user();
+        when(holdService.getUserHolds(5L)).thenReturn(List.of(new HoldDTO(1L, 5L, 3L, "WAITING", null, null)));
+
+        mockMvc.perform(get("/api/holds/me"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].bookInfoId").value(3));
+    }
+}
@@ -3,7 +3,9 @@ package com.example.library_management.controller;
 import com.example.library_management.dto.LibraryBookDTO;
 import com.example.library_management.dto.NewLibraryBookRequestDTO;
 import com.example.library_management.dto.UpdateBookInfoDTO;
+import com.example.library_management.exception.DatabaseUnavailableException;
 import com.example.library_management.launch.Main;
+import com.example.library_management.service.BookAvailabilityService;
 import com.example.library_management.service.LibraryBookService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
@@ -39,6 +41,9 @@ class LibraryBookControllerTest {
     @Autowired
     private LibraryBookService libraryBookService;
 
+    @Autowired
+    private BookAvailabilityService bookAvailabilityService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -118,6 +123,36 @@ class LibraryBookControllerTest {
                 .andExpect(jsonPath("$.error").value("Книга с ID 99 не найдена"));
     }
 
+    @Test
+    @WithMockUser(roles = "USER")
+    void getBookById_databaseUnavailable_returnsServiceUnavailable() throws Exception {
+        when(libraryBookService.getBookDTOById(7L)).thenThrow(new DatabaseUnavailableException(4_200L));
+
+        mockMvc.perform(get("/api/books/{id}", 7L))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getBooksByIds_returnsBooksInRequestOrder() throws Exception {
+        when(libraryBookService.getBooksByIds(List.of(3L, 1L))).thenReturn(List.of(
+                new LibraryBookDTO(3L, 333333L, "RENTED", 2L),
+                new LibraryBookDTO(1L, 111111L, "AVAILABLE", 1L)));
+
+        mockMvc.perform(get("/api/books/by-ids").param("ids", "3,1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(3L))
+                .andExpect(jsonPath("$[1].id").value(1L));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getBooksByIds_missingIds_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/books/by-ids"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void updateBookInfo_returnsSuccessMessage() throws Exception {
@@ -174,4 +209,15 @@ class LibraryBookControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.error").value("Нельзя удалить книгу, она сейчас в аренде"));
     }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getAvailableCount_returnsCounter() throws Exception {
+        when(bookAvailabilityService.getAvailableCount(3L)).thenReturn(2);
+
+        mockMvc.perform(get("/api/books/info/{bookInfoId}/available", 3L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bookInfoId").value(3L))
+                .andExpect(jsonPath("$.availableCount").value(2));
+    }
 }
@@ -0,0 +1,46 @@
+package com.example.library_management.controller;
+
+import com.example.library_management.launch.Main;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ActiveProfiles("monitoring-test")
+@SpringBootTest
+@ContextConfiguration(classes = {Main.class, TestConfig.class})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class MonitoringControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getLaneStats_returnsPatronAndReportingLanes() throws Exception {
+        mockMvc.perform(get("/api/monitoring/lanes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].lane").value("PATRON"))
+                .andExpect(jsonPath("$[0].connectionLimit").value(20))
+                .andExpect(jsonPath("$[0].executorThreads").doesNotExist())
+                .andExpect(jsonPath("$[1].lane").value("REPORTING"))
+                .andExpect(jsonPath("$[1].connectionLimit").value(4))
+                .andExpect(jsonPath("$[1].executorThreads").value(4));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getLaneStats_asUser_returnsForbidden() throws Exception {
+        mockMvc.perform(get("/api/monitoring/lanes"))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.library_management.controller;
 
+import com.example.library_management.dto.BatchReturnResultDTO;
+import com.example.library_management.dto.KeysetPageDTO;
 import com.example.library_management.dto.RentalDTO;
 import com.example.library_management.launch.Main;
 import com.example.library_management.mapper.RentalMapper;
@@ -12,11 +14,13 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
@@ -80,6 +84,60 @@ class RentalControllerTest {
     }
 
 
+    @Test
+    @WithMockUser(username = "user1", roles = "USER")
+    void rentAnyCopy_copyAvailable_returnsRental() throws Exception {
+        Long bookInfoId = 4L;
+        String username = "user1";
+
+        User user = new User();
+        user.setUsername(username);
+        RentalDTO dto = new RentalDTO(1L, 2L, 12L, LocalDateTime.now(), LocalDateTime.now().plusDays(7), null);
+
+        when(userService.findByUsername(username)).thenReturn(user);
+        when(rentalService.rentAnyCopy(user, bookInfoId)).thenReturn(dto);
+
+        mockMvc.perform(post("/api/rentals/rent/title/{bookInfoId}", bookInfoId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.libraryBookId").value(12L));
+    }
+
+    @Test
+    @WithMockUser(username = "user2", roles = "USER")
+    void rentBook_retryWithSameIdempotencyKey_replaysFirstResponse() throws Exception {
+        Long bookId = 91L;
+        User user = new User();
+        user.setUsername("user2");
+
+        when(userService.findByUsername("user2")).thenReturn(user);
+
+        mockMvc.perform(post("/api/rentals/rent/{bookId}", bookId).header("Idempotency-Key", "rent-91"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+        mockMvc.perform(post("/api/rentals/rent/{bookId}", bookId).header("Idempotency-Key", "rent-91"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(content().string("Книга успешно арендована"));
+
+        verify(rentalService, times(1)).rentBook(user, bookId);
+    }
+
+    @Test
+    @WithMockUser(username = "user2", roles = "USER")
+    void rentBook_sameIdempotencyKeyForOtherBook_returnsBadRequest() throws Exception {
+        User user = new User();
+        user.setUsername("user2");
+
+        when(userService.findByUsername("user2")).thenReturn(user);
+
+        mockMvc.perform(post("/api/rentals/rent/{bookId}", 92L).header("Idempotency-Key", "rent-92"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/rentals/rent/{bookId}", 93L).header("Idempotency-Key", "rent-92"))
+                .andExpect(status().isBadRequest());
+
+        verify(rentalService, never()).rentBook(user, 93L);
+    }
+
     @Test
     @WithMockUser(username = "user1", roles = "USER")
     void returnBook_validBookId_returnsSuccessMessage() throws Exception {
@@ -112,6 +170,35 @@ class RentalControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @WithMockUser(username = "admin1", roles = "ADMIN")
+    void returnBooksBatch_returnsPerItemResults() throws Exception {
+        User staff = new User();
+        staff.setUsername("admin1");
+        List<BatchReturnResultDTO> results = List.of(
+                new BatchReturnResultDTO(123456L, 1L, BatchReturnResultDTO.ReturnStatus.RETURNED, "Книга успешно возвращена"),
+                new BatchReturnResultDTO(654321L, null, BatchReturnResultDTO.ReturnStatus.NOT_FOUND, "Книга не найдена"));
+
+        when(userService.findByUsername("admin1")).thenReturn(staff);
+        when(rentalService.returnBooksBySerialNumbers(List.of(123456L, 654321L), staff)).thenReturn(results);
+
+        mockMvc.perform(post("/api/rentals/return/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"serialNumbers\": [123456, 654321]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("RETURNED"))
+                .andExpect(jsonPath("$[1].status").value("NOT_FOUND"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void returnBooksBatch_emptyList_returnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/rentals/return/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"serialNumbers\": []}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void getAllRentals_returnsRentalDTOList() throws Exception {
@@ -121,7 +208,11 @@ class RentalControllerTest {
         when(rentalService.getAllRentals()).thenReturn(List.of(rental));
         when(rentalMapper.toDTO(any(Rental.class))).thenReturn(dto);
 
-        mockMvc.perform(get("/api/rentals/all"))
+        MvcResult result = mockMvc.perform(get("/api/rentals/all"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(dto.getId()));
     }
@@ -194,7 +285,11 @@ class RentalControllerTest {
 
         when(rentalService.getOverdueRentalsByUser(userId)).thenReturn(List.of(dto));
 
-        mockMvc.perform(get("/api/rentals/overdue/{userId}", userId))
+        MvcResult result = mockMvc.perform(get("/api/rentals/overdue/{userId}", userId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(dto.getId()));
     }
@@ -207,7 +302,35 @@ class RentalControllerTest {
         when(rentalService.getOverdueRentalsByUser(userId))
                 .thenThrow(new EntityNotFoundException("Просроченные аренды для пользователя не найдены"));
 
-        mockMvc.perform(get("/api/rentals/overdue/{userId}", userId))
+        MvcResult result = mockMvc.perform(get("/api/rentals/overdue/{userId}", userId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getAllOverdueRentals_returnsPage() throws Exception {
+        RentalDTO dto = new RentalDTO(7L, 2L, 3L, LocalDateTime.now().minusDays(10), LocalDateTime.now().minusDays(3), null);
+
+        when(rentalService.getOverdueRentals(null, 1)).thenReturn(new KeysetPageDTO<>(List.of(dto), 7L));
+
+        MvcResult result = mockMvc.perform(get("/api/rentals/overdue").param("size", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(7))
+                .andExpect(jsonPath("$.nextAfterId").value(7));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getAllOverdueRentals_asUser_returnsForbidden() throws Exception {
+        mockMvc.perform(get("/api/rentals/overdue"))
+                .andExpect(status().isForbidden());
+    }
 }
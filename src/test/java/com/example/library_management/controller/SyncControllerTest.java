@@ -0,0 +1,67 @@
+package com.example.library_management.controller;
+
+import com.example.library_management.dto.BookInfoChangeDTO;
+import com.example.library_management.dto.CatalogSyncDTO;
+import com.example.library_management.dto.CategoryChangeDTO;
+import com.example.library_management.dto.LibraryBookChangeDTO;
+import com.example.library_management.launch.Main;
+import com.example.library_management.service.CatalogSyncService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ActiveProfiles("sync-test")
+@SpringBootTest
+@ContextConfiguration(classes = {Main.class, TestConfig.class})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class SyncControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CatalogSyncService catalogSyncService;
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getChanges_returnsDeltasWithTombstones() throws Exception {
+        CatalogSyncDTO changes = new CatalogSyncDTO(
+                List.of(new CategoryChangeDTO(3L, null, null, true, 101L)),
+                List.of(new BookInfoChangeDTO(1L, "Война и мир", "Лев Толстой", 2L, 102L)),
+                List.of(new LibraryBookChangeDTO(10L, 123456L, "DELETED", 1L, true, 103L)),
+                103L, false);
+
+        when(catalogSyncService.getChanges(100L, 500)).thenReturn(changes);
+
+        mockMvc.perform(get("/api/sync").param("since", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.categories[0].deleted").value(true))
+                .andExpect(jsonPath("$.bookInfos[0].title").value("Война и мир"))
+                .andExpect(jsonPath("$.books[0].status").value("DELETED"))
+                .andExpect(jsonPath("$.nextSince").value(103))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getChanges_invalidLimit_returnsBadRequest() throws Exception {
+        when(catalogSyncService.getChanges(0L, 5000))
+                .thenThrow(new IllegalArgumentException("Размер выборки должен быть от 1 до 1000"));
+
+        mockMvc.perform(get("/api/sync").param("limit", "5000"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -4,7 +4,13 @@ import com.example.library_management.mapper.AuditMapper;
 import com.example.library_management.mapper.UserMapper;
 import com.example.library_management.mapper.RentalMapper;
 import com.example.library_management.service.AuditService;
+import com.example.library_management.service.BatchService;
+import com.example.library_management.service.BookAvailabilityService;
+import com.example.library_management.service.CatalogSnapshotService;
+import com.example.library_management.service.CatalogSyncService;
 import com.example.library_management.service.CategoryService;
+import com.example.library_management.service.FineService;
+import com.example.library_management.service.HoldService;
 import com.example.library_management.service.LibraryBookService;
 import com.example.library_management.service.UserService;
 import com.example.library_management.service.RentalService;
@@ -50,6 +56,36 @@ public class TestConfig {
         return Mockito.mock(CategoryService.class);
     }
 
+    @Bean
+    public BookAvailabilityService bookAvailabilityService() {
+        return Mockito.mock(BookAvailabilityService.class);
+    }
+
+    @Bean
+    public FineService fineService() {
+        return Mockito.mock(FineService.class);
+    }
+
+    @Bean
+    public HoldService holdService() {
+        return Mockito.mock(HoldService.class);
+    }
+
+    @Bean
+    public CatalogSyncService catalogSyncService() {
+        return Mockito.mock(CatalogSyncService.class);
+    }
+
+    @Bean
+    public CatalogSnapshotService catalogSnapshotService() {
+        return Mockito.mock(CatalogSnapshotService.class);
+    }
+
+    @Bean
+    public BatchService batchService() {
+        return Mockito.mock(BatchService.class);
+    }
+
     @Bean
     public AuditService auditService() {
         return Mockito.mock(AuditService.class);
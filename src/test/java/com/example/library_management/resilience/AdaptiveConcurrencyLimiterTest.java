@@ -0,0 +1,123 @@
+package com.example.library_management.resilience;
+
+import com.example.library_management.resilience.AdaptiveConcurrencyLimiter.Priority;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long BASE_RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    void lowPriorityIsShedBeforeCritical() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(Priority.LOW));
+        }
+        assertFalse(limiter.tryAcquire(Priority.LOW));
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire(Priority.NORMAL));
+        }
+        assertFalse(limiter.tryAcquire(Priority.NORMAL));
+        assertTrue(limiter.tryAcquire(Priority.CRITICAL));
+        assertFalse(limiter.tryAcquire(Priority.CRITICAL));
+        assertEquals(10, limiter.getInFlight());
+    }
+
+    @Test
+    void limitGrowsWhileLatencyStaysFlatUnderLoad() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 200);
+
+        sample(limiter, BASE_RTT, 20, 50);
+
+        assertTrue(limiter.getLimit() > 20);
+    }
+
+    @Test
+    void limitShrinksWhenLatencyRises() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(50, 4, 200);
+        sample(limiter, BASE_RTT, 50, 20);
+        int before = limiter.getLimit();
+
+        sample(limiter, BASE_RTT * 20, limiter.getLimit(), 50);
+
+        assertTrue(limiter.getLimit() < before);
+        assertTrue(limiter.getLimit() >= 4);
+    }
+
+    @Test
+    void limitDoesNotGrowWhenLightlyLoaded() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 200);
+
+        sample(limiter, BASE_RTT, 2, 50);
+
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    void filter_saturated_returnsServiceUnavailableWithRetryAfter() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1);
+        assertTrue(limiter.tryAcquire(Priority.CRITICAL));
+        AdmissionControlFilter filter = new AdmissionControlFilter(limiter);
+        FilterChain chain = mock(FilterChain.class);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/books/all"), response, chain);
+
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+        verify(chain, never()).doFilter(any(), any());
+    }
+
+    @Test
+    void filter_releasesPermitAfterRequest() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1);
+        AdmissionControlFilter filter = new AdmissionControlFilter(limiter);
+        FilterChain chain = mock(FilterChain.class);
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/rentals/rent/1"), new MockHttpServletResponse(), chain);
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/rentals/rent/2"), new MockHttpServletResponse(), chain);
+
+        verify(chain, times(2)).doFilter(any(), any());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void filter_skipsEventStream() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1);
+        assertTrue(limiter.tryAcquire(Priority.CRITICAL));
+        AdmissionControlFilter filter = new AdmissionControlFilter(limiter);
+        FilterChain chain = mock(FilterChain.class);
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/books/stream"), new MockHttpServletResponse(), chain);
+
+        verify(chain).doFilter(any(), any());
+    }
+
+    @Test
+    void priorityOf_classifiesRentalsAndReports() {
+        assertEquals(Priority.CRITICAL, AdmissionControlFilter.priorityOf(new MockHttpServletRequest("POST", "/api/rentals/return/5")));
+        assertEquals(Priority.CRITICAL, AdmissionControlFilter.priorityOf(new MockHttpServletRequest("POST", "/api/rentals/rent/5")));
+        assertEquals(Priority.CRITICAL, AdmissionControlFilter.priorityOf(new MockHttpServletRequest("POST", "/api/rentals/rent/title/3")));
+        assertEquals(Priority.NORMAL, AdmissionControlFilter.priorityOf(new MockHttpServletRequest("POST", "/api/rentals/return/batch")));
+        assertEquals(Priority.LOW, AdmissionControlFilter.priorityOf(new MockHttpServletRequest("GET", "/api/audit/all")));
+        assertEquals(Priority.LOW, AdmissionControlFilter.priorityOf(new MockHttpServletRequest("GET", "/api/rentals/all")));
+        assertEquals(Priority.NORMAL, AdmissionControlFilter.priorityOf(new MockHttpServletRequest("GET", "/api/books/1")));
+    }
+
+    private static void sample(AdaptiveConcurrencyLimiter limiter, long rttNanos, int inFlight, int count) {
+        for (int i = 0; i < count; i++) {
+            assertTrue(limiter.tryAcquire(Priority.CRITICAL));
+            limiter.release(rttNanos, inFlight);
+        }
+    }
+}
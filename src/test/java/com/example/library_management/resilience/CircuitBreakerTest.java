@@ -0,0 +1,153 @@
+package com.example.library_management.resilience;
+
+import com.example.library_management.exception.DatabaseUnavailableException;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000L);
+    private final CircuitBreaker breaker = new CircuitBreaker("database", 3, 10_000L, now::get);
+
+    @Test
+    void opensAfterConsecutiveFailuresAndRejectsCalls() {
+        breaker.onFailure();
+        breaker.onFailure();
+        assertTrue(breaker.tryAcquire());
+
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(10_000L, breaker.getRetryAfterMs());
+    }
+
+    @Test
+    void successResetsFailureCount() {
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+
+        assertTrue(breaker.isClosed());
+    }
+
+    @Test
+    void halfOpenAllowsSingleProbeThatClosesOnSuccess() {
+        open();
+        now.addAndGet(10_000L);
+
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.onSuccess();
+
+        assertTrue(breaker.isClosed());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void failedProbeReopens() {
+        open();
+        now.addAndGet(10_000L);
+        assertTrue(breaker.tryAcquire());
+
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void dataSource_openBreaker_failsFastWithoutTouchingDatabase() throws SQLException {
+        DataSource target = mock(DataSource.class);
+        CircuitBreakingDataSource dataSource = new CircuitBreakingDataSource(target, breaker, 2_000L);
+        open();
+
+        SQLTransientConnectionException e = assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        assertInstanceOf(DatabaseUnavailableException.class, e.getCause());
+        verifyNoInteractions(target);
+    }
+
+    @Test
+    void dataSource_connectionFailuresOpenBreaker() throws SQLException {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenThrow(new SQLException("Connection refused"));
+        CircuitBreakingDataSource dataSource = new CircuitBreakingDataSource(target, breaker, 2_000L);
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(SQLException.class, dataSource::getConnection);
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        verify(target, times(3)).getConnection();
+    }
+
+    @Test
+    void dataSource_successfulConnectionKeepsBreakerClosed() throws SQLException {
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+        CircuitBreakingDataSource dataSource = new CircuitBreakingDataSource(target, breaker, 2_000L);
+
+        dataSource.getConnection().close();
+
+        verify(connection).close();
+        assertTrue(breaker.isClosed());
+    }
+
+    @Test
+    void dataSource_statementTimeoutsOnLiveConnectionOpenBreaker() throws SQLException {
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement("SELECT 1")).thenReturn(statement);
+        // SQLState 57014: оператор отменён по statement_timeout
+        when(statement.executeQuery()).thenThrow(new SQLException("canceling statement due to statement timeout", "57014"));
+        CircuitBreakingDataSource dataSource = new CircuitBreakingDataSource(target, breaker, 2_000L);
+        PreparedStatement observed = dataSource.getConnection().prepareStatement("SELECT 1");
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(SQLException.class, observed::executeQuery);
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void dataSource_dataErrorsDoNotCountAsFailures() throws SQLException {
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement("INSERT")).thenReturn(statement);
+        // SQLState 23505: нарушение уникальности
+        when(statement.executeUpdate()).thenThrow(new SQLException("duplicate key value", "23505"));
+        CircuitBreakingDataSource dataSource = new CircuitBreakingDataSource(target, breaker, 2_000L);
+        PreparedStatement observed = dataSource.getConnection().prepareStatement("INSERT");
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(SQLException.class, observed::executeUpdate);
+        }
+
+        assertTrue(breaker.isClosed());
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.library_management.resilience;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LanePartitionedDataSourceTest {
+
+    private DataSource target;
+    private LanePartitionedDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        dataSource = new LanePartitionedDataSource(target,
+                Map.of(WorkloadLane.PATRON, 2, WorkloadLane.REPORTING, 1), 50L);
+    }
+
+    @Test
+    void reportingLaneExhausted_patronStillGetsConnections() throws Exception {
+        Connection[] report = new Connection[1];
+        WorkloadLane.REPORTING.run(() -> report[0] = connect());
+
+        WorkloadLane.REPORTING.run(() ->
+                assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection()));
+        Connection patron = dataSource.getConnection();
+
+        assertNotNull(patron);
+        assertEquals(1, dataSource.getInUse(WorkloadLane.REPORTING));
+        assertEquals(1, dataSource.getTimeouts(WorkloadLane.REPORTING));
+        assertEquals(1, dataSource.getInUse(WorkloadLane.PATRON));
+        report[0].close();
+        assertEquals(0, dataSource.getInUse(WorkloadLane.REPORTING));
+    }
+
+    @Test
+    void close_twice_releasesOnce() throws Exception {
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+
+        first.close();
+        first.close();
+
+        assertEquals(1, dataSource.getInUse(WorkloadLane.PATRON));
+        second.close();
+        assertEquals(0, dataSource.getInUse(WorkloadLane.PATRON));
+    }
+
+    @Test
+    void targetFailure_releasesPlace() throws Exception {
+        when(target.getConnection()).thenThrow(new SQLTransientConnectionException("нет связи"));
+
+        assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+
+        assertEquals(0, dataSource.getInUse(WorkloadLane.PATRON));
+    }
+
+    @Test
+    void laneExecutor_runsTasksInItsLane() throws Exception {
+        LaneExecutor executor = new LaneExecutor(WorkloadLane.REPORTING, 1, 1);
+        try {
+            WorkloadLane lane = CompletableFuture.supplyAsync(WorkloadLane::current, executor).get(5, TimeUnit.SECONDS);
+
+            assertEquals(WorkloadLane.REPORTING, lane);
+            assertEquals(WorkloadLane.PATRON, WorkloadLane.current());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void laneExecutor_fullQueue_rejects() {
+        LaneExecutor executor = new LaneExecutor(WorkloadLane.REPORTING, 1, 1);
+        CompletableFuture<Void> blocker = new CompletableFuture<>();
+        try {
+            executor.execute(blocker::join);
+            executor.execute(() -> { });
+
+            assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+            assertEquals(1, executor.getRejected());
+        } finally {
+            blocker.complete(null);
+            executor.shutdown();
+        }
+    }
+
+    private Connection connect() {
+        try {
+            return dataSource.getConnection();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
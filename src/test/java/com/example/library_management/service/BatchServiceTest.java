@@ -0,0 +1,107 @@
+package com.example.library_management.service;
+
+import com.example.library_management.dto.BatchOperationDTO;
+import com.example.library_management.dto.BatchOperationDTO.OperationType;
+import com.example.library_management.dto.BatchOperationResultDTO.OperationStatus;
+import com.example.library_management.dto.BatchResultDTO;
+import com.example.library_management.dto.CategoryDTO;
+import com.example.library_management.model.User;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class BatchServiceTest {
+
+    @Mock
+    private LibraryBookService libraryBookService;
+
+    @Mock
+    private RentalService rentalService;
+
+    @Mock
+    private CategoryService categoryService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BatchService batchService;
+
+    private final User user = new User();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        batchService = new BatchService(libraryBookService, rentalService, categoryService, transactionManager);
+        user.setUsername("admin1");
+    }
+
+    @Test
+    void execute_allOperationsSucceed_commits() {
+        List<BatchOperationDTO> operations = List.of(
+                operation(OperationType.ADD_BOOK, null),
+                operation(OperationType.RENT, 5L),
+                operation(OperationType.UPDATE_CATEGORY, null));
+
+        BatchResultDTO result = batchService.execute(operations, user, true);
+
+        assertTrue(result.isCommitted());
+        assertTrue(result.getResults().stream().allMatch(r -> r.getStatus() == OperationStatus.OK));
+        verify(libraryBookService).addFullBook("Черногория", "Борис Борисов", 1L, 666661L);
+        verify(rentalService).rentBook(user, 5L);
+        verify(categoryService).updateCategory(any(CategoryDTO.class));
+        verify(transactionManager).commit(argThat(status -> !status.isRollbackOnly()));
+    }
+
+    @Test
+    void execute_failure_rollsBackAndSkipsRest() {
+        doThrow(new EntityNotFoundException("Книга не найдена")).when(rentalService).returnBook(7L, user);
+        List<BatchOperationDTO> operations = List.of(
+                operation(OperationType.RENT, 5L),
+                operation(OperationType.RETURN, 7L),
+                operation(OperationType.RENT, 9L));
+
+        BatchResultDTO result = batchService.execute(operations, user, false);
+
+        assertFalse(result.isCommitted());
+        assertEquals(OperationStatus.OK, result.getResults().get(0).getStatus());
+        assertEquals(OperationStatus.FAILED, result.getResults().get(1).getStatus());
+        assertEquals("Книга не найдена", result.getResults().get(1).getMessage());
+        assertEquals(OperationStatus.SKIPPED, result.getResults().get(2).getStatus());
+        verify(rentalService, never()).rentBook(user, 9L);
+        // Менеджер транзакций откатывает статус, помеченный rollback-only, вместо коммита
+        verify(transactionManager).commit(argThat(TransactionStatus::isRollbackOnly));
+    }
+
+    @Test
+    void execute_adminOperationByUser_throwsBeforeTransaction() {
+        List<BatchOperationDTO> operations = List.of(operation(OperationType.ADD_BOOK, null));
+
+        assertThrows(SecurityException.class, () -> batchService.execute(operations, user, false));
+        verifyNoInteractions(transactionManager, libraryBookService);
+    }
+
+    @Test
+    void execute_missingBookId_throwsBeforeTransaction() {
+        List<BatchOperationDTO> operations = List.of(operation(OperationType.RENT, null));
+
+        assertThrows(IllegalArgumentException.class, () -> batchService.execute(operations, user, false));
+        verifyNoInteractions(rentalService);
+    }
+
+    private static BatchOperationDTO operation(OperationType type, Long bookId) {
+        return new BatchOperationDTO(type, bookId, "Черногория", "Борис Борисов", 1L, 666661L, "Юмор", null);
+    }
+}
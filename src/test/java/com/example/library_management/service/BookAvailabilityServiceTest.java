@@ -0,0 +1,69 @@
+package com.example.library_management.service;
+
+import com.example.library_management.dao.BookAvailabilityDAO;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BookAvailabilityServiceTest {
+
+    @Mock
+    private BookAvailabilityDAO bookAvailabilityDAO;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BookAvailabilityService bookAvailabilityService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        bookAvailabilityService = new BookAvailabilityService(bookAvailabilityDAO, transactionManager);
+    }
+
+    @Test
+    void getAvailableCount_existingCounter_returnsValue() {
+        when(bookAvailabilityDAO.findAvailableCount(1L)).thenReturn(Optional.of(3));
+
+        assertEquals(3, bookAvailabilityService.getAvailableCount(1L));
+    }
+
+    @Test
+    void getAvailableCount_missingCounter_throwsException() {
+        when(bookAvailabilityDAO.findAvailableCount(99L)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> bookAvailabilityService.getAvailableCount(99L));
+    }
+
+    @Test
+    void reconcile_recalculatesOnlyDriftedCounters() {
+        when(bookAvailabilityDAO.findDriftedBookInfoIds()).thenReturn(List.of(2L, 7L));
+
+        bookAvailabilityService.reconcile();
+
+        verify(bookAvailabilityDAO).recalculate(2L);
+        verify(bookAvailabilityDAO).recalculate(7L);
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void reconcile_noDrift_doesNothing() {
+        when(bookAvailabilityDAO.findDriftedBookInfoIds()).thenReturn(List.of());
+
+        bookAvailabilityService.reconcile();
+
+        verify(bookAvailabilityDAO, never()).recalculate(any());
+    }
+}
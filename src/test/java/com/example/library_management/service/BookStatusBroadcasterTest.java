@@ -0,0 +1,166 @@
+package com.example.library_management.service;
+
+import com.example.library_management.event.BookStatusChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookStatusBroadcasterTest {
+
+    private BookStatusBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new BookStatusBroadcaster(4, 60_000L, 5_000L, Runnable::run);
+    }
+
+    @Test
+    void newSubscriber_receivesOnlyLaterEvents() {
+        broadcaster.publish(event(1L, "RENTED"));
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.register(emitter, null, () -> { });
+
+        broadcaster.publish(event(2L, "AVAILABLE"));
+
+        assertEquals(1, emitter.frames.size());
+        assertTrue(emitter.frames.get(0).contains("id:" + broadcaster.eventId(2)));
+        assertTrue(emitter.frames.get(0).contains("event:" + BookStatusBroadcaster.STATUS_EVENT));
+    }
+
+    @Test
+    void resumeFromLastEventId_replaysMissedEvents() {
+        broadcaster.publish(event(1L, "RENTED"));
+        broadcaster.publish(event(2L, "RENTED"));
+        broadcaster.publish(event(3L, "RENTED"));
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.register(emitter, broadcaster.eventId(1), () -> { });
+
+        assertEquals(2, emitter.frames.size());
+        assertTrue(emitter.frames.get(0).contains("id:" + broadcaster.eventId(2)));
+        assertTrue(emitter.frames.get(1).contains("id:" + broadcaster.eventId(3)));
+    }
+
+    @Test
+    void resumeBeyondBuffer_sendsReset() {
+        for (long id = 1; id <= 6; id++) {
+            broadcaster.publish(event(id, "RENTED"));
+        }
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.register(emitter, broadcaster.eventId(1), () -> { });
+
+        assertEquals(1, emitter.frames.size());
+        assertTrue(emitter.frames.get(0).contains("event:" + BookStatusBroadcaster.RESET_EVENT));
+        assertEquals(0, broadcaster.getSubscriberCount());
+    }
+
+    @Test
+    void lastEventIdFromAnotherRun_sendsReset() {
+        broadcaster.publish(event(1L, "RENTED"));
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.register(emitter, "previous:1", () -> { });
+
+        assertTrue(emitter.frames.get(0).contains("event:" + BookStatusBroadcaster.RESET_EVENT));
+    }
+
+    @Test
+    void failedWrite_completesEmitterWithError() {
+        FailingEmitter emitter = new FailingEmitter();
+        broadcaster.register(emitter, null, () -> { });
+
+        broadcaster.publish(event(1L, "RENTED"));
+
+        assertEquals(0, broadcaster.getSubscriberCount());
+        assertTrue(emitter.failure instanceof IOException);
+    }
+
+    @Test
+    void stalledWrite_closesConnectionAndCompletesEmitter() throws Exception {
+        ExecutorService dispatcher = Executors.newSingleThreadExecutor();
+        StalledEmitter emitter = new StalledEmitter();
+        try {
+            BookStatusBroadcaster stalling = new BookStatusBroadcaster(4, 60_000L, 10L, dispatcher);
+            AtomicInteger closed = new AtomicInteger();
+            stalling.register(emitter, null, closed::incrementAndGet);
+            stalling.publish(event(1L, "RENTED"));
+            assertTrue(emitter.writing.await(5, TimeUnit.SECONDS));
+
+            Thread.sleep(50);
+            stalling.expireStalledWrites();
+            stalling.expireStalledWrites();
+
+            assertEquals(0, stalling.getSubscriberCount());
+            assertEquals(1, closed.get());
+            assertNotNull(emitter.failure);
+        } finally {
+            emitter.release.countDown();
+            dispatcher.shutdownNow();
+        }
+    }
+
+    private static BookStatusChangedEvent event(Long bookId, String status) {
+        return new BookStatusChangedEvent(bookId, 1L, status);
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> frames = new ArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            frames.add(builder.build().stream()
+                    .map(part -> String.valueOf(part.getData()))
+                    .collect(Collectors.joining()));
+        }
+    }
+
+    private static class FailingEmitter extends SseEmitter {
+        volatile Throwable failure;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            throw new IOException("Broken pipe");
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            failure = ex;
+        }
+    }
+
+    // Запись висит, пока тест её не отпустит; прерывание потока её не снимает
+    private static class StalledEmitter extends FailingEmitter {
+        private final CountDownLatch writing = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            writing.countDown();
+            boolean interrupted = false;
+            while (release.getCount() > 0) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("Соединение закрыто");
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.library_management.service;
+
+import com.example.library_management.dto.BookInfoChangeDTO;
+import com.example.library_management.dto.CategoryChangeDTO;
+import com.example.library_management.dto.LibraryBookChangeDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotFileTest {
+
+    @TempDir
+    Path directory;
+
+    private CatalogSnapshotFile snapshotFile;
+    private CatalogSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        snapshotFile = new CatalogSnapshotFile(directory.resolve("catalog.snapshot"));
+        snapshot = CatalogSnapshot.EMPTY.apply(
+                List.of(new CategoryChangeDTO(1L, "Проза", null, false, 1L),
+                        new CategoryChangeDTO(2L, "Роман", 1L, false, 2L)),
+                List.of(new BookInfoChangeDTO(1L, "Война и мир", null, 2L, 3L)),
+                List.of(new LibraryBookChangeDTO(10L, 123456L, "RENTED", 1L, false, 4L)),
+                3L, new long[]{4L});
+    }
+
+    @Test
+    void writeAndRead_roundTripsAllColumns() throws IOException {
+        snapshotFile.write(snapshot);
+
+        CatalogSnapshot restored = snapshotFile.read().orElseThrow();
+
+        assertEquals(3L, restored.cursor);
+        assertArrayEquals(new long[]{4L}, restored.pendingVersions);
+        assertEquals(2L, restored.category(restored.indexOfCategory(2L)).getId());
+        assertEquals(1L, restored.category(restored.indexOfCategory(2L)).getParentId());
+        assertNull(restored.category(restored.indexOfCategory(1L)).getParentId());
+        assertEquals("Война и мир", restored.bookInfo(0).getTitle());
+        assertNull(restored.bookInfo(0).getAuthor());
+        assertEquals("RENTED", restored.book(restored.indexOfBook(10L)).getStatus());
+        assertEquals(123456L, restored.book(0).getSerialNumber());
+    }
+
+    @Test
+    void read_corruptedFile_returnsEmpty() throws IOException {
+        snapshotFile.write(snapshot);
+        Path path = directory.resolve("catalog.snapshot");
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(path, bytes);
+
+        assertTrue(snapshotFile.read().isEmpty());
+    }
+
+    @Test
+    void read_unknownBookStatus_returnsEmpty() throws IOException {
+        snapshotFile.write(snapshot);
+        Path path = directory.resolve("catalog.snapshot");
+        byte[] bytes = Files.readAllBytes(path);
+        // Статус из таблицы заголовка, которого нет в текущем перечислении; контрольная сумма пересчитана
+        byte[] rented = "RENTED".getBytes(StandardCharsets.UTF_8);
+        int at = indexOf(bytes, rented);
+        bytes[at + rented.length - 1] = 'X';
+        int bodyLength = bytes.length - Long.BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bodyLength);
+        ByteBuffer.wrap(bytes).putLong(bodyLength, crc.getValue());
+        Files.write(path, bytes);
+
+        assertTrue(snapshotFile.read().isEmpty());
+    }
+
+    @Test
+    void read_missingOrDisabled_returnsEmpty() throws IOException {
+        assertTrue(snapshotFile.read().isEmpty());
+
+        CatalogSnapshotFile disabled = new CatalogSnapshotFile("");
+        disabled.write(snapshot);
+        assertFalse(disabled.isEnabled());
+        assertTrue(disabled.read().isEmpty());
+    }
+
+    private static int indexOf(byte[] bytes, byte[] pattern) {
+        for (int i = 0; i + pattern.length <= bytes.length; i++) {
+            if (Arrays.equals(bytes, i, i + pattern.length, pattern, 0, pattern.length)) {
+                return i;
+            }
+        }
+        throw new AssertionError("последовательность не найдена");
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.library_management.service;
+
+import com.example.library_management.dto.BookInfoChangeDTO;
+import com.example.library_management.dto.CatalogSyncDTO;
+import com.example.library_management.dto.CategoryChangeDTO;
+import com.example.library_management.dto.CategoryDetailsDTO;
+import com.example.library_management.dto.LibraryBookChangeDTO;
+import com.example.library_management.dto.LibraryBookDTO;
+import com.example.library_management.resilience.CircuitBreaker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class CatalogSnapshotServiceTest {
+
+    @Mock
+    private CatalogSyncService catalogSyncService;
+
+    private final CircuitBreaker databaseBreaker = new CircuitBreaker("database", 5, 10_000L);
+
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        catalogSnapshotService = new CatalogSnapshotService(catalogSyncService, new CatalogSnapshotFile((Path) null), databaseBreaker, Runnable::run);
+        when(catalogSyncService.collectChanges(0L, 10_000)).thenReturn(new CatalogSyncDTO(
+                List.of(new CategoryChangeDTO(1L, "Проза", null, false, 1L),
+                        new CategoryChangeDTO(2L, "Роман", 1L, false, 2L)),
+                List.of(new BookInfoChangeDTO(1L, "Война и мир", "Лев Толстой", 2L, 3L)),
+                List.of(new LibraryBookChangeDTO(10L, 123456L, "AVAILABLE", 1L, false, 4L),
+                        new LibraryBookChangeDTO(11L, 654321L, "DELETED", 1L, true, 5L)),
+                5L, false));
+    }
+
+    @Test
+    void load_buildsSnapshotFromChangeFeed() {
+        assertFalse(catalogSnapshotService.isReady());
+
+        catalogSnapshotService.load();
+
+        assertTrue(catalogSnapshotService.isReady());
+        List<LibraryBookDTO> books = catalogSnapshotService.getAllBooks();
+        assertEquals(1, books.size());
+        assertEquals(123456L, books.get(0).getSerialNumber());
+        assertEquals("DELETED", catalogSnapshotService.findBook(11L).orElseThrow().getStatus());
+
+        CategoryDetailsDTO novel = catalogSnapshotService.findCategory(2L).orElseThrow();
+        assertEquals("Роман", novel.getName());
+        assertEquals("Проза", novel.getParent().getName());
+        assertEquals(List.of(2L), catalogSnapshotService.getSubcategories(1L).stream().map(CategoryDetailsDTO::getId).toList());
+        assertEquals("Война и мир", catalogSnapshotService.current().bookInfo(0).getTitle());
+    }
+
+    @Test
+    void refresh_appliesDeltaWithoutTouchingPreviousSnapshot() {
+        catalogSnapshotService.load();
+        CatalogSnapshot before = catalogSnapshotService.current();
+        when(catalogSyncService.collectChanges(5L, 10_000)).thenReturn(new CatalogSyncDTO(
+                List.of(new CategoryChangeDTO(3L, "Поэзия", null, false, 6L),
+                        new CategoryChangeDTO(2L, null, null, true, 7L)),
+                List.of(),
+                List.of(new LibraryBookChangeDTO(10L, 123456L, "RENTED", 1L, false, 8L)),
+                8L, false));
+
+        catalogSnapshotService.requestRefresh();
+
+        CatalogSnapshot after = catalogSnapshotService.current();
+        assertEquals(8L, after.cursor);
+        assertEquals("RENTED", after.book(after.indexOfBook(10L)).getStatus());
+        assertTrue(after.indexOfCategory(2L) < 0);
+        assertTrue(after.indexOfCategory(3L) >= 0);
+        assertEquals("AVAILABLE", before.book(before.indexOfBook(10L)).getStatus());
+        assertTrue(before.indexOfCategory(2L) >= 0);
+    }
+
+    @Test
+    void refresh_unsettledChangeIsAppliedOnceAndKeepsCursor() {
+        catalogSnapshotService.load();
+        CatalogSyncDTO unsettled = new CatalogSyncDTO(List.of(), List.of(),
+                List.of(new LibraryBookChangeDTO(10L, 123456L, "RENTED", 1L, false, 9L)), 5L, false);
+        when(catalogSyncService.collectChanges(5L, 10_000)).thenReturn(unsettled);
+
+        catalogSnapshotService.scheduledRefresh();
+        CatalogSnapshot applied = catalogSnapshotService.current();
+        catalogSnapshotService.scheduledRefresh();
+
+        assertEquals(5L, applied.cursor);
+        assertEquals("RENTED", applied.book(applied.indexOfBook(10L)).getStatus());
+        assertSame(applied, catalogSnapshotService.current());
+        verify(catalogSyncService, times(2)).collectChanges(5L, 10_000);
+    }
+
+    @Test
+    void categoryReads_shareViewsWithinSnapshotAndAcrossBookOnlyChanges() {
+        catalogSnapshotService.load();
+        CategoryDetailsDTO novel = catalogSnapshotService.findCategory(2L).orElseThrow();
+        List<CategoryDetailsDTO> all = catalogSnapshotService.getAllCategories();
+
+        assertSame(novel, catalogSnapshotService.findCategory(2L).orElseThrow());
+        assertSame(all, catalogSnapshotService.getAllCategories());
+        assertSame(novel.getParent(), all.get(0));
+        assertSame(novel, catalogSnapshotService.getSubcategories(1L).get(0));
+        assertThrows(UnsupportedOperationException.class, () -> all.add(novel));
+
+        when(catalogSyncService.collectChanges(5L, 10_000)).thenReturn(new CatalogSyncDTO(List.of(), List.of(),
+                List.of(new LibraryBookChangeDTO(10L, 123456L, "RENTED", 1L, false, 6L)), 6L, false));
+        catalogSnapshotService.requestRefresh();
+
+        assertEquals(6L, catalogSnapshotService.current().cursor);
+        assertSame(novel, catalogSnapshotService.findCategory(2L).orElseThrow());
+    }
+
+    @Test
+    void requestRefresh_beforeLoad_isIgnored() {
+        catalogSnapshotService.requestRefresh();
+        catalogSnapshotService.scheduledRefresh();
+
+        verify(catalogSyncService, never()).collectChanges(anyLong(), anyInt());
+    }
+
+    @Test
+    void mergePlan_keepsOrderReplacesAndRemoves() {
+        int[] plan = CatalogSnapshot.mergePlan(new long[]{1L, 3L, 5L}, new long[]{2L, 3L, 5L},
+                new boolean[]{false, false, true});
+
+        assertArrayEquals(new int[]{0, ~0, ~1}, plan);
+    }
+
+    @Test
+    void load_restoresFromFileAndCatchesUpFromSavedCursor(@TempDir Path directory) {
+        CatalogSnapshotFile file = new CatalogSnapshotFile(directory.resolve("catalog.snapshot"));
+        CatalogSnapshotService first = new CatalogSnapshotService(catalogSyncService, file, databaseBreaker, Runnable::run);
+        first.load();
+        first.shutdown();
+
+        when(catalogSyncService.getCurrentVersion()).thenReturn(6L);
+        when(catalogSyncService.collectChanges(5L, 10_000)).thenReturn(new CatalogSyncDTO(List.of(), List.of(),
+                List.of(new LibraryBookChangeDTO(10L, 123456L, "RENTED", 1L, false, 6L)), 6L, false));
+        CatalogSnapshotService restarted = new CatalogSnapshotService(catalogSyncService, file, databaseBreaker, Runnable::run);
+        restarted.load();
+
+        assertEquals(6L, restarted.current().cursor);
+        assertEquals("RENTED", restarted.findBook(10L).orElseThrow().getStatus());
+        assertEquals(Optional.of("Роман"), restarted.findCategory(2L).map(CategoryDetailsDTO::getName));
+        verify(catalogSyncService, times(1)).collectChanges(0L, 10_000);
+    }
+
+    @Test
+    void load_fileNewerThanDatabase_reloadsFromScratch(@TempDir Path directory) {
+        CatalogSnapshotFile file = new CatalogSnapshotFile(directory.resolve("catalog.snapshot"));
+        CatalogSnapshotService first = new CatalogSnapshotService(catalogSyncService, file, databaseBreaker, Runnable::run);
+        first.load();
+        first.shutdown();
+
+        when(catalogSyncService.getCurrentVersion()).thenReturn(2L);
+        CatalogSnapshotService restarted = new CatalogSnapshotService(catalogSyncService, file, databaseBreaker, Runnable::run);
+        restarted.load();
+
+        verify(catalogSyncService, times(2)).collectChanges(0L, 10_000);
+        assertEquals(5L, restarted.current().cursor);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.library_management.service;
+
+import com.example.library_management.dao.CatalogChangeDAO;
+import com.example.library_management.dao.CatalogChangeDAO.Change;
+import com.example.library_management.dto.BookInfoChangeDTO;
+import com.example.library_management.dto.CatalogSyncDTO;
+import com.example.library_management.dto.CategoryChangeDTO;
+import com.example.library_management.dto.LibraryBookChangeDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class CatalogSyncServiceTest {
+
+    @Mock
+    private CatalogChangeDAO catalogChangeDAO;
+
+    private CatalogSyncService catalogSyncService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        catalogSyncService = new CatalogSyncService(catalogChangeDAO);
+        when(catalogChangeDAO.findChanges(anyLong(), anyInt())).thenReturn(List.of());
+    }
+
+    @Test
+    void getChanges_mergesSourcesByVersionAndCutsAtLimit() {
+        when(catalogChangeDAO.findChanges(0L, 2)).thenReturn(changes(
+                new Change<>(1L, true, new BookInfoChangeDTO(1L, "A", "B", 2L, 1L)),
+                new Change<>(2L, true, new LibraryBookChangeDTO(10L, 123L, "DELETED", 1L, true, 2L)),
+                new Change<>(4L, true, new BookInfoChangeDTO(2L, "C", "D", 2L, 4L))));
+
+        CatalogSyncDTO result = catalogSyncService.getChanges(0L, 2);
+
+        assertEquals(1, result.getBookInfos().size());
+        assertEquals(1, result.getBooks().size());
+        assertTrue(result.getBooks().get(0).isDeleted());
+        assertEquals(2L, result.getNextSince());
+        assertTrue(result.isHasMore());
+    }
+
+    @Test
+    void getChanges_unsettledChange_stopsNextSinceBeforeIt() {
+        when(catalogChangeDAO.findChanges(5L, 10)).thenReturn(changes(
+                new Change<>(6L, true, new CategoryChangeDTO(1L, "Роман", null, false, 6L)),
+                new Change<>(7L, false, new CategoryChangeDTO(3L, null, null, true, 7L)),
+                new Change<>(8L, true, new CategoryChangeDTO(2L, "Поэзия", null, false, 8L))));
+
+        CatalogSyncDTO result = catalogSyncService.getChanges(5L, 10);
+
+        assertEquals(3, result.getCategories().size());
+        assertEquals(6L, result.getNextSince());
+        assertFalse(result.isHasMore());
+    }
+
+    @Test
+    void collectChanges_changeCommittedBetweenReads_isNotSkipped() {
+        // Версия 2 (книга) ещё не зафиксирована: в снимке, где видна версия 3 (категория), она не устоялась
+        when(catalogChangeDAO.findChanges(1L, 10))
+                .thenReturn(changes(new Change<>(3L, false, new CategoryChangeDTO(1L, "Роман", null, false, 3L))))
+                .thenReturn(changes(
+                        new Change<>(2L, true, new LibraryBookChangeDTO(10L, 123L, "RENTED", 1L, false, 2L)),
+                        new Change<>(3L, true, new CategoryChangeDTO(1L, "Роман", null, false, 3L))));
+
+        CatalogSyncDTO first = catalogSyncService.collectChanges(1L, 10);
+        CatalogSyncDTO second = catalogSyncService.collectChanges(first.getNextSince(), 10);
+
+        assertEquals(1L, first.getNextSince());
+        assertEquals(List.of(10L), second.getBooks().stream().map(LibraryBookChangeDTO::getId).toList());
+        assertEquals(3L, second.getNextSince());
+        // Все источники читаются одним запросом, то есть в одном снимке БД
+        verify(catalogChangeDAO, times(2)).findChanges(1L, 10);
+        verifyNoMoreInteractions(catalogChangeDAO);
+    }
+
+    @Test
+    void getChanges_invalidLimit_throwsException() {
+        assertThrows(IllegalArgumentException.class, () -> catalogSyncService.getChanges(0L, 0));
+        assertThrows(IllegalArgumentException.class, () -> catalogSyncService.getChanges(0L, 1001));
+        assertThrows(IllegalArgumentException.class, () -> catalogSyncService.getChanges(-1L, 10));
+        verifyNoInteractions(catalogChangeDAO);
+    }
+
+    @SafeVarargs
+    private static List<Change<?>> changes(Change<?>... changes) {
+        return new ArrayList<>(List.of(changes));
+    }
+}
@@ -1,9 +1,15 @@
 package com.example.library_management.service;
 
 import com.example.library_management.dao.BookInfoDAO;
+import com.example.library_management.dao.CategoryClosureDAO;
 import com.example.library_management.dao.CategoryDAO;
+import com.example.library_management.dto.BookInfoDTO;
 import com.example.library_management.dto.CategoryDTO;
+import com.example.library_management.dto.CategoryDetailsDTO;
+import com.example.library_management.dto.CategoryTreeNodeDTO;
+import com.example.library_management.dto.KeysetPageDTO;
 import com.example.library_management.model.Category;
+import com.example.library_management.resilience.CircuitBreaker;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,12 +28,22 @@ class CategoryServiceTest {
     @Mock
     private BookInfoDAO bookInfoDAO;
 
+    @Mock
+    private CategoryClosureDAO categoryClosureDAO;
+
+    @Mock
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Mock
+    private CircuitBreaker databaseBreaker;
+
     @InjectMocks
     private CategoryService categoryService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(databaseBreaker.isClosed()).thenReturn(true);
     }
 
     @Test
@@ -35,7 +51,7 @@ class CategoryServiceTest {
         List<Category> mockList = List.of(new Category(), new Category());
         when(categoryDAO.findAll()).thenReturn(mockList);
 
-        List<Category> result = categoryService.getAllCategories();
+        List<CategoryDetailsDTO> result = categoryService.getAllCategories();
 
         assertEquals(2, result.size());
         verify(categoryDAO).findAll();
@@ -48,7 +64,7 @@ class CategoryServiceTest {
 
         when(categoryDAO.findById(1L)).thenReturn(Optional.of(category));
 
-        Category result = categoryService.getCategoryById(1L);
+        CategoryDetailsDTO result = categoryService.getCategoryById(1L);
 
         assertEquals(1L, result.getId());
     }
@@ -69,7 +85,7 @@ class CategoryServiceTest {
         List<Category> subcats = List.of(new Category(), new Category());
         when(categoryDAO.findByParentId(1L)).thenReturn(subcats);
 
-        List<Category> result = categoryService.getSubcategories(1L);
+        List<CategoryDetailsDTO> result = categoryService.getSubcategories(1L);
 
         assertEquals(2, result.size());
     }
@@ -84,6 +100,7 @@ class CategoryServiceTest {
         categoryService.createCategory(category);
 
         verify(categoryDAO).save(category);
+        verify(categoryClosureDAO).insertNode(category.getId(), null);
     }
 
     @Test
@@ -119,6 +136,60 @@ class CategoryServiceTest {
         assertEquals("New Name", existing.getName());
         assertEquals(parent, existing.getParent());
         verify(categoryDAO).update(existing);
+        verify(categoryClosureDAO).moveSubtree(1L, 2L);
+    }
+
+    @Test
+    void updateCategory_sameParent_locksTreeButKeepsClosure() {
+        Category parent = new Category();
+        parent.setId(2L);
+        Category existing = new Category();
+        existing.setId(1L);
+        existing.setParent(parent);
+
+        when(categoryDAO.findById(1L)).thenReturn(Optional.of(existing));
+        when(categoryDAO.findById(2L)).thenReturn(Optional.of(parent));
+
+        categoryService.updateCategory(new CategoryDTO(1L, "Renamed", 2L));
+
+        assertEquals("Renamed", existing.getName());
+        verify(categoryClosureDAO).lockTree();
+        verify(categoryClosureDAO, never()).moveSubtree(any(), any());
+        verify(categoryClosureDAO, never()).isSelfOrDescendant(any(), any());
+    }
+
+    @Test
+    void updateCategory_parentIsDescendant_throwsException() {
+        Category existing = new Category();
+        existing.setId(1L);
+        Category grandChild = new Category();
+        grandChild.setId(5L);
+
+        when(categoryDAO.findById(1L)).thenReturn(Optional.of(existing));
+        when(categoryDAO.findById(5L)).thenReturn(Optional.of(grandChild));
+        when(categoryClosureDAO.isSelfOrDescendant(1L, 5L)).thenReturn(true);
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> categoryService.updateCategory(new CategoryDTO(1L, "Category", 5L)));
+
+        assertEquals("Категория не может стать подкатегорией своего потомка", ex.getMessage());
+        verify(categoryDAO, never()).update(any());
+        verify(categoryClosureDAO, never()).moveSubtree(any(), any());
+    }
+
+    @Test
+    void getBooksInSubtree_fullPage_returnsNextAfterId() {
+        Category category = new Category();
+        category.setId(1L);
+        List<BookInfoDTO> books = List.of(new BookInfoDTO(3L, "A", "B", 4L), new BookInfoDTO(7L, "C", "D", 1L));
+
+        when(categoryDAO.findById(1L)).thenReturn(Optional.of(category));
+        when(categoryClosureDAO.findBooksInSubtree(1L, 0L, 2)).thenReturn(books);
+
+        KeysetPageDTO<BookInfoDTO> page = categoryService.getBooksInSubtree(1L, null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals(7L, page.getNextAfterId());
     }
 
     @Test
@@ -183,4 +254,99 @@ class CategoryServiceTest {
 
         assertEquals("Нельзя удалить категорию, она используется в книгах", ex.getMessage());
     }
+
+    @Test
+    void getCategoryTree_assemblesNestedTreeAndCachesIt() {
+        when(categoryDAO.findAllFlat()).thenReturn(List.of(
+                new CategoryDTO(1L, "Root", null),
+                new CategoryDTO(2L, "Child", 1L),
+                new CategoryDTO(3L, "Grandchild", 2L),
+                new CategoryDTO(4L, "Other root", null)));
+
+        List<CategoryTreeNodeDTO> tree = categoryService.getCategoryTree();
+        List<CategoryTreeNodeDTO> cached = categoryService.getCategoryTree();
+
+        assertEquals(2, tree.size());
+        assertEquals("Grandchild", tree.get(0).getChildren().get(0).getChildren().get(0).getName());
+        assertTrue(tree.get(1).getChildren().isEmpty());
+        assertSame(tree, cached);
+        verify(categoryDAO, times(1)).findAllFlat();
+    }
+
+    @Test
+    void getCategoryTree_deepChainAndSiblingOrder() {
+        int depth = 100_000;
+        List<CategoryDTO> flat = new ArrayList<>(depth + 1);
+        flat.add(new CategoryDTO(1L, "Root", null));
+        for (long id = 2; id <= depth; id++) {
+            flat.add(new CategoryDTO(id, "Level " + id, id - 1));
+        }
+        flat.add(new CategoryDTO(depth + 1L, "Second child", 1L));
+        when(categoryDAO.findAllFlat()).thenReturn(flat);
+
+        List<CategoryTreeNodeDTO> tree = categoryService.getCategoryTree();
+
+        CategoryTreeNodeDTO root = tree.get(0);
+        assertEquals(List.of(2L, depth + 1L), root.getChildren().stream().map(CategoryTreeNodeDTO::getId).toList());
+        CategoryTreeNodeDTO node = root;
+        int levels = 1;
+        while (!node.getChildren().isEmpty()) {
+            node = node.getChildren().get(0);
+            levels++;
+        }
+        assertEquals(depth, levels);
+    }
+
+    @Test
+    void getCategoryTree_rebuiltAfterCategoryChange() {
+        when(categoryDAO.findAllFlat()).thenReturn(List.of(new CategoryDTO(1L, "Root", null)));
+        categoryService.getCategoryTree();
+
+        Category category = new Category();
+        category.setName("Наука");
+        when(categoryDAO.findByName("Наука")).thenReturn(Optional.empty());
+        categoryService.createCategory(category);
+        categoryService.getCategoryTree();
+
+        verify(categoryDAO, times(2)).findAllFlat();
+    }
+
+    @Test
+    void getCategoryTree_databaseUnavailable_servesStaleTree() {
+        when(categoryDAO.findAllFlat()).thenReturn(List.of(new CategoryDTO(1L, "Root", null)));
+        List<CategoryTreeNodeDTO> tree = categoryService.getCategoryTree();
+
+        Category category = new Category();
+        category.setName("Наука");
+        when(categoryDAO.findByName("Наука")).thenReturn(Optional.empty());
+        categoryService.createCategory(category);
+        when(databaseBreaker.isClosed()).thenReturn(false);
+
+        assertSame(tree, categoryService.getCategoryTree());
+        verify(categoryDAO, times(1)).findAllFlat();
+    }
+
+    @Test
+    void getCategoryById_servedFromSnapshot() {
+        CategoryDetailsDTO cached = new CategoryDetailsDTO(1L, "Проза", null);
+        when(catalogSnapshotService.isReady()).thenReturn(true);
+        when(catalogSnapshotService.findCategory(1L)).thenReturn(Optional.of(cached));
+
+        assertSame(cached, categoryService.getCategoryById(1L));
+        verifyNoInteractions(categoryDAO);
+    }
+
+    @Test
+    void getCategoryById_missingInSnapshot_readsDatabase() {
+        Category created = new Category();
+        created.setId(5L);
+        when(catalogSnapshotService.isReady()).thenReturn(true);
+        when(catalogSnapshotService.findCategory(5L)).thenReturn(Optional.empty());
+        when(categoryDAO.findById(5L)).thenReturn(Optional.of(created));
+
+        CategoryDetailsDTO result = categoryService.getCategoryById(5L);
+
+        assertEquals(5L, result.getId());
+        assertNull(result.getParent());
+    }
 }
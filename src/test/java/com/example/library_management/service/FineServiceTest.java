@@ -0,0 +1,103 @@
+package com.example.library_management.service;
+
+import com.example.library_management.dao.FineLedgerDAO;
+import com.example.library_management.dto.FineSummaryDTO;
+import com.example.library_management.exception.FineAccrualException;
+import com.example.library_management.model.FineLedgerEntry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class FineServiceTest {
+
+    private static final BigDecimal RATE = new BigDecimal("10.00");
+
+    @Mock
+    private FineLedgerDAO fineLedgerDAO;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private FineService fineService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        fineService = new FineService(fineLedgerDAO, transactionManager, RATE, 100, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fineService.shutdown();
+    }
+
+    @Test
+    void accrueForDay_splitsOverdueRentalsIntoRanges() {
+        LocalDate day = LocalDate.of(2025, 5, 10);
+        when(fineLedgerDAO.findOverdueChunkUpperBound(0L, 100)).thenReturn(Optional.of(150L));
+        when(fineLedgerDAO.findOverdueChunkUpperBound(150L, 100)).thenReturn(Optional.empty());
+        when(fineLedgerDAO.accrueRange(0L, 150L, day, RATE)).thenReturn(100);
+        when(fineLedgerDAO.accrueRange(150L, Long.MAX_VALUE, day, RATE)).thenReturn(40);
+
+        assertEquals(140, fineService.accrueForDay(day));
+
+        verify(fineLedgerDAO).accrueRange(0L, 150L, day, RATE);
+        verify(fineLedgerDAO).accrueRange(150L, Long.MAX_VALUE, day, RATE);
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void accrueForDay_chunkFailure_throwsException() {
+        LocalDate day = LocalDate.of(2025, 5, 10);
+        when(fineLedgerDAO.findOverdueChunkUpperBound(0L, 100)).thenReturn(Optional.empty());
+        when(fineLedgerDAO.accrueRange(eq(0L), eq(Long.MAX_VALUE), eq(day), eq(RATE)))
+                .thenThrow(new RuntimeException("db down"));
+
+        assertThrows(FineAccrualException.class, () -> fineService.accrueForDay(day));
+    }
+
+    @Test
+    void accrueForDay_chunkFailure_waitsForRemainingChunks() {
+        LocalDate day = LocalDate.of(2025, 5, 10);
+        when(fineLedgerDAO.findOverdueChunkUpperBound(0L, 100)).thenReturn(Optional.of(150L));
+        when(fineLedgerDAO.findOverdueChunkUpperBound(150L, 100)).thenReturn(Optional.empty());
+        when(fineLedgerDAO.accrueRange(0L, 150L, day, RATE)).thenThrow(new RuntimeException("db down"));
+        when(fineLedgerDAO.accrueRange(150L, Long.MAX_VALUE, day, RATE)).thenReturn(40);
+
+        assertThrows(FineAccrualException.class, () -> fineService.accrueForDay(day));
+
+        verify(fineLedgerDAO).accrueRange(150L, Long.MAX_VALUE, day, RATE);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void getUserFines_returnsTotalAndEntries() {
+        FineLedgerEntry entry = new FineLedgerEntry();
+        entry.setRentalId(12L);
+        entry.setAccrualDate(LocalDate.of(2025, 5, 10));
+        entry.setAmount(RATE);
+        when(fineLedgerDAO.findByUserId(5L)).thenReturn(List.of(entry));
+        when(fineLedgerDAO.sumByUserId(5L)).thenReturn(RATE);
+
+        FineSummaryDTO summary = fineService.getUserFines(5L);
+
+        assertEquals(RATE, summary.getTotalAmount());
+        assertEquals(1, summary.getEntries().size());
+        assertEquals(12L, summary.getEntries().get(0).getRentalId());
+    }
+}
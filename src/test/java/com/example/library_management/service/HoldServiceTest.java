@@ -0,0 +1,105 @@
+package com.example.library_management.service;
+
+import com.example.library_management.dao.BookAvailabilityDAO;
+import com.example.library_management.dao.HoldDAO;
+import com.example.library_management.dao.RentalDAO;
+import com.example.library_management.dto.HoldDTO;
+import com.example.library_management.event.HoldFulfilledEvent;
+import com.example.library_management.model.User;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class HoldServiceTest {
+
+    @Mock private HoldDAO holdDAO;
+    @Mock private RentalDAO rentalDAO;
+    @Mock private BookAvailabilityDAO bookAvailabilityDAO;
+    @Mock private OverdueTracker overdueTracker;
+    @Mock private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks private HoldService holdService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        user = new User();
+        user.setId(5L);
+        user.setUsername("user1");
+    }
+
+    @Test
+    void placeHold_noCopies_createsWaitingHold() {
+        when(bookAvailabilityDAO.lockAvailableCount(3L)).thenReturn(Optional.of(0));
+        when(holdDAO.insertWaiting(5L, 3L)).thenReturn(Optional.of(1L));
+
+        HoldDTO hold = holdService.placeHold(user, 3L);
+
+        assertEquals(1L, hold.getId());
+        assertEquals("WAITING", hold.getStatus());
+    }
+
+    @Test
+    void placeHold_copiesAvailable_throwsException() {
+        when(bookAvailabilityDAO.lockAvailableCount(3L)).thenReturn(Optional.of(2));
+
+        assertThrows(IllegalStateException.class, () -> holdService.placeHold(user, 3L));
+        verify(holdDAO, never()).insertWaiting(any(), any());
+    }
+
+    @Test
+    void placeHold_alreadyWaiting_throwsException() {
+        when(bookAvailabilityDAO.lockAvailableCount(3L)).thenReturn(Optional.of(0));
+        when(holdDAO.insertWaiting(5L, 3L)).thenReturn(Optional.empty());
+
+        assertThrows(IllegalStateException.class, () -> holdService.placeHold(user, 3L));
+    }
+
+    @Test
+    void placeHold_unknownBook_throwsException() {
+        when(bookAvailabilityDAO.lockAvailableCount(3L)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> holdService.placeHold(user, 3L));
+    }
+
+    @Test
+    void handOff_rentsCopyToHeadOfQueue() {
+        when(holdDAO.claimNextWaiting(3L)).thenReturn(Optional.of(new HoldDAO.WaitingHold(1L, 7L)));
+        when(rentalDAO.rentAvailableBook(eq(10L), eq(7L), any(), any()))
+                .thenReturn(Optional.of(new RentalDAO.RentalTransition(50L, 10L, 3L)));
+
+        assertTrue(holdService.handOff(10L, 3L));
+
+        verify(holdDAO).markFulfilled(eq(1L), eq(50L), any());
+        verify(overdueTracker).track(eq(50L), eq(7L), eq(10L), any());
+        verify(eventPublisher).publishEvent(any(HoldFulfilledEvent.class));
+    }
+
+    @Test
+    void handOff_emptyQueue_doesNothing() {
+        when(holdDAO.claimNextWaiting(3L)).thenReturn(Optional.empty());
+
+        assertFalse(holdService.handOff(10L, 3L));
+        verify(rentalDAO, never()).rentAvailableBook(any(), any(), any(), any());
+    }
+
+    @Test
+    void cancelHold_missing_throwsException() {
+        when(holdDAO.cancelWaiting(9L, 5L)).thenReturn(false);
+
+        assertThrows(EntityNotFoundException.class, () -> holdService.cancelHold(9L, user));
+    }
+}
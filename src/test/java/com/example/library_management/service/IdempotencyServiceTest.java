@@ -0,0 +1,118 @@
+package com.example.library_management.service;
+
+import com.example.library_management.exception.RequestInProgressException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyServiceTest {
+
+    private final AtomicLong now = new AtomicLong(1_000L);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(2, 100L, 50L, now::get);
+    }
+
+    @Test
+    void execute_sameKey_replaysStoredResponse() {
+        ResponseEntity<String> first = idempotencyService.execute("user", "k1", "POST /rent/1", this::rent);
+        ResponseEntity<String> second = idempotencyService.execute("user", "k1", "POST /rent/1", this::rent);
+
+        assertEquals(1, calls.get());
+        assertEquals(first.getBody(), second.getBody());
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void execute_keysAreScopedByUser() {
+        idempotencyService.execute("user1", "k1", "POST /rent/1", this::rent);
+        idempotencyService.execute("user2", "k1", "POST /rent/1", this::rent);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void execute_failure_isNotStored() {
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute("user", "k1", "POST /rent/1", () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("Книга недоступна для аренды");
+        }));
+
+        idempotencyService.execute("user", "k1", "POST /rent/1", this::rent);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void execute_expiredEntry_runsAgain() {
+        idempotencyService.execute("user", "k1", "POST /rent/1", this::rent);
+        now.addAndGet(100L);
+        idempotencyService.execute("user", "k1", "POST /rent/1", this::rent);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void execute_overCapacity_evictsOldest() {
+        idempotencyService.execute("user", "k1", "POST /rent/1", this::rent);
+        idempotencyService.execute("user", "k2", "POST /rent/2", this::rent);
+        idempotencyService.execute("user", "k3", "POST /rent/3", this::rent);
+
+        assertEquals(2, idempotencyService.size());
+        idempotencyService.execute("user", "k1", "POST /rent/1", this::rent);
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    void execute_withoutKey_alwaysRuns() {
+        idempotencyService.execute("user", null, "POST /rent/1", this::rent);
+        idempotencyService.execute("user", null, "POST /rent/1", this::rent);
+
+        assertEquals(2, calls.get());
+        assertEquals(0, idempotencyService.size());
+    }
+
+    @Test
+    void execute_duplicateWhileOriginalRuns_failsAfterAwaitTimeout() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread original = new Thread(() -> idempotencyService.execute("user", "k1", "POST /rent/1", () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rent();
+        }));
+        original.start();
+        try {
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertThrows(RequestInProgressException.class,
+                    () -> idempotencyService.execute("user", "k1", "POST /rent/1", this::rent));
+        } finally {
+            release.countDown();
+            original.join();
+        }
+
+        ResponseEntity<String> replayed = idempotencyService.execute("user", "k1", "POST /rent/1", this::rent);
+        assertEquals(1, calls.get());
+        assertEquals("true", replayed.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    private ResponseEntity<String> rent() {
+        return ResponseEntity.ok("Аренда " + calls.incrementAndGet());
+    }
+}
@@ -1,10 +1,12 @@
 package com.example.library_management.service;
 
+import com.example.library_management.dao.BookAvailabilityDAO;
 import com.example.library_management.dao.BookInfoDAO;
 import com.example.library_management.dao.CategoryDAO;
 import com.example.library_management.dao.LibraryBookDAO;
 import com.example.library_management.dto.LibraryBookDTO;
 import com.example.library_management.dto.UpdateBookInfoDTO;
+import com.example.library_management.event.BookStatusChangedEvent;
 import com.example.library_management.mapper.LibraryBookMapper;
 import com.example.library_management.model.BookInfo;
 import com.example.library_management.model.Category;
@@ -14,6 +16,9 @@ import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -25,6 +30,10 @@ class LibraryBookServiceTest {
     @Mock private CategoryDAO categoryDAO;
     @Mock private BookInfoDAO bookInfoDAO;
     @Mock private LibraryBookMapper libraryBookMapper;
+    @Mock private BookAvailabilityDAO bookAvailabilityDAO;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private CatalogSnapshotService catalogSnapshotService;
+    @Mock private PlatformTransactionManager transactionManager;
 
     @InjectMocks private LibraryBookService libraryBookService;
 
@@ -79,23 +88,35 @@ class LibraryBookServiceTest {
     @Test
     void testAddFullBook_Success() {
         when(categoryDAO.findById(1L)).thenReturn(Optional.of(category));
-        when(libraryBookDAO.findBySerialNumber(123L)).thenReturn(Optional.empty());
+        when(libraryBookDAO.existsBySerialNumber(123L)).thenReturn(false);
 
         libraryBookService.addFullBook("Book Title", "Author Name", 1L, 123L);
 
         verify(bookInfoDAO).save(any(BookInfo.class));
         verify(libraryBookDAO).save(any(LibraryBook.class));
+        verify(bookAvailabilityDAO).changeAvailableCount(any(), eq(1));
     }
 
     @Test
     void testAddFullBook_DuplicateSerialNumber() {
         when(categoryDAO.findById(1L)).thenReturn(Optional.of(category));
-        when(libraryBookDAO.findBySerialNumber(123456L)).thenReturn(Optional.of(libraryBook));
+        when(libraryBookDAO.existsBySerialNumber(123456L)).thenReturn(true);
 
         assertThrows(IllegalStateException.class, () ->
                 libraryBookService.addFullBook("Title", "Author", 1L, 123456L));
     }
 
+    @Test
+    void testAddFullBook_ConcurrentDuplicateSerialNumber() {
+        when(categoryDAO.findById(1L)).thenReturn(Optional.of(category));
+        when(libraryBookDAO.existsBySerialNumber(123456L)).thenReturn(false);
+        doThrow(new DataIntegrityViolationException("duplicate key")).when(libraryBookDAO).save(any(LibraryBook.class));
+
+        assertThrows(IllegalStateException.class, () ->
+                libraryBookService.addFullBook("Title", "Author", 1L, 123456L));
+        verify(bookAvailabilityDAO, never()).changeAvailableCount(any(), anyInt());
+    }
+
     @Test
     void testDeleteLibraryBook_MarksAsDeletedAndSkipsDeletion() {
         when(libraryBookDAO.findById(1L)).thenReturn(Optional.of(libraryBook));
@@ -105,6 +126,8 @@ class LibraryBookServiceTest {
 
         assertEquals(LibraryBook.BookStatus.DELETED, libraryBook.getStatus());
         verify(libraryBookDAO).update(libraryBook);
+        verify(bookAvailabilityDAO).changeAvailableCount(1L, -1);
+        verify(eventPublisher).publishEvent(new BookStatusChangedEvent(1L, 1L, "DELETED"));
         verify(bookInfoDAO, never()).delete(any());
     }
 
@@ -124,7 +147,7 @@ class LibraryBookServiceTest {
         dto.setAuthor("Updated Author");
         dto.setCategoryId(1L);
 
-        when(libraryBookDAO.findById(1L)).thenReturn(Optional.of(libraryBook));
+        when(libraryBookDAO.findByIdWithBookInfo(1L)).thenReturn(Optional.of(libraryBook));
         when(categoryDAO.findById(1L)).thenReturn(Optional.of(category));
 
         libraryBookService.updateBookInfo(1L, dto);
@@ -140,7 +163,7 @@ class LibraryBookServiceTest {
         UpdateBookInfoDTO dto = new UpdateBookInfoDTO();
         dto.setBookInfoId(999L);
 
-        when(libraryBookDAO.findById(1L)).thenReturn(Optional.of(libraryBook));
+        when(libraryBookDAO.findByIdWithBookInfo(1L)).thenReturn(Optional.of(libraryBook));
 
         assertThrows(IllegalArgumentException.class, () -> libraryBookService.updateBookInfo(1L, dto));
     }
@@ -153,9 +176,79 @@ class LibraryBookServiceTest {
         dto.setAuthor("Updated Author");
         dto.setCategoryId(999L);
 
-        when(libraryBookDAO.findById(1L)).thenReturn(Optional.of(libraryBook));
+        when(libraryBookDAO.findByIdWithBookInfo(1L)).thenReturn(Optional.of(libraryBook));
         when(categoryDAO.findById(999L)).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> libraryBookService.updateBookInfo(1L, dto));
     }
+
+    @Test
+    void testGetBooksByIds_ReturnsInRequestOrderWithoutDuplicates() {
+        LibraryBook second = new LibraryBook();
+        second.setId(2L);
+        LibraryBookDTO firstDto = new LibraryBookDTO(1L, 123L, "AVAILABLE", 1L);
+        LibraryBookDTO secondDto = new LibraryBookDTO(2L, 456L, "RENTED", 1L);
+
+        when(libraryBookDAO.findByIds(List.of(2L, 1L, 9L))).thenReturn(List.of(libraryBook, second));
+        when(libraryBookMapper.toDTO(libraryBook)).thenReturn(firstDto);
+        when(libraryBookMapper.toDTO(second)).thenReturn(secondDto);
+
+        List<LibraryBookDTO> result = libraryBookService.getBooksByIds(List.of(2L, 1L, 2L, 9L));
+
+        assertEquals(List.of(secondDto, firstDto), result);
+        verify(libraryBookDAO, times(1)).findByIds(anyCollection());
+    }
+
+    @Test
+    void testGetBooksByIds_TooManyIds() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 1001; id++) {
+            ids.add(id);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> libraryBookService.getBooksByIds(ids));
+        verifyNoInteractions(libraryBookDAO);
+    }
+
+    @Test
+    void testGetBookDTOById_ServedFromSnapshot() {
+        LibraryBookDTO dto = new LibraryBookDTO(1L, 123L, "AVAILABLE", 1L);
+        when(catalogSnapshotService.isReady()).thenReturn(true);
+        when(catalogSnapshotService.findBook(1L)).thenReturn(Optional.of(dto));
+
+        assertSame(dto, libraryBookService.getBookDTOById(1L));
+        verifyNoInteractions(libraryBookDAO);
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void testGetBookDTOById_MissingInSnapshot_ReadsDatabaseInOwnTransaction() {
+        LibraryBookDTO dto = new LibraryBookDTO(1L, 123L, "AVAILABLE", 1L);
+        when(catalogSnapshotService.isReady()).thenReturn(true);
+        when(catalogSnapshotService.findBook(1L)).thenReturn(Optional.empty());
+        when(libraryBookDAO.findById(1L)).thenReturn(Optional.of(libraryBook));
+        when(libraryBookMapper.toDTO(libraryBook)).thenReturn(dto);
+
+        assertSame(dto, libraryBookService.getBookDTOById(1L));
+        verify(transactionManager).getTransaction(argThat(definition -> definition.isReadOnly()));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void testGetBooksByIds_MissingInSnapshot_ReadsOnlyMissingFromDatabase() {
+        LibraryBookDTO cachedDto = new LibraryBookDTO(1L, 123L, "AVAILABLE", 1L);
+        LibraryBook fresh = new LibraryBook();
+        fresh.setId(2L);
+        LibraryBookDTO freshDto = new LibraryBookDTO(2L, 456L, "AVAILABLE", 1L);
+        when(catalogSnapshotService.isReady()).thenReturn(true);
+        when(catalogSnapshotService.findBook(1L)).thenReturn(Optional.of(cachedDto));
+        when(catalogSnapshotService.findBook(2L)).thenReturn(Optional.empty());
+        when(libraryBookDAO.findByIds(List.of(2L))).thenReturn(List.of(fresh));
+        when(libraryBookMapper.toDTO(fresh)).thenReturn(freshDto);
+
+        List<LibraryBookDTO> result = libraryBookService.getBooksByIds(List.of(2L, 1L));
+
+        assertEquals(List.of(freshDto, cachedDto), result);
+        verify(libraryBookDAO).findByIds(List.of(2L));
+    }
 }
@@ -0,0 +1,54 @@
+package com.example.library_management.service;
+
+import com.example.library_management.dao.RentalDAO;
+import com.example.library_management.event.RentalOverdueEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class OverdueServiceTest {
+
+    @Mock
+    private RentalDAO rentalDAO;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OverdueService overdueService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        overdueService = new OverdueService(rentalDAO, transactionManager, 2);
+    }
+
+    @Test
+    void sweep_marksChunksUntilLastPartialChunk() {
+        when(rentalDAO.markOverdueChunk(any(), eq(2))).thenReturn(2, 2, 1);
+
+        assertEquals(5, overdueService.sweep());
+
+        verify(rentalDAO, times(3)).markOverdueChunk(any(), eq(2));
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void onRentalOverdue_marksRental() {
+        when(rentalDAO.markOverdue(5L)).thenReturn(true);
+
+        overdueService.onRentalOverdue(new RentalOverdueEvent(5L, 1L, 10L, LocalDateTime.now()));
+
+        verify(rentalDAO).markOverdue(5L);
+    }
+}
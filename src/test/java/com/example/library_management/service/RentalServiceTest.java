@@ -2,7 +2,10 @@ package com.example.library_management.service;
 
 import com.example.library_management.dao.LibraryBookDAO;
 import com.example.library_management.dao.RentalDAO;
+import com.example.library_management.dto.BatchReturnResultDTO;
+import com.example.library_management.dto.KeysetPageDTO;
 import com.example.library_management.dto.RentalDTO;
+import com.example.library_management.event.BookStatusChangedEvent;
 import com.example.library_management.mapper.RentalMapper;
 import com.example.library_management.model.LibraryBook;
 import com.example.library_management.model.Rental;
@@ -13,6 +16,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -28,9 +32,13 @@ class RentalServiceTest {
     @Mock
     private LibraryBookDAO libraryBookDAO;
     @Mock
-    private AuditService auditService;
-    @Mock
     private RentalMapper rentalMapper;
+    @Mock
+    private OverdueTracker overdueTracker;
+    @Mock
+    private HoldService holdService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private RentalService rentalService;
@@ -50,32 +58,34 @@ class RentalServiceTest {
 
     @Test
     void rentBook_success() {
-        book.setStatus(LibraryBook.BookStatus.AVAILABLE);
-
-        when(libraryBookDAO.findById(10L)).thenReturn(Optional.of(book));
+        when(rentalDAO.rentAvailableBook(eq(10L), eq(1L), any(), any()))
+                .thenReturn(Optional.of(new RentalDAO.RentalTransition(100L, 10L, 5L)));
 
         rentalService.rentBook(user, 10L);
 
-        assertEquals(LibraryBook.BookStatus.RENTED, book.getStatus());
-        verify(rentalDAO).save(any(Rental.class));
-        verify(libraryBookDAO).update(book);
-        verify(auditService).logAction(user, book, "BOOK_RENTED");
+        ArgumentCaptor<LocalDateTime> rentedAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> dueDate = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(rentalDAO).rentAvailableBook(eq(10L), eq(1L), rentedAt.capture(), dueDate.capture());
+        assertEquals(rentedAt.getValue().plusDays(7), dueDate.getValue());
+        verify(libraryBookDAO, never()).findById(any());
+        verify(overdueTracker).track(100L, 1L, 10L, dueDate.getValue());
     }
 
     @Test
     void rentBook_whenBookNotAvailable_throwsException() {
         book.setStatus(LibraryBook.BookStatus.RENTED);
+        when(rentalDAO.rentAvailableBook(eq(10L), eq(1L), any(), any())).thenReturn(Optional.empty());
         when(libraryBookDAO.findById(10L)).thenReturn(Optional.of(book));
 
         EntityNotFoundException ex = assertThrows(EntityNotFoundException.class,
                 () -> rentalService.rentBook(user, 10L));
 
         assertEquals("Книга недоступна для аренды", ex.getMessage());
-        verify(rentalDAO, never()).save(any());
     }
 
     @Test
     void rentBook_whenBookNotFound_throwsException() {
+        when(rentalDAO.rentAvailableBook(eq(10L), eq(1L), any(), any())).thenReturn(Optional.empty());
         when(libraryBookDAO.findById(10L)).thenReturn(Optional.empty());
 
         EntityNotFoundException ex = assertThrows(EntityNotFoundException.class,
@@ -85,30 +95,48 @@ class RentalServiceTest {
     }
 
     @Test
-    void returnBook_success() {
-        book.setStatus(LibraryBook.BookStatus.RENTED);
+    void rentAnyCopy_success() {
+        when(rentalDAO.rentAnyAvailableCopy(eq(5L), eq(1L), any(), any()))
+                .thenReturn(Optional.of(new RentalDAO.RentalTransition(100L, 10L, 5L)));
 
-        Rental rental = new Rental();
-        rental.setUser(user);
-        rental.setLibraryBook(book);
-        rental.setReturnedAt(null);
+        RentalDTO rental = rentalService.rentAnyCopy(user, 5L);
 
-        when(libraryBookDAO.findById(10L)).thenReturn(Optional.of(book));
-        when(rentalDAO.findByBookId(10L)).thenReturn(List.of(rental));
+        assertEquals(100L, rental.getId());
+        assertEquals(10L, rental.getLibraryBookId());
+        assertEquals(1L, rental.getUserId());
+        assertEquals(rental.getRentedAt().plusDays(7), rental.getDueDate());
+    }
+
+    @Test
+    void rentAnyCopy_whenNoCopyAvailable_throwsException() {
+        when(rentalDAO.rentAnyAvailableCopy(eq(5L), eq(1L), any(), any())).thenReturn(Optional.empty());
+
+        EntityNotFoundException ex = assertThrows(EntityNotFoundException.class,
+                () -> rentalService.rentAnyCopy(user, 5L));
+
+        assertEquals("Нет доступных экземпляров книги", ex.getMessage());
+    }
+
+    @Test
+    void returnBook_success() {
+        when(rentalDAO.closeActiveRental(eq(10L), eq(1L), any()))
+                .thenReturn(Optional.of(new RentalDAO.RentalTransition(100L, 10L, 5L)));
 
         rentalService.returnBook(10L, user);
 
-        assertEquals(LibraryBook.BookStatus.AVAILABLE, book.getStatus());
-        assertNotNull(rental.getReturnedAt());
-        verify(libraryBookDAO).update(book);
-        verify(rentalDAO).update(rental);
-        verify(auditService).logAction(user, book, "BOOK_RETURNED");
+        verify(rentalDAO).closeActiveRental(eq(10L), eq(1L), any(LocalDateTime.class));
+        verify(libraryBookDAO, never()).findById(any());
+        verify(rentalDAO, never()).findActiveByBookId(any());
+        verify(overdueTracker).untrack(100L);
+        verify(holdService).handOff(10L, 5L);
+        verify(eventPublisher).publishEvent(new BookStatusChangedEvent(10L, 5L, "AVAILABLE"));
     }
 
     @Test
     void returnBook_whenNoRentals_throwsException() {
+        book.setStatus(LibraryBook.BookStatus.RENTED);
         when(libraryBookDAO.findById(10L)).thenReturn(Optional.of(book));
-        when(rentalDAO.findByBookId(10L)).thenReturn(Collections.emptyList());
+        when(rentalDAO.findActiveByBookId(10L)).thenReturn(Optional.empty());
 
         EntityNotFoundException ex = assertThrows(EntityNotFoundException.class,
                 () -> rentalService.returnBook(10L, user));
@@ -122,13 +150,15 @@ class RentalServiceTest {
         anotherUser.setId(2L);
         anotherUser.setUsername("other");
 
+        book.setStatus(LibraryBook.BookStatus.RENTED);
+
         Rental rental = new Rental();
         rental.setUser(anotherUser);
         rental.setLibraryBook(book);
         rental.setReturnedAt(null);
 
         when(libraryBookDAO.findById(10L)).thenReturn(Optional.of(book));
-        when(rentalDAO.findByBookId(10L)).thenReturn(List.of(rental));
+        when(rentalDAO.findActiveByBookId(10L)).thenReturn(Optional.of(rental));
 
         SecurityException ex = assertThrows(SecurityException.class,
                 () -> rentalService.returnBook(10L, user));
@@ -138,18 +168,57 @@ class RentalServiceTest {
 
     @Test
     void returnBook_whenAlreadyReturned_throwsException() {
-        Rental rental = new Rental();
-        rental.setUser(user);
-        rental.setLibraryBook(book);
-        rental.setReturnedAt(LocalDateTime.now());
+        book.setStatus(LibraryBook.BookStatus.AVAILABLE);
 
         when(libraryBookDAO.findById(10L)).thenReturn(Optional.of(book));
-        when(rentalDAO.findByBookId(10L)).thenReturn(List.of(rental));
 
         IllegalStateException ex = assertThrows(IllegalStateException.class,
                 () -> rentalService.returnBook(10L, user));
 
-        assertEquals("Книга уже возвращена", ex.getMessage());
+        assertEquals("Книга уже доступна — возврат невозможен", ex.getMessage());
+        verify(rentalDAO, never()).findActiveByBookId(any());
+    }
+
+    @Test
+    void returnBooksBySerialNumbers_reportsEachItem() {
+        LibraryBook rented = new LibraryBook();
+        rented.setId(1L);
+        rented.setSerialNumber(111111L);
+        rented.setStatus(LibraryBook.BookStatus.RENTED);
+
+        LibraryBook available = new LibraryBook();
+        available.setId(2L);
+        available.setSerialNumber(222222L);
+        available.setStatus(LibraryBook.BookStatus.AVAILABLE);
+
+        LibraryBook deleted = new LibraryBook();
+        deleted.setId(3L);
+        deleted.setSerialNumber(333333L);
+        deleted.setStatus(LibraryBook.BookStatus.DELETED);
+
+        when(libraryBookDAO.findBySerialNumbers(any())).thenReturn(List.of(rented, available, deleted));
+        when(rentalDAO.closeActiveRentals(eq(List.of(1L)), eq(1L), any()))
+                .thenReturn(List.of(new RentalDAO.RentalTransition(50L, 1L, 5L)));
+
+        List<BatchReturnResultDTO> results = rentalService.returnBooksBySerialNumbers(
+                List.of(111111L, 222222L, 333333L, 444444L, 111111L), user);
+
+        assertEquals(4, results.size());
+        assertEquals(BatchReturnResultDTO.ReturnStatus.RETURNED, results.get(0).getStatus());
+        assertEquals(BatchReturnResultDTO.ReturnStatus.NOT_RENTED, results.get(1).getStatus());
+        assertEquals(BatchReturnResultDTO.ReturnStatus.DELETED, results.get(2).getStatus());
+        assertEquals(BatchReturnResultDTO.ReturnStatus.NOT_FOUND, results.get(3).getStatus());
+        verify(libraryBookDAO, times(1)).findBySerialNumbers(any());
+    }
+
+    @Test
+    void returnBooksBySerialNumbers_nothingRented_skipsUpdate() {
+        when(libraryBookDAO.findBySerialNumbers(any())).thenReturn(List.of());
+
+        List<BatchReturnResultDTO> results = rentalService.returnBooksBySerialNumbers(List.of(111111L), user);
+
+        assertEquals(BatchReturnResultDTO.ReturnStatus.NOT_FOUND, results.get(0).getStatus());
+        verify(rentalDAO, never()).closeActiveRentals(any(), any(), any());
     }
 
     @Test
@@ -197,4 +266,31 @@ class RentalServiceTest {
         List<Rental> result = rentalService.getAllRentals();
         assertEquals(2, result.size());
     }
+
+    @Test
+    void getOverdueRentals_fullPage_returnsNextAfterId() {
+        RentalDTO first = new RentalDTO(3L, 1L, 10L, null, null, null);
+        RentalDTO second = new RentalDTO(8L, 2L, 11L, null, null, null);
+        when(rentalDAO.findOverduePage(0L, 2)).thenReturn(List.of(first, second));
+
+        KeysetPageDTO<RentalDTO> page = rentalService.getOverdueRentals(null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals(8L, page.getNextAfterId());
+    }
+
+    @Test
+    void getOverdueRentals_lastPage_hasNoNextAfterId() {
+        when(rentalDAO.findOverduePage(8L, 2)).thenReturn(List.of(new RentalDTO(9L, 1L, 12L, null, null, null)));
+
+        KeysetPageDTO<RentalDTO> page = rentalService.getOverdueRentals(8L, 2);
+
+        assertNull(page.getNextAfterId());
+    }
+
+    @Test
+    void getOverdueRentals_invalidSize_throwsException() {
+        assertThrows(IllegalArgumentException.class, () -> rentalService.getOverdueRentals(null, 0));
+        verify(rentalDAO, never()).findOverduePage(any(), anyInt());
+    }
 }
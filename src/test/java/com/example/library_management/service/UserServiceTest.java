@@ -86,7 +86,7 @@ class UserServiceTest {
         ur.setRole(userRole);
         user.setUserRoles(List.of(ur));
 
-        when(userDAO.findByUsername("testuser")).thenReturn(user);
+        when(userDAO.findByUsernameWithRoles("testuser")).thenReturn(user);
         when(passwordEncoder.matches("password", "hashedPassword")).thenReturn(true);
         when(jwtUtil.generateToken(eq("testuser"), eq(List.of("USER")))).thenReturn("mockedToken");
 
@@ -102,7 +102,7 @@ class UserServiceTest {
     @Test
     void login_WrongPassword_ThrowsException() {
         user.setPasswordHash("hashedPassword");
-        when(userDAO.findByUsername("testuser")).thenReturn(user);
+        when(userDAO.findByUsernameWithRoles("testuser")).thenReturn(user);
         when(passwordEncoder.matches("wrongPass", "hashedPassword")).thenReturn(false);
 
         LoginDTO dto = new LoginDTO();
@@ -116,7 +116,7 @@ class UserServiceTest {
 
     @Test
     void login_UserNotFound_ThrowsException() {
-        when(userDAO.findByUsername("unknown")).thenReturn(null);
+        when(userDAO.findByUsernameWithRoles("unknown")).thenReturn(null);
 
         LoginDTO dto = new LoginDTO();
         dto.setUsername("unknown");
@@ -214,7 +214,7 @@ class UserServiceTest {
 
     @Test
     void loadUserByUsername_UserFound_ReturnsUser() {
-        when(userDAO.findByUsername("testuser")).thenReturn(user);
+        when(userDAO.findByUsernameWithRoles("testuser")).thenReturn(user);
 
         User result = (User) userService.loadUserByUsername("testuser");
 
@@ -223,7 +223,7 @@ class UserServiceTest {
 
     @Test
     void loadUserByUsername_NotFound_ThrowsException() {
-        when(userDAO.findByUsername("unknown")).thenReturn(null);
+        when(userDAO.findByUsernameWithRoles("unknown")).thenReturn(null);
 
         assertThrows(UsernameNotFoundException.class, () -> {
             userService.loadUserByUsername("unknown");
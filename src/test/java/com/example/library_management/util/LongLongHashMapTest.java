@@ -0,0 +1,72 @@
+package com.example.library_management.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongLongHashMapTest {
+
+    @Test
+    void putGetAndOverwrite() {
+        LongLongHashMap map = new LongLongHashMap();
+        map.put(123456L, 1L);
+        map.put(123456L, 2L);
+
+        assertEquals(2L, map.get(123456L, -1L));
+        assertEquals(-1L, map.get(654321L, -1L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void zeroKeyIsSupported() {
+        LongLongHashMap map = new LongLongHashMap();
+        map.put(0L, 7L);
+
+        assertTrue(map.containsKey(0L));
+        assertEquals(7L, map.get(0L, -1L));
+        assertTrue(map.remove(0L));
+        assertFalse(map.containsKey(0L));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    void removeKeepsCollidingKeysReachable() {
+        LongLongHashMap map = new LongLongHashMap();
+        for (long key = 1; key <= 1000; key++) {
+            map.put(key, key * 10);
+        }
+        for (long key = 1; key <= 1000; key += 2) {
+            assertTrue(map.remove(key));
+        }
+
+        assertEquals(500, map.size());
+        for (long key = 1; key <= 1000; key++) {
+            assertEquals(key % 2 == 0 ? key * 10 : -1L, map.get(key, -1L));
+        }
+        assertFalse(map.remove(1L));
+    }
+
+    @Test
+    void matchesHashMapOnRandomOperations() {
+        LongLongHashMap map = new LongLongHashMap();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(2_000) - 100;
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    map.put(key, i);
+                    expected.put(key, (long) i);
+                }
+                case 1 -> assertEquals(expected.remove(key) != null, map.remove(key));
+                default -> assertEquals(expected.getOrDefault(key, -1L), map.get(key, -1L));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+    }
+}
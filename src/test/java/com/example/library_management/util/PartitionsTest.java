@@ -0,0 +1,40 @@
+package com.example.library_management.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionsTest {
+
+    @Test
+    void partition_splitsIntoChunksWithShorterTail() {
+        List<List<Integer>> chunks = Partitions.partition(List.of(1, 2, 3, 4, 5), 2);
+
+        assertEquals(List.of(List.of(1, 2), List.of(3, 4), List.of(5)), chunks);
+    }
+
+    @Test
+    void partition_emptyCollection_returnsNoChunks() {
+        assertTrue(Partitions.partition(Set.of(), 10).isEmpty());
+    }
+
+    @Test
+    void partition_invalidSize_throwsException() {
+        assertThrows(IllegalArgumentException.class, () -> Partitions.partition(List.of(1), 0));
+    }
+
+    @Test
+    void idLists_distinct_keepsFirstOccurrenceOrder() {
+        assertEquals(List.of(3L, 1L, 2L), IdLists.distinct(List.of(3L, 1L, 3L, 2L, 1L)));
+    }
+
+    @Test
+    void idLists_inRequestOrder_skipsMissingIds() {
+        List<String> ordered = IdLists.inRequestOrder(List.of(2L, 5L, 1L), List.of("1", "2"), Long::valueOf);
+
+        assertEquals(List.of("2", "1"), ordered);
+    }
+}
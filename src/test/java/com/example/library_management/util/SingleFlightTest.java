@@ -0,0 +1,73 @@
+package com.example.library_management.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<Long, String> flight = new SingleFlight<>();
+
+    @Test
+    void execute_concurrentCallsShareOneLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> flight.execute(1L, () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return "книга";
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> follower = new CompletableFuture<>();
+        Thread followerThread = new Thread(() -> follower.complete(flight.execute(1L, () -> {
+            loads.incrementAndGet();
+            return "другая";
+        })));
+        followerThread.start();
+        // Дождаться, пока второй вызов встанет в ожидание первого
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (followerThread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertFalse(follower.isDone());
+        release.countDown();
+
+        assertEquals("книга", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("книга", follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+        assertEquals(0, flight.inFlightCount());
+    }
+
+    @Test
+    void execute_failureIsNotRemembered() {
+        assertThrows(IllegalStateException.class, () -> flight.execute(1L, () -> {
+            throw new IllegalStateException("БД недоступна");
+        }));
+
+        assertEquals("книга", flight.execute(1L, () -> "книга"));
+        assertEquals(0, flight.inFlightCount());
+    }
+
+    @Test
+    void execute_differentKeysLoadIndependently() {
+        assertEquals("1", flight.execute(1L, () -> "1"));
+        assertEquals("2", flight.execute(2L, () -> "2"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
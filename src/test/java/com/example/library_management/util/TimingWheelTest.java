@@ -0,0 +1,48 @@
+package com.example.library_management.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    @Test
+    void firesOnlyAfterExpiration() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 8, 0);
+        wheel.schedule("a", 25);
+
+        assertTrue(wheel.advance(20).isEmpty());
+        assertEquals(List.of("a"), wheel.advance(30));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cascadesFromUpperLevels() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 4, 0);
+        wheel.schedule("far", 10_000);
+
+        assertTrue(wheel.advance(9_990).isEmpty());
+        assertEquals(List.of("far"), wheel.advance(10_010));
+    }
+
+    @Test
+    void cancelledTimeoutDoesNotFire() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 8, 0);
+        TimingWheel.Timeout<String> timeout = wheel.schedule("a", 500);
+
+        assertTrue(wheel.cancel(timeout));
+        assertFalse(wheel.cancel(timeout));
+        assertTrue(wheel.advance(1_000).isEmpty());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void alreadyExpiredFiresOnNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 8, 1_000);
+        wheel.schedule("late", 100);
+
+        assertEquals(List.of("late"), wheel.advance(1_000));
+    }
+}